@@ -23,6 +23,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import com.indoqa.boot.actuate.health.SystemHealthIndicator;
 import com.indoqa.boot.actuate.metrics.RequestCounterMetrics;
 import com.indoqa.boot.actuate.metrics.SystemPublicMetrics;
+import com.indoqa.boot.actuate.metrics.VirtualThreadPinningMetrics;
 
 @Configuration
 @EnableScheduling
@@ -42,4 +43,9 @@ public class DefaultActuatorActivator implements ActuatorActivator {
     public SystemPublicMetrics getSystemPublicMetrics() {
         return new SystemPublicMetrics();
     }
+
+    @Bean
+    public VirtualThreadPinningMetrics getVirtualThreadPinningMetrics() {
+        return new VirtualThreadPinningMetrics();
+    }
 }
@@ -32,7 +32,7 @@ import jakarta.annotation.PostConstruct;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import spark.Response;
+import com.indoqa.boot.spark.AsyncRouteResponse;
 
 /**
  * A Spark interceptor that counts all requests and provides statistics via the {@link PublicMetrics} interface.
@@ -208,7 +208,8 @@ public class RequestCounterMetrics implements PublicMetrics {
 
     @PostConstruct
     public void mount() {
-        afterAfter((req, res) -> this.incrementRequestCount(res));
+        // asynchronous routes are counted once with the status of their result
+        afterAfter((req, res) -> AsyncRouteResponse.afterCompletion(req.raw(), res.raw(), this::incrementRequestCount));
     }
 
     private void exportCurrentTimeMetrics(int currentMinute, int currentHour) {
@@ -247,8 +248,8 @@ public class RequestCounterMetrics implements PublicMetrics {
         }
     }
 
-    private void incrementRequestCount(Response res) {
-        String statusKey = createKeyFromStatus(res.status());
+    private void incrementRequestCount(int status) {
+        String statusKey = createKeyFromStatus(status);
 
         AtomicInteger requestsByStatusCounter = this.activeMinutesCounter.get(statusKey);
         requestsByStatusCounter.incrementAndGet();
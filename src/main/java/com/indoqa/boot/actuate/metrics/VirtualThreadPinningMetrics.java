@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.actuate.metrics;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+
+import com.indoqa.boot.spark.SparkAdminService;
+import com.indoqa.boot.spark.SparkDefaultService;
+import com.indoqa.boot.spark.SparkServerSettings;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * If request handling runs on virtual threads (<code>spark.virtual-threads=true</code>), this {@link PublicMetrics} implementation
+ * listens to the JFR event <code>jdk.VirtualThreadPinned</code>, counts how often and how long virtual threads were pinned to their
+ * carrier threads and logs each pinning location once.
+ */
+public class VirtualThreadPinningMetrics implements PublicMetrics {
+
+    private static final Logger LOGGER = getLogger(VirtualThreadPinningMetrics.class);
+
+    private static final String EVENT_VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+    private static final String METRIC_PINNED_COUNT = "threads.virtual.pinned.count";
+    private static final String METRIC_PINNED_TIME = "threads.virtual.pinned.time";
+    private static final String UNKNOWN_LOCATION = "[unknown]";
+    private static final int MAX_REPORTED_LOCATIONS = 100;
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    @Inject
+    private SparkDefaultService sparkDefaultService;
+
+    @Inject
+    private SparkAdminService sparkAdminService;
+
+    private static String getLocation(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return UNKNOWN_LOCATION;
+        }
+
+        // the first Java frame outside of the JDK is the code that holds the monitor or calls native code
+        return stackTrace
+            .getFrames()
+            .stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .filter(frame -> !frame.getMethod().getType().getName().startsWith("java."))
+            .findFirst()
+            .map(VirtualThreadPinningMetrics::toLocation)
+            .orElse(UNKNOWN_LOCATION);
+    }
+
+    private static boolean isEnabled(SparkServerSettings settings) {
+        return settings != null && settings.isVirtualThreads();
+    }
+
+    private static String toLocation(RecordedFrame frame) {
+        return new StringBuilder()
+            .append(frame.getMethod().getType().getName())
+            .append('.')
+            .append(frame.getMethod().getName())
+            .append(':')
+            .append(frame.getLineNumber())
+            .toString();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        if (this.recordingStream == null) {
+            return Collections.emptyList();
+        }
+
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>(METRIC_PINNED_COUNT, this.pinnedCount.sum()));
+        result.add(new Metric<>(METRIC_PINNED_TIME, NANOSECONDS.toMillis(this.pinnedNanos.sum())));
+        return result;
+    }
+
+    @PostConstruct
+    public void start() {
+        SparkServerSettings settings = this.getVirtualThreadsSettings();
+        if (settings == null) {
+            return;
+        }
+
+        this.recordingStream = new RecordingStream();
+        this.recordingStream
+            .enable(EVENT_VIRTUAL_THREAD_PINNED)
+            .withThreshold(Duration.ofMillis(settings.getVirtualThreadsPinnedThreshold()))
+            .withStackTrace();
+        this.recordingStream.onEvent(EVENT_VIRTUAL_THREAD_PINNED, this::onPinned);
+        this.recordingStream.startAsync();
+
+        LOGGER.info("Virtual threads are enabled. Pinned carrier threads are reported via the metric '{}'.", METRIC_PINNED_COUNT);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (this.recordingStream != null) {
+            this.recordingStream.close();
+        }
+    }
+
+    private SparkServerSettings getVirtualThreadsSettings() {
+        SparkServerSettings defaultSettings = this.sparkDefaultService.getServerSettings();
+        if (isEnabled(defaultSettings)) {
+            return defaultSettings;
+        }
+
+        SparkServerSettings adminSettings = this.sparkAdminService.getServerSettings();
+        if (isEnabled(adminSettings)) {
+            return adminSettings;
+        }
+
+        return null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        this.pinnedCount.increment();
+        this.pinnedNanos.add(event.getDuration().toNanos());
+
+        String location = getLocation(event);
+        if (this.reportedLocations.size() < MAX_REPORTED_LOCATIONS && this.reportedLocations.add(location)) {
+            LOGGER.warn(
+                "A virtual thread was pinned to its carrier thread for {} ms at {}. "
+                    + "Further pinnings at this location are only counted.",
+                event.getDuration().toMillis(),
+                location);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import static java.lang.Boolean.FALSE;
 import org.springframework.core.env.Environment;
 
 import com.indoqa.boot.json.resources.AbstractJsonResourcesBase;
+import com.indoqa.boot.json.resources.RenderedResponseCache;
 import com.indoqa.boot.spark.SparkAdminService;
 
 import jakarta.inject.Inject;
@@ -54,6 +55,24 @@ public abstract class AbstractAdminResources extends AbstractJsonResourcesBase {
         }
     }
 
+    /**
+     * Map an actuator route whose result is rendered once and then served from the passed cache, see
+     * {@link #getPreRendered(String, Route, RenderedResponseCache)}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param cache The cache of the rendered response.
+     */
+    protected void getActuator(String path, Route route, RenderedResponseCache cache) {
+        if (this.isAdminServiceAvailable()) {
+            this.sparkAdminService.instance().get(path, CONTENT_TYPE_JSON, this.preRendered(route, cache), this.getTransformer());
+        }
+
+        else if (this.isEnabledViaDefaultService()) {
+            this.getPreRendered(resolveAdminPath(path), route, cache);
+        }
+    }
+
     protected void getActuatorHtml(String path, Route route) {
         if (this.isAdminServiceAvailable()) {
             this.getSparkAdminService().get(path, CONTENT_TYPE_HTML, route);
@@ -23,6 +23,7 @@ import jakarta.inject.Inject;
 
 import com.indoqa.boot.actuate.systeminfo.BasicSystemInfo;
 import com.indoqa.boot.actuate.systeminfo.SystemInfo;
+import com.indoqa.boot.json.resources.RenderedResponseCache;
 import com.indoqa.boot.json.transformer.JsonTransformer;
 
 import spark.Response;
@@ -44,10 +45,16 @@ public class SystemInfoResource extends AbstractAdminResources {
 
     @PostConstruct
     public void mount() {
-        this.getActuator("/system-info", (request, response) -> this.sendSystemInfo(response));
+        // both system infos are immutable after the initialization, they are only rendered again after a modification
+        RenderedResponseCache systemInfoCache = new RenderedResponseCache(this.systemInfo::getRevision);
+        this.getActuator("/system-info", (request, response) -> this.sendSystemInfo(response), systemInfoCache);
 
         // minimal systemInfo exposed via the business application REST service
-        Spark.get("/system-info", (request, response) -> this.sendReducedSystemInfo(response), this.jsonTransformer);
+        RenderedResponseCache reducedSystemInfoCache = new RenderedResponseCache(this.reducedSystemInfo::getRevision);
+        Spark.get(
+            "/system-info",
+            this.preRendered((request, response) -> this.sendReducedSystemInfo(response), reducedSystemInfoCache),
+            this.jsonTransformer);
     }
 
     private BasicSystemInfo sendReducedSystemInfo(Response response) {
@@ -26,6 +26,7 @@ import java.net.URL;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
@@ -45,6 +46,9 @@ public abstract class AbstractSystemInfo {
     private String version;
     private boolean initialized;
 
+    @JsonIgnore
+    private final AtomicLong revision = new AtomicLong();
+
     @JsonInclude(NON_NULL)
     private Map<String, String> git;
 
@@ -99,6 +103,16 @@ public abstract class AbstractSystemInfo {
         return this.git;
     }
 
+    /**
+     * The revision is incremented with every modification, so that pre-rendered responses of this system info can be invalidated.
+     *
+     * @return The current revision.
+     */
+    @JsonIgnore
+    public long getRevision() {
+        return this.revision.get();
+    }
+
     public String getVersion() {
         return this.version;
     }
@@ -107,6 +121,15 @@ public abstract class AbstractSystemInfo {
     public void initProperties() {
         this.version = initApplicationVersion(this.versionProvider);
         this.git = this.initGitProperties();
+        this.invalidate();
+    }
+
+    /**
+     * Mark this system info as modified. Subclasses call it from all their setters, applications have to call it after modifying
+     * returned collections.
+     */
+    public void invalidate() {
+        this.revision.incrementAndGet();
     }
 
     public boolean isInitialized() {
@@ -115,6 +138,7 @@ public abstract class AbstractSystemInfo {
 
     public void setInitialized(boolean initialized) {
         this.initialized = initialized;
+        this.invalidate();
     }
 
     protected boolean filterGitProperty(@SuppressWarnings("unused") Object object) {
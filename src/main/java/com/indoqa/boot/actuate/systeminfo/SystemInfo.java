@@ -39,6 +39,8 @@ import jakarta.inject.Inject;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.indoqa.boot.spark.SparkAdminService;
+import com.indoqa.boot.spark.SparkDefaultService;
+import com.indoqa.boot.spark.SparkServerSettings;
 import com.indoqa.boot.version.VersionProvider;
 
 import org.slf4j.Logger;
@@ -67,6 +69,8 @@ public class SystemInfo extends AbstractSystemInfo {
     private String adminPort;
     private String hostname;
     private String indoqaBootVersion;
+    private SparkServerSettings serverSettings;
+    private SparkServerSettings adminServerSettings;
 
     @JsonIgnore
     private String asciiLogo;
@@ -83,6 +87,10 @@ public class SystemInfo extends AbstractSystemInfo {
     @Inject
     private SparkAdminService sparkAdminService;
 
+    @JsonIgnore
+    @Inject
+    private SparkDefaultService sparkDefaultService;
+
     private static Map<String, SpringProperty> filterSystemAndEnvironmentProperties(Map<String, SpringProperty> springProperties) {
         return new TreeMap<>(
             springProperties
@@ -184,6 +192,7 @@ public class SystemInfo extends AbstractSystemInfo {
 
     public void addProperty(String key, String value) {
         this.more.put(key, value);
+        this.invalidate();
     }
 
     @JsonProperty("admin-port")
@@ -191,6 +200,11 @@ public class SystemInfo extends AbstractSystemInfo {
         return this.adminPort;
     }
 
+    @JsonProperty("admin-server-settings")
+    public SparkServerSettings getAdminServerSettings() {
+        return this.adminServerSettings;
+    }
+
     @JsonProperty("application-name")
     public String getApplicationName() {
         return this.applicationName;
@@ -231,6 +245,11 @@ public class SystemInfo extends AbstractSystemInfo {
         return this.profiles;
     }
 
+    @JsonProperty("server-settings")
+    public SparkServerSettings getServerSettings() {
+        return this.serverSettings;
+    }
+
     @JsonProperty("spring-properties")
     public Map<String, SpringProperty> getSpringProperties() {
         return this.springProperties;
@@ -268,6 +287,9 @@ public class SystemInfo extends AbstractSystemInfo {
         this.springPropertySources = initSpringPropertySources(this.springEnvironment);
         this.hostname = initHostname();
         this.indoqaBootVersion = initIndoqaBootVersion();
+        this.serverSettings = this.sparkDefaultService.getServerSettings();
+        this.adminServerSettings = this.sparkAdminService.getServerSettings();
+        this.invalidate();
     }
 
     public void recheckForRandomlyAssignedPorts() {
@@ -277,21 +299,27 @@ public class SystemInfo extends AbstractSystemInfo {
         if (adminServiceInstance != null) {
             this.adminPort = Integer.toString(adminServiceInstance.port());
         }
+
+        this.invalidate();
     }
 
     public void setApplicationName(String applicationName) {
         this.applicationName = applicationName;
+        this.invalidate();
     }
 
     public void setAsciiLogo(String asciiLogo) {
         this.asciiLogo = asciiLogo;
+        this.invalidate();
     }
 
     public void setInitializationDuration(long duration) {
         this.initializationDuration = duration;
+        this.invalidate();
     }
 
     public void setStarted(Date started) {
         this.started = started;
+        this.invalidate();
     }
 }
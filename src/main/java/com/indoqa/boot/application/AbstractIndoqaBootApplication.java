@@ -39,9 +39,12 @@ import com.indoqa.boot.actuate.resources.*;
 import com.indoqa.boot.actuate.systeminfo.BasicSystemInfo;
 import com.indoqa.boot.actuate.systeminfo.SystemInfo;
 import com.indoqa.boot.json.interceptor.DefaultContentTypeAfterInterceptor;
+import com.indoqa.boot.json.resources.cache.ResponseCacheMetrics;
 import com.indoqa.boot.json.transformer.JacksonTransformer;
 import com.indoqa.boot.spark.SparkAdminService;
 import com.indoqa.boot.spark.SparkDefaultService;
+import com.indoqa.boot.spark.admission.AdmissionControlInterceptor;
+import com.indoqa.boot.spark.admission.BulkheadMetrics;
 import com.indoqa.boot.version.VersionProvider;
 
 import org.apache.commons.io.IOUtils;
@@ -277,7 +280,6 @@ public abstract class AbstractIndoqaBootApplication implements VersionProvider {
         this.context.register(ThreadDumpResources.class);
         this.context.register(HeapDumpResources.class);
         this.context.register(MetricsResources.class);
-        this.context.register(ActuatorGzipInterceptor.class);
 
         if (this.isClassAvailable("org.apache.logging.log4j.LogManager")) {
             this.context.register(Log4j2LoggingResource.class);
@@ -303,6 +305,10 @@ public abstract class AbstractIndoqaBootApplication implements VersionProvider {
     }
 
     private void initializeDefaultResources() {
+        // register admission control first, its before-filter has to run ahead of all other filters
+        this.context.register(AdmissionControlInterceptor.class);
+        this.context.register(BulkheadMetrics.class);
+        this.context.register(ResponseCacheMetrics.class);
         this.context.register(DefaultContentTypeAfterInterceptor.class);
         this.context.register(ShutdownResource.class);
     }
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static com.indoqa.boot.resources.AcceptEncoding.HEADER_ACCEPT_ENCODING;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+import com.indoqa.boot.resources.AcceptEncoding;
+import com.indoqa.boot.resources.ETags;
+
+/**
+ * A static asset held in a read-only direct buffer. All header values, including the <code>Cache-Control</code> header of the
+ * {@link CachePolicy}, are computed when the asset is loaded.
+ * <p>
+ * An asset can have compressed representations, see {@link #addEncoding(String, ByteBuffer, String)}. The best representation is
+ * selected by the <code>Accept-Encoding</code> header of the request.
+ * </p>
+ */
+/*default*/ final class Asset {
+
+    public static final String BROTLI = "br";
+    public static final String GZIP = "gzip";
+
+    private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_RANGE = "If-Range";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_RANGE = "Range";
+    private static final String HEADER_VARY = "Vary";
+    private static final String RANGE_UNIT = "bytes";
+
+    // the encodings in the order of preference
+    private static final String[] ENCODINGS = {BROTLI, GZIP};
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final Representation identity;
+    private final String contentType;
+    private final String lastModified;
+    private final String cacheControl;
+
+    private volatile Representation[] encodedRepresentations = new Representation[0];
+
+    Asset(String path, byte[] bytes, long lastModified, String cacheControl) {
+        this.identity = new Representation(null, toBuffer(bytes), ETags.strong(bytes));
+        this.contentType = ContentTypes.forPath(path);
+        this.lastModified = lastModified > 0
+            ? DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(lastModified).atZone(ZoneOffset.UTC))
+            : null;
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Get the content encoding of the passed path of a precompressed file, e.g. <code>br</code> for <code>main.js.br</code>.
+     *
+     * @return The content encoding or null if the path isn't a precompressed file.
+     */
+    public static String getEncodingOfPath(String path) {
+        if (path.endsWith(".br")) {
+            return BROTLI;
+        }
+        if (path.endsWith(".gz")) {
+            return GZIP;
+        }
+        return null;
+    }
+
+    /**
+     * Copy the bytes into a read-only direct buffer.
+     */
+    public static ByteBuffer toBuffer(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static int getPreference(Representation representation) {
+        return Arrays.asList(ENCODINGS).indexOf(representation.getEncoding());
+    }
+
+    private static void write(ByteBuffer buffer, HttpServletResponse response) throws IOException {
+        ServletOutputStream outputStream = response.getOutputStream();
+        if (outputStream instanceof HttpOutput) {
+            // Jetty writes direct buffers to the connection without copying them to the heap
+            ((HttpOutput) outputStream).write(buffer);
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(COPY_BUFFER_SIZE, buffer.remaining())];
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Add a compressed representation of this asset. Representations of encodings other than <code>br</code> and <code>gzip</code>
+     * and representations of already existing encodings are ignored.
+     *
+     * @param encoding The content encoding.
+     * @param content The compressed content.
+     * @param etag The entity tag of the compressed content.
+     */
+    public synchronized void addEncoding(String encoding, ByteBuffer content, String etag) {
+        if (!Arrays.asList(ENCODINGS).contains(encoding) || this.hasEncoding(encoding)) {
+            return;
+        }
+
+        Representation[] representations = Arrays.copyOf(this.encodedRepresentations, this.encodedRepresentations.length + 1);
+        representations[representations.length - 1] = new Representation(encoding, content, etag);
+        Arrays.sort(representations, Comparator.comparingInt(Asset::getPreference));
+        this.encodedRepresentations = representations;
+    }
+
+    /**
+     * Get a copy of the uncompressed content.
+     */
+    public byte[] getBytes() {
+        ByteBuffer content = this.identity.getContent();
+        byte[] result = new byte[content.remaining()];
+        content.get(result);
+        return result;
+    }
+
+    public ByteBuffer getContent() {
+        return this.identity.getContent();
+    }
+
+    public String getETag() {
+        return this.identity.getETag();
+    }
+
+    public int getSize() {
+        return this.identity.getContent().capacity();
+    }
+
+    public boolean hasEncoding(String encoding) {
+        for (Representation eachRepresentation : this.encodedRepresentations) {
+            if (eachRepresentation.getEncoding().equals(encoding)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isCompressible() {
+        return ContentTypes.isCompressible(this.contentType);
+    }
+
+    /**
+     * Send the asset, a part of it (<code>206 Partial Content</code>) or <code>304 Not Modified</code> and commit the response.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Representation representation = this.selectRepresentation(request);
+
+        response.setHeader(HEADER_ETAG, representation.getETag());
+        response.setHeader(HEADER_CACHE_CONTROL, this.cacheControl);
+        response.setHeader(HEADER_ACCEPT_RANGES, RANGE_UNIT);
+        if (this.lastModified != null) {
+            response.setHeader(HEADER_LAST_MODIFIED, this.lastModified);
+        }
+        if (this.encodedRepresentations.length > 0) {
+            response.addHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+        }
+
+        if (ETags.matches(request.getHeader(HEADER_IF_NONE_MATCH), representation.getETag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.flushBuffer();
+            return;
+        }
+
+        response.setContentType(this.contentType);
+        if (representation.getEncoding() != null) {
+            response.setHeader(HEADER_CONTENT_ENCODING, representation.getEncoding());
+        }
+        ByteBuffer body = representation.getContent();
+
+        ByteRange range = getRange(request, representation);
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HEADER_CONTENT_RANGE, RANGE_UNIT + " */" + body.capacity());
+            response.setContentLength(0);
+            response.flushBuffer();
+            return;
+        }
+
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(
+                HEADER_CONTENT_RANGE,
+                RANGE_UNIT + " " + range.getStart() + "-" + range.getEnd() + "/" + body.capacity());
+            body.position((int) range.getStart()).limit((int) range.getEnd() + 1);
+        }
+
+        response.setContentLength(body.remaining());
+        if (!"HEAD".equals(request.getMethod())) {
+            write(body, response);
+        }
+        response.flushBuffer();
+    }
+
+    private ByteRange getRange(HttpServletRequest request, Representation representation) {
+        String ifRange = request.getHeader(HEADER_IF_RANGE);
+        if (ifRange != null && !ifRange.equals(representation.getETag()) && !ifRange.equals(this.lastModified)) {
+            // the asset has changed since the client got the first part
+            return null;
+        }
+        return ByteRange.parse(request.getHeader(HEADER_RANGE), representation.getContent().capacity());
+    }
+
+    private Representation selectRepresentation(HttpServletRequest request) {
+        for (Representation eachRepresentation : this.encodedRepresentations) {
+            if (AcceptEncoding.accepts(request, eachRepresentation.getEncoding())) {
+                return eachRepresentation;
+            }
+        }
+        return this.identity;
+    }
+
+    private static final class Representation {
+
+        private final String encoding;
+        private final ByteBuffer content;
+        private final String etag;
+
+        Representation(String encoding, ByteBuffer content, String etag) {
+            this.encoding = encoding;
+            this.content = content;
+            this.etag = etag;
+        }
+
+        /**
+         * @return A duplicate of the content, so that position and limit can be changed.
+         */
+        ByteBuffer getContent() {
+            return this.content.duplicate();
+        }
+
+        String getEncoding() {
+            return this.encoding;
+        }
+
+        String getETag() {
+            return this.etag;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.resources.ETags;
+
+/**
+ * Holds the static assets of a single-page application build in memory. All files below the classpath location are loaded at startup
+ * into direct buffers, so requests are served without resolving classpath resources (e.g. within a jar-in-jar) and without copying the
+ * content. Only if no files could be listed at startup (e.g. because the class loader doesn't support it), files are loaded on their
+ * first request. Paths without a file are remembered then, so that requests for them don't resolve classpath resources again.
+ * <p>
+ * Responses contain precomputed <code>Content-Type</code>, <code>Content-Length</code>, <code>ETag</code> and
+ * <code>Last-Modified</code> headers, conditional requests and single byte ranges are supported. The <code>Cache-Control</code>
+ * header is based on the asset manifest of the build, see {@link CachePolicy}.
+ * </p>
+ * <p>
+ * Precompressed files next to an asset (<code>main.js.br</code> and <code>main.js.gz</code> for <code>main.js</code>) are sent
+ * instead of the asset to clients accepting their encoding. Missing gzip variants of text based assets are created at startup in a
+ * background thread.
+ * </p>
+ */
+public final class AssetStore {
+
+    private static final Logger LOGGER = getLogger(AssetStore.class);
+
+    private static final int MIN_COMPRESSION_SIZE = 1024;
+    private static final double MAX_COMPRESSION_RATIO = 0.9;
+    private static final int MAX_MISSING_PATHS = 10_000;
+
+    private final String location;
+    private final ClassLoader classLoader;
+    private final CachePolicy cachePolicy;
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+    private final Set<String> missingPaths = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean lazyLoading = true;
+
+    private AssetStore(String location, ClassLoader classLoader) {
+        this.location = location;
+        this.classLoader = classLoader;
+        this.cachePolicy = CachePolicy.load(classLoader, location);
+    }
+
+    /**
+     * Load all assets below the passed classpath location.
+     *
+     * @param classPathLocation The classpath location of the build, e.g. <code>/my-app</code>.
+     * @return The asset store.
+     */
+    public static AssetStore load(String classPathLocation) {
+        String location = StringUtils.strip(classPathLocation, "/");
+        if (StringUtils.isBlank(location)) {
+            throw new ApplicationInitializationException("The classpath location is empty or null.");
+        }
+
+        return load(location, AssetStore.class.getClassLoader());
+    }
+
+    /*default*/ static AssetStore load(String location, ClassLoader classLoader) {
+        AssetStore result = new AssetStore(location, classLoader);
+        result.preload();
+        result.compressInBackground();
+        return result;
+    }
+
+    private static boolean isValidPath(String path) {
+        return path.startsWith("/") && !path.endsWith("/") && !path.contains("..") && !path.contains("\\") && !path.contains("//");
+    }
+
+    private static boolean isDirectory(URL url) {
+        if (url.toString().endsWith("/")) {
+            return true;
+        }
+        if (!"file".equals(url.getProtocol())) {
+            return false;
+        }
+
+        try {
+            return Files.isDirectory(Paths.get(url.toURI()));
+        } catch (URISyntaxException e) {
+            return true;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream) {
+
+            {
+                this.def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void compress(String location, List<Asset> assets) {
+        int compressed = 0;
+        for (Asset eachAsset : assets) {
+            try {
+                byte[] gzippedBytes = gzip(eachAsset.getBytes());
+                if (gzippedBytes.length > eachAsset.getSize() * MAX_COMPRESSION_RATIO) {
+                    continue;
+                }
+
+                eachAsset.addEncoding(Asset.GZIP, Asset.toBuffer(gzippedBytes), ETags.strong(gzippedBytes));
+                compressed++;
+            } catch (IOException e) {
+                LOGGER.warn("Error while compressing an asset of classpath location {}.", location, e);
+            }
+        }
+        LOGGER.info("Created {} gzip variants of the assets from classpath location {}.", compressed, location);
+    }
+
+    /**
+     * Find out if there is an asset for the passed path.
+     *
+     * @param path The path of the asset relative to the classpath location.
+     * @return True if the asset exists.
+     */
+    public boolean contains(String path) {
+        return this.get(path) != null;
+    }
+
+    /**
+     * Send the asset of the passed path.
+     *
+     * @param path The path of the asset relative to the classpath location, e.g. <code>/static/js/main.js</code>.
+     * @param request The request.
+     * @param response The response, it is committed if the asset was found.
+     * @return False if there is no asset for the path.
+     * @throws IOException If writing the response fails.
+     */
+    public boolean send(String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Asset asset = this.get(path);
+        if (asset == null) {
+            return false;
+        }
+
+        asset.send(request, response);
+        return true;
+    }
+
+    /*default*/ Asset get(String path) {
+        if (path == null) {
+            return null;
+        }
+
+        Asset asset = this.assets.get(path);
+        if (asset != null || !this.lazyLoading || !isValidPath(path) || this.missingPaths.contains(path)) {
+            return asset;
+        }
+
+        URL url = this.classLoader.getResource(this.location + path);
+        if (url == null || isDirectory(url)) {
+            this.addMissingPath(path);
+            return null;
+        }
+
+        try {
+            asset = this.read(path, url);
+        } catch (IOException e) {
+            LOGGER.warn("Error while loading the asset {}.", url, e);
+            return null;
+        }
+
+        Asset existingAsset = this.assets.putIfAbsent(path, asset);
+        if (existingAsset != null) {
+            return existingAsset;
+        }
+
+        if (Asset.getEncodingOfPath(path) == null) {
+            this.addPrecompressedFiles(path, asset);
+        }
+        return asset;
+    }
+
+    private void addMissingPath(String path) {
+        if (this.missingPaths.size() >= MAX_MISSING_PATHS) {
+            // requests for random paths must not fill up the memory
+            this.missingPaths.clear();
+        }
+        this.missingPaths.add(path);
+    }
+
+    private void addPrecompressedFiles(String path, Asset asset) {
+        Asset brotliAsset = this.get(path + ".br");
+        if (brotliAsset != null) {
+            asset.addEncoding(Asset.BROTLI, brotliAsset.getContent(), brotliAsset.getETag());
+        }
+
+        Asset gzipAsset = this.get(path + ".gz");
+        if (gzipAsset != null) {
+            asset.addEncoding(Asset.GZIP, gzipAsset.getContent(), gzipAsset.getETag());
+        }
+    }
+
+    private void compressInBackground() {
+        List<Asset> uncompressedAssets = this.assets
+            .entrySet()
+            .stream()
+            .filter(entry -> Asset.getEncodingOfPath(entry.getKey()) == null)
+            .map(Map.Entry::getValue)
+            .filter(Asset::isCompressible)
+            .filter(asset -> asset.getSize() >= MIN_COMPRESSION_SIZE)
+            .filter(asset -> !asset.hasEncoding(Asset.GZIP))
+            .collect(Collectors.toList());
+        if (uncompressedAssets.isEmpty()) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> compress(this.location, uncompressedAssets), "asset-compression-" + this.location);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private List<String> getRootUrls(PathMatchingResourcePatternResolver resolver) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (Resource root : resolver.getResources("classpath*:" + this.location + "/")) {
+            String rootUrl = root.getURL().toString();
+            result.add(rootUrl.endsWith("/") ? rootUrl : rootUrl + "/");
+        }
+        return result;
+    }
+
+    private void preload() {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(this.classLoader);
+
+        long bytes = 0;
+        try {
+            List<String> rootUrls = this.getRootUrls(resolver);
+            for (Resource resource : resolver.getResources("classpath*:" + this.location + "/**")) {
+                URL url = resource.getURL();
+                String path = this.getPath(rootUrls, url.toString());
+                if (path == null || isDirectory(url) || this.assets.containsKey(path)) {
+                    continue;
+                }
+
+                Asset asset = this.read(path, url);
+                this.assets.put(path, asset);
+                bytes += asset.getSize();
+            }
+        } catch (IOException e) {
+            throw new ApplicationInitializationException("Error while loading the assets from classpath location " + this.location, e);
+        }
+
+        // the listing works, files that weren't listed don't exist
+        this.lazyLoading = this.assets.isEmpty();
+
+        int precompressed = this.linkPrecompressedFiles();
+        LOGGER.info(
+            "Loaded {} assets ({} bytes, {} precompressed) from classpath location {}.",
+            this.assets.size(),
+            bytes,
+            precompressed,
+            this.location);
+    }
+
+    private Asset read(String path, URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        try (InputStream inputStream = connection.getInputStream()) {
+            return new Asset(path, inputStream.readAllBytes(), connection.getLastModified(), this.cachePolicy.getCacheControl(path));
+        }
+    }
+
+    private int linkPrecompressedFiles() {
+        int result = 0;
+        for (Map.Entry<String, Asset> eachEntry : this.assets.entrySet()) {
+            String path = eachEntry.getKey();
+            String encoding = Asset.getEncodingOfPath(path);
+            if (encoding == null) {
+                continue;
+            }
+
+            Asset asset = this.assets.get(path.substring(0, path.lastIndexOf('.')));
+            if (asset != null) {
+                asset.addEncoding(encoding, eachEntry.getValue().getContent(), eachEntry.getValue().getETag());
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private String getPath(List<String> rootUrls, String url) {
+        for (String rootUrl : rootUrls) {
+            if (url.startsWith(rootUrl) && url.length() > rootUrl.length()) {
+                return url.substring(rootUrl.length() - 1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+/**
+ * A single byte range of a <code>Range</code> header. Multiple ranges are not supported, the whole asset is sent instead.
+ */
+/*default*/ final class ByteRange {
+
+    /**
+     * The range starts after the end of the asset, the response is <code>416 Range Not Satisfiable</code>.
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private static final String UNIT_PREFIX = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse the <code>Range</code> header.
+     *
+     * @param header The value of the header, may be null.
+     * @param length The length of the asset.
+     * @return The range, {@link #UNSATISFIABLE}, or null if the header is missing, invalid or requests multiple ranges.
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || length == 0 || !header.startsWith(UNIT_PREFIX) || header.indexOf(',') != -1) {
+            return null;
+        }
+
+        String range = header.substring(UNIT_PREFIX.length()).trim();
+        int separator = range.indexOf('-');
+        if (separator == -1) {
+            return null;
+        }
+
+        try {
+            if (separator == 0) {
+                // suffix range, the last n bytes
+                long suffixLength = Long.parseLong(range.substring(1));
+                if (suffixLength <= 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+
+            long start = Long.parseLong(range.substring(0, separator));
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+
+            String endValue = range.substring(separator + 1);
+            long end = endValue.isEmpty() ? length - 1 : Math.min(Long.parseLong(endValue), length - 1);
+            if (end < start) {
+                return null;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) { // NOSONAR
+            return null;
+        }
+    }
+
+    public long getEnd() {
+        return this.end;
+    }
+
+    public long getLength() {
+        return this.end - this.start + 1;
+    }
+
+    public long getStart() {
+        return this.start;
+    }
+}
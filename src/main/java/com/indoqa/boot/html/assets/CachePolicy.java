@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.indoqa.boot.ApplicationInitializationException;
+
+/**
+ * Decides on the <code>Cache-Control</code> header of assets based on the <code>asset-manifest.json</code> of the build. Files that
+ * are listed in the manifest and have a content hash in their name never change and can be cached forever. All other files (e.g.
+ * <code>favicon.ico</code> or <code>manifest.json</code>) have to be revalidated with their <code>ETag</code> or
+ * <code>Last-Modified</code> header.
+ */
+/*default*/ final class CachePolicy {
+
+    public static final String NAME_ASSET_MANIFEST_JSON = "asset-manifest.json";
+
+    public static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+    public static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+
+    private static final Logger LOGGER = getLogger(CachePolicy.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // e.g. main.3f2a1b9c.js, 787.8c1d3e2f.chunk.js or logo.6ce24c58023cc2f8fd88fe9d219db6c6.svg
+    private static final Pattern FINGERPRINTED_NAME = Pattern.compile("[^/]*[.-][0-9a-f]{8,}\\.[^/]+$");
+
+    private final List<String> manifestPaths;
+
+    private CachePolicy(List<String> manifestPaths) {
+        this.manifestPaths = manifestPaths;
+    }
+
+    /**
+     * Read the asset manifest of the build at the passed classpath location. If there is no manifest, all assets are revalidated.
+     *
+     * @param classLoader The class loader of the build.
+     * @param location The classpath location without leading slash.
+     * @return The cache policy.
+     */
+    public static CachePolicy load(ClassLoader classLoader, String location) {
+        URL assetManifestUrl = classLoader.getResource(location + "/" + NAME_ASSET_MANIFEST_JSON);
+        if (assetManifestUrl == null) {
+            LOGGER.warn("There is no asset manifest at classpath location {}, all assets will be revalidated.", location);
+            return new CachePolicy(new ArrayList<>());
+        }
+
+        try (InputStream inputStream = assetManifestUrl.openStream()) {
+            return new CachePolicy(readPaths(inputStream));
+        } catch (IOException e) {
+            throw new ApplicationInitializationException("Error while reading the " + NAME_ASSET_MANIFEST_JSON + ".", e);
+        }
+    }
+
+    /**
+     * Collect all string values of the manifest. This supports the flat format of older versions of Create-React-App and the
+     * webpack-manifest-plugin as well as the <code>files</code> and <code>entrypoints</code> of current versions.
+     */
+    private static List<String> readPaths(InputStream inputStream) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (JsonParser jp = JSON_FACTORY.createParser(inputStream)) {
+            for (JsonToken token = jp.nextToken(); token != null; token = jp.nextToken()) {
+                if (token == JsonToken.VALUE_STRING) {
+                    String path = jp.getText();
+                    result.add(path.startsWith("/") ? path : "/" + path);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the <code>Cache-Control</code> header value of the asset. Precompressed files (<code>.br</code> and <code>.gz</code>) get
+     * the policy of their uncompressed file.
+     *
+     * @param path The path of the asset relative to the classpath location.
+     * @return The header value.
+     */
+    public String getCacheControl(String path) {
+        String uncompressedPath = Asset.getEncodingOfPath(path) == null ? path : path.substring(0, path.lastIndexOf('.'));
+        if (this.isFingerprinted(uncompressedPath)) {
+            return CACHE_CONTROL_IMMUTABLE;
+        }
+        return CACHE_CONTROL_REVALIDATE;
+    }
+
+    private boolean isFingerprinted(String path) {
+        if (!FINGERPRINTED_NAME.matcher(path).find()) {
+            return false;
+        }
+
+        // the manifest paths contain the public URL of the application, e.g. /my-app/static/js/main.3f2a1b9c.js
+        for (String eachManifestPath : this.manifestPaths) {
+            if (eachManifestPath.endsWith(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
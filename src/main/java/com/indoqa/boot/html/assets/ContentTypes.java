@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content types of the files produced by Javascript bundlers.
+ */
+/*default*/ final class ContentTypes {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CHARSET_UTF_8 = "; charset=utf-8";
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("css", "text/css" + CHARSET_UTF_8);
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("html", "text/html" + CHARSET_UTF_8);
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("js", "application/javascript" + CHARSET_UTF_8);
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("map", "application/json");
+        CONTENT_TYPES.put("mjs", "application/javascript" + CHARSET_UTF_8);
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("ttf", "font/ttf");
+        CONTENT_TYPES.put("txt", "text/plain" + CHARSET_UTF_8);
+        CONTENT_TYPES.put("wasm", "application/wasm");
+        CONTENT_TYPES.put("webmanifest", "application/manifest+json");
+        CONTENT_TYPES.put("webp", "image/webp");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("xml", "application/xml");
+    }
+
+    private static final String[] COMPRESSIBLE_CONTENT_TYPES = {"text/", "application/javascript", "application/json",
+        "application/manifest+json", "application/wasm", "application/xml", "font/ttf", "image/svg+xml", "image/x-icon"};
+
+    private ContentTypes() {
+        // hide utility class constructor
+    }
+
+    public static String forPath(String path) {
+        int extensionStart = path.lastIndexOf('.');
+        if (extensionStart != -1) {
+            String contentType = CONTENT_TYPES.get(path.substring(extensionStart + 1));
+            if (contentType != null) {
+                return contentType;
+            }
+        }
+
+        String guessedContentType = URLConnection.guessContentTypeFromName(path);
+        if (guessedContentType != null) {
+            return guessedContentType;
+        }
+        return DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * Find out if the content type benefits from compression, i.e. it isn't a compressed image or font format.
+     */
+    public static boolean isCompressible(String contentType) {
+        for (String eachCompressibleContentType : COMPRESSIBLE_CONTENT_TYPES) {
+            if (contentType.startsWith(eachCompressibleContentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -18,14 +18,16 @@ package com.indoqa.boot.html.react;
 
 import static com.indoqa.boot.html.react.ReactAppHelper.shouldIgnoreRequest;
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.TimeUnit.*;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
+import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletResponse;
 
+import com.indoqa.boot.html.assets.AssetStore;
 import com.indoqa.boot.html.builder.HtmlBuilder;
 import com.indoqa.boot.html.react.AbstractCreateReactAppResourceBase.ResponseEnhancements.ResponseEnhancementsBuilder;
 import com.indoqa.boot.html.resources.AbstractHtmlResourcesBase;
@@ -50,10 +52,11 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
     private static final String RESPONSE_HEADER_CACHE_CONTROL = "Cache-Control";
     private static final String RESPONSE_HEADER_EXPIRES = "Expires";
 
-    private static final long LONG_EXPIRY_TIME_SECONDS = DAYS.toSeconds(1000);
-    private static final long LONG_EXPIRE_TIME_MS = LONG_EXPIRY_TIME_SECONDS * 1000;
-    private static final long SHORT_EXPIRY_TIME_SECONDS = HOURS.toSeconds(1);
-    private static final long SHORT_EXPIRE_TIME_MS = SHORT_EXPIRY_TIME_SECONDS * 1000;
+    // the index.html and files of the development build are always validated
+    private static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+
+    private static final String NAME_ASSET_MANIFEST_JSON = "asset-manifest.json";
+    private static final String PROPERTY_EARLY_HINTS = "spark.html.early-hints";
 
     private static final ResponseEnhancementsProvider DEFAULT_REQUEST_ENHANCEMENTS_PROVIDER = (req, res) -> {
         return new ResponseEnhancementsBuilder().build();
@@ -65,44 +68,52 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
     @Inject
     private Environment environment;
 
-    private static StaticFilesConfiguration createStaticHandler(String classPathLocation, String fileSystemLocation, boolean isDev) {
+    private static URL getAssetManifestUrl(String classPathLocation) {
+        String assetManifestPath = StringUtils.removeStart(classPathLocation, "/") + "/" + NAME_ASSET_MANIFEST_JSON;
+        return AbstractCreateReactAppResourceBase.class.getClassLoader().getResource(assetManifestPath);
+    }
+
+    private static StaticFilesConfiguration createStaticHandler(String fileSystemLocation) {
         StaticFilesConfiguration staticHandler = new StaticFilesConfiguration();
-        if (isDev) {
-            staticHandler.configureExternal(fileSystemLocation);
-        }
-        else {
-            staticHandler.configure(classPathLocation);
-        }
+        staticHandler.configureExternal(fileSystemLocation);
         return staticHandler;
     }
 
+    /**
+     * The page is written directly to the response stream. If there is a response modifier, the page is rendered into the body of the
+     * response first, so that the modifier can read or replace it. Spark doesn't write the body if the modifier has committed the
+     * response, e.g. with a redirect.
+     */
     private static void sendIndexHtml(Request request, Response response, IndexHtmlBuilder indexHtmlBuilder,
-        ResponseEnhancements responseEnhancements) {
-        response.body(indexHtmlBuilder.html(request, responseEnhancements));
+        ResponseEnhancements responseEnhancements) throws IOException {
         response.header(RESPONSE_HEADER_CONTENT_TYPE, "text/html; charset=utf-8");
-        if (responseEnhancements == null) {
-            return;
+        response.header(RESPONSE_HEADER_CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+
+        HtmlResponseModifier htmlResponseModifier = null;
+        if (responseEnhancements != null) {
+            htmlResponseModifier = responseEnhancements.getHtmlResponseModifier();
         }
-        HtmlResponseModifier htmlResponseModifier = responseEnhancements.getHtmlResponseModifier();
         if (htmlResponseModifier != null) {
+            response.body(indexHtmlBuilder.html(request, responseEnhancements));
             htmlResponseModifier.modify(request, response);
+            return;
         }
-    }
 
-    private static void setExpiryHeaders(Request request, Response response) {
-        String path = request.pathInfo();
+        HttpServletResponse rawResponse = response.raw();
+        indexHtmlBuilder.write(request, responseEnhancements, rawResponse.getOutputStream());
 
-        // long caching for Javascript and CSS files
-        if (StringUtils.endsWith(path, ".js") || StringUtils.endsWith(path, ".css")) {
-            response.header(RESPONSE_HEADER_CACHE_CONTROL, "private, max-age=" + LONG_EXPIRY_TIME_SECONDS);
-            response.header(RESPONSE_HEADER_EXPIRES, new Date(System.currentTimeMillis() + LONG_EXPIRE_TIME_MS).toString());
-        }
+        // commit the response, Spark doesn't write anything else
+        rawResponse.flushBuffer();
+    }
 
-        // everything else cache for a short period of time
-        else {
-            response.header(RESPONSE_HEADER_CACHE_CONTROL, "private, max-age=" + SHORT_EXPIRY_TIME_SECONDS);
-            response.header(RESPONSE_HEADER_EXPIRES, new Date(System.currentTimeMillis() + SHORT_EXPIRE_TIME_MS).toString());
-        }
+    /**
+     * Send the preload links of the index.html with a <code>103 Early Hints</code> response before the response enhancements are
+     * computed. The property is <code>spark.html.early-hints</code> (default false).
+     *
+     * @return True if early hints are sent.
+     */
+    protected boolean isEarlyHints() {
+        return this.environment.getProperty(PROPERTY_EARLY_HINTS, Boolean.class, Boolean.FALSE);
     }
 
     protected void html(String classPathLocation, String fileSystemLocation) {
@@ -149,25 +160,15 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
                 return;
             }
 
-            // always set expiry headers
-            setExpiryHeaders(request, response);
-
-            String pathInfo = request.pathInfo();
-            ResponseEnhancements responseEnhancements = reactApplication.getResponseEnhancementsProvider().enhance(request, response);
-
-            // request to the root path
-            if ("/".equals(pathInfo)) {
-                sendIndexHtml(request, response, reactApplication.getIndexHtmlBuilder(), responseEnhancements);
+            // look for static resources (except for the root path), their caching headers are based on the asset manifest
+            if (!"/".equals(request.pathInfo()) && reactApplication.sendStaticResource(request, response)) {
                 return;
             }
 
-            // look for static resources
-            boolean staticResourceSent = reactApplication.getStaticFilesConfiguration().consume(request.raw(), response.raw());
-
-            // otherwise, send the index.html
-            if (!staticResourceSent) {
-                sendIndexHtml(request, response, reactApplication.getIndexHtmlBuilder(), responseEnhancements);
-            }
+            // otherwise, send the index.html, announce its Javascript and CSS before the response enhancements are computed
+            reactApplication.getPreloadLinks().send(request, response);
+            ResponseEnhancements responseEnhancements = reactApplication.getResponseEnhancementsProvider().enhance(request, response);
+            sendIndexHtml(request, response, reactApplication.getIndexHtmlBuilder(), responseEnhancements);
         });
     }
 
@@ -186,14 +187,18 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
     private static class ReactApplication {
 
         private final StaticFilesConfiguration staticFilesConfiguration;
+        private final AssetStore assetStore;
         private final IndexHtmlBuilder indexHtmlBuilder;
+        private final PreloadLinks preloadLinks;
         private final ResponseEnhancementsProvider responseEnhancementsProvider;
         private final TestReactApplication testReactApplication;
 
-        ReactApplication(StaticFilesConfiguration conf, IndexHtmlBuilder indexHtmlBuilder, ResponseEnhancementsProvider provider,
-            TestReactApplication testReactApplication) {
+        ReactApplication(StaticFilesConfiguration conf, AssetStore assetStore, IndexHtmlBuilder indexHtmlBuilder,
+            PreloadLinks preloadLinks, ResponseEnhancementsProvider provider, TestReactApplication testReactApplication) {
             this.staticFilesConfiguration = conf;
+            this.assetStore = assetStore;
             this.indexHtmlBuilder = indexHtmlBuilder;
+            this.preloadLinks = preloadLinks;
             this.responseEnhancementsProvider = provider;
             this.testReactApplication = testReactApplication;
         }
@@ -202,13 +207,21 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
             return this.responseEnhancementsProvider;
         }
 
-        StaticFilesConfiguration getStaticFilesConfiguration() {
-            return this.staticFilesConfiguration;
+        boolean sendStaticResource(Request request, Response response) throws IOException {
+            if (this.assetStore != null) {
+                return this.assetStore.send(request.pathInfo(), request.raw(), response.raw());
+            }
+            response.header(RESPONSE_HEADER_CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+            return this.staticFilesConfiguration.consume(request.raw(), response.raw());
         }
 
         IndexHtmlBuilder getIndexHtmlBuilder() {
             return this.indexHtmlBuilder;
         }
+
+        PreloadLinks getPreloadLinks() {
+            return this.preloadLinks;
+        }
     }
 
     private class ReactApplications {
@@ -218,9 +231,25 @@ public abstract class AbstractCreateReactAppResourceBase extends AbstractHtmlRes
         void add(String classPathLocation, String fileSystemLocation, ResponseEnhancementsProvider responseEnhancementsProvider,
             TestReactApplication testReactApplication) {
             boolean isDev = ProfileDetector.isDev(AbstractCreateReactAppResourceBase.this.environment);
-            StaticFilesConfiguration staticHandler = createStaticHandler(classPathLocation, fileSystemLocation, isDev);
+            // in development mode the files are served from the file system as they change, otherwise from memory
+            StaticFilesConfiguration staticHandler = isDev ? createStaticHandler(fileSystemLocation) : null;
+            AssetStore assetStore = isDev ? null : AssetStore.load(classPathLocation);
             IndexHtmlBuilder indexHtmlBuilder = new IndexHtmlBuilder(classPathLocation, fileSystemLocation, isDev);
-            this.apps.add(new ReactApplication(staticHandler, indexHtmlBuilder, responseEnhancementsProvider, testReactApplication));
+
+            // the file names of the development build change with every build, so there are no preload links
+            boolean earlyHints = AbstractCreateReactAppResourceBase.this.isEarlyHints();
+            PreloadLinks preloadLinks = isDev
+                ? PreloadLinks.create(null, null, false)
+                : PreloadLinks.fromAssetManifest(getAssetManifestUrl(classPathLocation), earlyHints);
+
+            this.apps.add(
+                new ReactApplication(
+                    staticHandler,
+                    assetStore,
+                    indexHtmlBuilder,
+                    preloadLinks,
+                    responseEnhancementsProvider,
+                    testReactApplication));
         }
 
         int size() {
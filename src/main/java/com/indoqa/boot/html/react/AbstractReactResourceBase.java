@@ -16,8 +16,8 @@
  */
 package com.indoqa.boot.html.react;
 
+import static com.indoqa.boot.html.react.ReactAppHelper.shouldIgnoreRequest;
 import static com.indoqa.boot.html.react.WebpackAssetsUtils.getAssetsFolder;
-import static java.util.concurrent.TimeUnit.DAYS;
 import static org.apache.commons.lang3.StringUtils.isNumeric;
 import static org.slf4j.LoggerFactory.getLogger;
 import static spark.Spark.*;
@@ -40,6 +40,7 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.html.assets.AssetStore;
 import com.indoqa.boot.html.resources.AbstractHtmlResourcesBase;
 import com.indoqa.boot.html.resources.HtmlResponseModifier;
 import com.indoqa.boot.profile.ProfileDetector;
@@ -47,7 +48,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.springframework.core.env.Environment;
 
-import spark.Spark;
+import spark.Request;
+import spark.Response;
 
 /**
  * Use this base implementation for React/Redux single-page applications that are build by Webpack.
@@ -55,9 +57,9 @@ import spark.Spark;
 public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBase {
 
     private static final Logger LOGGER = getLogger(AbstractReactResourceBase.class);
-    private static final long EXPIRE_TIME = DAYS.toSeconds(1000);
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private static final String NAME_ASSET_MANIFEST_JSON = "asset-manifest.json";
+    private static final String PROPERTY_EARLY_HINTS = "spark.html.early-hints";
 
     @Inject
     private Environment environment;
@@ -89,8 +91,8 @@ public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBas
             throw new ApplicationInitializationException("The classpath location is empty or null.");
         }
 
-        Spark.staticFiles.expireTime(EXPIRE_TIME);
-        staticFileLocation(classPathLocation);
+        AssetStore assetStore = AssetStore.load(classPathLocation);
+        before((request, response) -> sendAsset(assetStore, request, response));
 
         String assetManifestPath = classPathLocation.substring(1) + "/" + NAME_ASSET_MANIFEST_JSON;
         URL assetManifestUrl = AbstractReactResourceBase.class.getClassLoader().getResource(assetManifestPath);
@@ -103,6 +105,19 @@ public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBas
         }
     }
 
+    private static void sendAsset(AssetStore assetStore, Request request, Response response) throws IOException {
+        String path = request.pathInfo();
+        if (shouldIgnoreRequest(request) || !assetStore.contains(path)) {
+            return;
+        }
+
+        assetStore.send(path, request.raw(), response.raw());
+
+        // the response is committed, Spark skips the remaining before filters, the routes and the after filters, only afterAfter
+        // filters run; halting with the sent status (e.g. 304 or 206) keeps Spark from overwriting it with 200 for them
+        halt(response.raw().getStatus());
+    }
+
     private static void findWebpackAssetsByManifest(ReactHtmlBuilder htmlBuilder, URL assetManifestUrl) {
         try (InputStream assetManifest = assetManifestUrl.openStream()) {
             try (JsonParser jp = JSON_FACTORY.createParser(assetManifest)) {
@@ -205,6 +220,16 @@ public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBas
         return artifacts;
     }
 
+    /**
+     * Send the preload links of the HTML page with a <code>103 Early Hints</code> response before the page is rendered. The property
+     * is <code>spark.html.early-hints</code> (default false).
+     *
+     * @return True if early hints are sent.
+     */
+    protected boolean isEarlyHints() {
+        return this.environment.getProperty(PROPERTY_EARLY_HINTS, Boolean.class, Boolean.FALSE);
+    }
+
     protected void configureHtmlBuilder(ReactHtmlBuilder reactHtmlBuilder) {
         // default does nothing
     }
@@ -217,6 +242,17 @@ public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBas
         this.html(mountPath, classPathLocation, fileSystemLocation, null);
     }
 
+    /**
+     * Mount the single-page application. Outside of the development mode, the static assets of the build are sent by a before
+     * filter that is registered by this method. Unlike the static files of Spark, they pass through all before filters that have been
+     * registered earlier (e.g. an authentication check), so these filters have to let asset requests through. Once an asset has been
+     * sent, the remaining before filters, the routes and the after filters are skipped, only <code>afterAfter</code> filters run.
+     *
+     * @param mountPath The path of the application.
+     * @param classPathLocation The classpath location of the build.
+     * @param fileSystemLocation The file system location of the build that is used in development mode.
+     * @param responseModifier Modifies the response of the HTML page, can be null.
+     */
     protected void html(String mountPath, String classPathLocation, String fileSystemLocation, HtmlResponseModifier responseModifier) {
         ReactHtmlBuilder htmlBuilder = this.createHtmlBuilder();
 
@@ -229,7 +265,16 @@ public abstract class AbstractReactResourceBase extends AbstractHtmlResourcesBas
 
         this.configureHtmlBuilder(htmlBuilder);
 
-        this.html(mountPath + "/*", htmlBuilder, responseModifier);
+        PreloadLinks preloadLinks = PreloadLinks.create(
+            htmlBuilder.getMainJavascriptPaths(),
+            htmlBuilder.getMainCssPath(),
+            this.isEarlyHints());
+        this.html(mountPath + "/*", htmlBuilder, (request, response) -> {
+            preloadLinks.send(request, response);
+            if (responseModifier != null) {
+                responseModifier.modify(request, response);
+            }
+        });
     }
 
     private enum Artifact {
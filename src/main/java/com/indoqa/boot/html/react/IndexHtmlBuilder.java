@@ -17,18 +17,17 @@
 package com.indoqa.boot.html.react;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 import com.indoqa.boot.ApplicationInitializationException;
 import com.indoqa.boot.html.builder.HtmlBuilder;
 import com.indoqa.boot.html.react.AbstractCreateReactAppResourceBase.ResponseEnhancements;
-import com.indoqa.boot.json.transformer.HtmlEscapingAwareJsonTransformer;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -39,106 +38,107 @@ import spark.Request;
 public class IndexHtmlBuilder {
 
     private static final Logger LOGGER = getLogger(IndexHtmlBuilder.class);
-    private static final String EMPTY_INITIAL_STATE = "{}";
-    private static final Pattern LANG_PATTERN = Pattern.compile("lang=\"(\\w*)\"");
+    private static final String INDEX_HTML = "index.html";
 
     private final String classPathLocation;
     private final String fileSystemLocation;
     private final boolean isDev;
 
-    private HtmlParts htmlParts = null;
+    private volatile IndexHtmlTemplate template;
+    private long lastModified = -1;
+    private long length = -1;
 
     IndexHtmlBuilder(String classPathLocation, String fileSystemLocation, boolean isDev) {
         this.classPathLocation = classPathLocation;
         this.fileSystemLocation = fileSystemLocation;
         this.isDev = isDev;
-        parseIndexHtml(classPathLocation, fileSystemLocation);
-    }
 
-    private static String appendInitialStateScript(Request request, ResponseEnhancements responseEnhancements) {
-        String initialStateJson = EMPTY_INITIAL_STATE;
-        if (responseEnhancements != null) {
-            InitialStateProvider initialStateProvider = responseEnhancements.getInitialStateProvider();
-            HtmlEscapingAwareJsonTransformer jsonTransformer = responseEnhancements.getJsonTransformer();
-            if (initialStateProvider != null && jsonTransformer != null) {
-                Object initialStateObject = initialStateProvider.initialState(request);
-                if (initialStateObject != null) {
-                    initialStateJson = jsonTransformer.render(initialStateObject);
-                }
-            }
+        if (isDev) {
+            this.reloadIfModified();
+        } else {
+            parseIndexHtml(classPathLocation, fileSystemLocation);
         }
-        return new StringBuilder()
-            .append("<script>window.__INITIAL_STATE__ = ")
-            .append(initialStateJson)
-            .append(";</script>")
-            .toString();
     }
 
-    private static String appendAdditionalHeadContent(Request request, ResponseEnhancements responseEnhancements) {
-        if (responseEnhancements == null) {
-            return EMPTY;
-        }
-
+    private static String getAdditionalHeadContent(Request request, ResponseEnhancements responseEnhancements) {
         HtmlBuilder headerBuilder = responseEnhancements.getHeaderBuilder();
         if (headerBuilder == null) {
-            return EMPTY;
+            return null;
         }
         return headerBuilder.html(request);
     }
 
-    private static String appendTitle(String staticTitle, ResponseEnhancements responseEnhancements) {
-        if (responseEnhancements == null) {
-            return staticTitle;
+    private static Object getInitialState(Request request, ResponseEnhancements responseEnhancements) {
+        InitialStateProvider initialStateProvider = responseEnhancements.getInitialStateProvider();
+        if (initialStateProvider == null || responseEnhancements.getJsonTransformer() == null) {
+            return null;
         }
+        return initialStateProvider.initialState(request);
+    }
 
-        String title = responseEnhancements.getTitle();
-        if (title != null) {
-            return "<title>" + title + "</title>";
+    public String html(Request request, ResponseEnhancements responseEnhancements) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            this.write(request, responseEnhancements, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return staticTitle;
+        return outputStream.toString(UTF_8);
     }
 
-    private static String appendHtmlElement(String htmlElement, ResponseEnhancements responseEnhancements) {
-        if (responseEnhancements == null) {
-            return htmlElement;
+    /**
+     * Write the index.html as UTF-8 to the passed output stream. The output stream is not closed.
+     *
+     * @param request The request.
+     * @param responseEnhancements The enhancements of the response, may be null.
+     * @param outputStream The target output stream.
+     * @throws IOException If writing to the output stream fails.
+     */
+    public void write(Request request, ResponseEnhancements responseEnhancements, OutputStream outputStream) throws IOException {
+        if (this.isDev) {
+            this.reloadIfModified();
         }
-        String lang = responseEnhancements.getLang();
-        if (StringUtils.isNotEmpty(lang)) {
-            Matcher langMatcher = LANG_PATTERN.matcher(htmlElement);
-            if (langMatcher.find()) {
-                return langMatcher.replaceFirst("lang=\"" + lang + "\"");
-            }
+
+        IndexHtmlTemplate currentTemplate = this.template;
+        if (responseEnhancements == null) {
+            currentTemplate.write(outputStream, null, null, null, null, null);
+            return;
         }
-        return htmlElement;
+
+        currentTemplate.write(
+            outputStream,
+            responseEnhancements.getLang(),
+            getAdditionalHeadContent(request, responseEnhancements),
+            responseEnhancements.getTitle(),
+            getInitialState(request, responseEnhancements),
+            responseEnhancements.getJsonTransformer());
     }
 
-    public String html(Request request, ResponseEnhancements responseEnhancements) {
-        if (this.isDev) {
-            parseIndexHtml(this.classPathLocation, this.fileSystemLocation);
-        }
-        return new StringBuilder()
-            .append(this.htmlParts.getBeforeHtmlContent())
-            .append(appendHtmlElement(this.htmlParts.getHtmlElement(), responseEnhancements))
-            .append(this.htmlParts.getHeadElement())
-            .append(this.htmlParts.getHeadContent())
-            .append(appendAdditionalHeadContent(request, responseEnhancements))
-            .append(appendTitle(this.htmlParts.getTitle(), responseEnhancements))
-            .append("</head>")
-            .append(this.htmlParts.getBodyElement())
-            .append(appendInitialStateScript(request, responseEnhancements))
-            .append(this.htmlParts.getBodyContent())
-            .append("</body>")
-            .append("</html>")
-            .toString();
+    /**
+     * In development mode the index.html is parsed again whenever its modification time or size has changed, e.g. after a rebuild.
+     */
+    private synchronized void reloadIfModified() {
+        File indexHtml = new File(this.fileSystemLocation, INDEX_HTML);
+
+        // read the file state first, a change while parsing is picked up by the next request
+        long currentLastModified = indexHtml.lastModified();
+        long currentLength = indexHtml.length();
+        if (currentLastModified == this.lastModified && currentLength == this.length) {
+            return;
+        }
+
+        parseIndexHtml(this.classPathLocation, this.fileSystemLocation);
+        this.lastModified = currentLastModified;
+        this.length = currentLength;
     }
 
     private void parseIndexHtml(String localClassPathLocation, String localFileSystemLocation) {
-        this.htmlParts = new HtmlParts(readIndexHtml(localClassPathLocation, localFileSystemLocation));
+        this.template = new IndexHtmlTemplate(new HtmlParts(readIndexHtml(localClassPathLocation, localFileSystemLocation)));
     }
 
     private String readIndexHtml(String localClassPathLocation, String localFileSystemLocation) {
         if (this.isDev) {
-            File filesystemIndexHtml = new File(localFileSystemLocation, "index.html");
+            File filesystemIndexHtml = new File(localFileSystemLocation, INDEX_HTML);
 
             if (!filesystemIndexHtml.exists()) {
                 LOGGER.warn("There was no index.html found: " + filesystemIndexHtml.getAbsolutePath());
@@ -160,16 +160,12 @@ public class IndexHtmlBuilder {
         }
     }
 
+    /**
+     * Splits the index.html into its parts. The elements are located in a single linear pass each: the first start tag and the last
+     * end tag with the same name delimit an element, so large inlined scripts or styles can't cause excessive backtracking.
+     */
     static class HtmlParts {
 
-        private static final Pattern HTML_PATTERN = Pattern.compile(
-            "((<html(?:\\s+[a-z]+(?:\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s>]+)))*\\s*>)([\\S\\s]*)</html>)");
-        private static final Pattern HEAD_PATTERN = Pattern.compile(
-            "((<head(?:\\s+[a-z]+(?:\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s>]+)))*\\s*>)([\\S\\s]*)</head>)");
-        private static final Pattern BODY_PATTERN = Pattern.compile(
-            "((<body(?:\\s+[a-z]+(?:\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s>]+)))*\\s*>)([\\S\\s]*)</body>)");
-        private static final Pattern TITLE_PATTERN = Pattern.compile(
-            "((<title(?:\\s+[a-z]+(?:\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s>]+)))*\\s*>)([\\S\\s]*)</title>)");
         private String htmlElement = "<html lang=\"en\">";
         private String beforeHtmlContent = "<!DOCTYPE html>\n";
         private String headContent;
@@ -182,26 +178,31 @@ public class IndexHtmlBuilder {
             if (StringUtils.isBlank(html)) {
                 return;
             }
-            Matcher htmlMatcher = HTML_PATTERN.matcher(html);
-            if (htmlMatcher.find()) {
-                this.htmlElement = htmlMatcher.group(2);
+
+            Element root = Element.find(html, "html");
+            if (root != null) {
+                this.htmlElement = root.getStartTag();
             }
 
-            Matcher headerMatcher = HEAD_PATTERN.matcher(html);
-            if (headerMatcher.find()) {
-                this.headElement = headerMatcher.group(2);
-                String headContent = headerMatcher.group(3);
-                Matcher titleMatcher = TITLE_PATTERN.matcher(headContent);
-                if (titleMatcher.find()) {
-                    this.title = titleMatcher.group(0);
+            Element head = Element.find(html, "head");
+            if (head != null) {
+                this.headElement = head.getStartTag();
+                String content = head.getContent();
+                Element titleElement = Element.find(content, "title");
+                if (titleElement == null) {
+                    this.headContent = content;
+                } else {
+                    this.title = titleElement.getElement();
+                    this.headContent = titleElement.removeFromSource();
                 }
-                this.headContent = titleMatcher.replaceFirst("");
             }
-            Matcher bodyMatcher = BODY_PATTERN.matcher(html);
-            if (bodyMatcher.find()) {
-                this.bodyElement = bodyMatcher.group(2);
-                this.bodyContent = bodyMatcher.group(3);
+
+            Element body = Element.find(html, "body");
+            if (body != null) {
+                this.bodyElement = body.getStartTag();
+                this.bodyContent = body.getContent();
             }
+
             int posHead = html.indexOf("<html");
             if (posHead > 0) {
                 this.beforeHtmlContent = html.substring(0, posHead);
@@ -236,4 +237,93 @@ public class IndexHtmlBuilder {
             return this.bodyContent;
         }
     }
+
+    private static final class Element {
+
+        private static final int NO_START_TAG = -1;
+        private static final int UNTERMINATED_START_TAG = -2;
+
+        private final String source;
+        private final int start;
+        private final int startTagEnd;
+        private final int endTagStart;
+        private final int end;
+
+        private Element(String source, int start, int startTagEnd, int endTagStart, int end) {
+            this.source = source;
+            this.start = start;
+            this.startTagEnd = startTagEnd;
+            this.endTagStart = endTagStart;
+            this.end = end;
+        }
+
+        /**
+         * Find the element that starts with the first start tag and ends with the last end tag of the passed name.
+         */
+        public static Element find(String source, String name) {
+            String startTag = "<" + name;
+            String endTag = "</" + name + ">";
+
+            int endTagStart = source.lastIndexOf(endTag);
+            if (endTagStart == -1) {
+                return null;
+            }
+
+            int start = source.indexOf(startTag);
+            while (start != -1 && start < endTagStart) {
+                int startTagEnd = findStartTagEnd(source, start + startTag.length(), endTagStart);
+                if (startTagEnd == UNTERMINATED_START_TAG) {
+                    return null;
+                }
+                if (startTagEnd != NO_START_TAG) {
+                    return new Element(source, start, startTagEnd, endTagStart, endTagStart + endTag.length());
+                }
+                start = source.indexOf(startTag, start + 1);
+            }
+            return null;
+        }
+
+        private static int findStartTagEnd(String source, int nameEnd, int limit) {
+            if (nameEnd >= limit) {
+                return NO_START_TAG;
+            }
+
+            // the name must not continue, e.g. <header> is no head element
+            char next = source.charAt(nameEnd);
+            if (next != '>' && !Character.isWhitespace(next)) {
+                return NO_START_TAG;
+            }
+
+            char quote = 0;
+            for (int i = nameEnd; i < limit; i++) {
+                char c = source.charAt(i);
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    return i + 1;
+                }
+            }
+            return UNTERMINATED_START_TAG;
+        }
+
+        public String getContent() {
+            return this.source.substring(this.startTagEnd, this.endTagStart);
+        }
+
+        public String getElement() {
+            return this.source.substring(this.start, this.end);
+        }
+
+        public String getStartTag() {
+            return this.source.substring(this.start, this.startTagEnd);
+        }
+
+        public String removeFromSource() {
+            return this.source.substring(0, this.start) + this.source.substring(this.end);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.react;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import com.indoqa.boot.html.react.IndexHtmlBuilder.HtmlParts;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+
+/**
+ * The parsed index.html compiled into UTF-8 encoded segments. Only the slots for the <code>lang</code> attribute, the additional head
+ * content, the title and the initial state are encoded per request.
+ */
+/*default*/ final class IndexHtmlTemplate {
+
+    private static final Pattern LANG_PATTERN = Pattern.compile("lang=\"(\\w*)\"");
+    private static final byte[] EMPTY_INITIAL_STATE = "{}".getBytes(UTF_8);
+    private static final byte[] TITLE_START = "<title>".getBytes(UTF_8);
+    private static final byte[] TITLE_END = "</title>".getBytes(UTF_8);
+
+    private final byte[] beforeLang;
+    private final boolean hasLang;
+    private final byte[] defaultLang;
+    private final byte[] afterLang;
+    private final byte[] title;
+    private final byte[] beforeInitialState;
+    private final byte[] afterInitialState;
+
+    IndexHtmlTemplate(HtmlParts htmlParts) {
+        String htmlElement = htmlParts.getHtmlElement();
+        String afterHtmlElement = htmlParts.getHeadElement() + nullToEmpty(htmlParts.getHeadContent());
+
+        Matcher langMatcher = LANG_PATTERN.matcher(htmlElement);
+        this.hasLang = langMatcher.find();
+        if (this.hasLang) {
+            this.beforeLang = (htmlParts.getBeforeHtmlContent() + htmlElement.substring(0, langMatcher.start(1))).getBytes(UTF_8);
+            this.defaultLang = langMatcher.group(1).getBytes(UTF_8);
+            this.afterLang = (htmlElement.substring(langMatcher.end(1)) + afterHtmlElement).getBytes(UTF_8);
+        } else {
+            this.beforeLang = (htmlParts.getBeforeHtmlContent() + htmlElement + afterHtmlElement).getBytes(UTF_8);
+            this.defaultLang = new byte[0];
+            this.afterLang = new byte[0];
+        }
+
+        this.title = nullToEmpty(htmlParts.getTitle()).getBytes(UTF_8);
+        this.beforeInitialState = ("</head>" + htmlParts.getBodyElement() + "<script>window.__INITIAL_STATE__ = ").getBytes(UTF_8);
+        this.afterInitialState = (";</script>" + nullToEmpty(htmlParts.getBodyContent()) + "</body></html>").getBytes(UTF_8);
+    }
+
+    private static String nullToEmpty(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value;
+    }
+
+    private static void writeString(OutputStream outputStream, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            outputStream.write(value.getBytes(UTF_8));
+        }
+    }
+
+    /**
+     * Write the page.
+     *
+     * @param outputStream The target, it is not closed.
+     * @param lang The value of the <code>lang</code> attribute of the html element or null to keep the value of index.html.
+     * @param additionalHeadContent Additional content of the head element, may be null.
+     * @param customTitle The title or null to keep the title element of index.html.
+     * @param initialState The initial state, may be null.
+     * @param transformer The transformer of the initial state.
+     * @throws IOException If writing to the output stream fails.
+     */
+    public void write(OutputStream outputStream, String lang, String additionalHeadContent, String customTitle, Object initialState,
+        JsonTransformer transformer) throws IOException {
+        outputStream.write(this.beforeLang);
+        if (this.hasLang) {
+            if (lang == null || lang.isEmpty()) {
+                outputStream.write(this.defaultLang);
+            } else {
+                writeString(outputStream, lang);
+            }
+            outputStream.write(this.afterLang);
+        }
+
+        writeString(outputStream, additionalHeadContent);
+
+        if (customTitle == null) {
+            outputStream.write(this.title);
+        } else {
+            outputStream.write(TITLE_START);
+            writeString(outputStream, customTitle);
+            outputStream.write(TITLE_END);
+        }
+
+        outputStream.write(this.beforeInitialState);
+        if (initialState == null || transformer == null) {
+            outputStream.write(EMPTY_INITIAL_STATE);
+        } else {
+            // the rest of the page follows, even if the transformer closes its target
+            transformer.write(initialState, CloseShieldOutputStream.wrap(outputStream));
+        }
+        outputStream.write(this.afterInitialState);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.react;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indoqa.boot.ApplicationInitializationException;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * Announces the main Javascript and CSS files of a single-page application with a <code>Link</code> header, so that browsers start
+ * fetching them before they have parsed the HTML. Optionally the header is sent in advance with a <code>103 Early Hints</code>
+ * response, i.e. before the initial state of the application is computed.
+ */
+/*default*/ final class PreloadLinks {
+
+    private static final Logger LOGGER = getLogger(PreloadLinks.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String RESPONSE_HEADER_LINK = "Link";
+    private static final int SC_EARLY_HINTS = 103;
+
+    private final String link;
+    private final boolean earlyHints;
+
+    private PreloadLinks(String link, boolean earlyHints) {
+        this.link = link;
+        this.earlyHints = earlyHints;
+    }
+
+    /**
+     * Create the preload links of the passed files.
+     *
+     * @param javascriptPaths The URL paths of the Javascript files in the order of execution, may be null.
+     * @param cssPath The URL path of the CSS file, may be null.
+     * @param earlyHints Send the links with a <code>103 Early Hints</code> response before the HTML is rendered.
+     * @return The preload links.
+     */
+    public static PreloadLinks create(List<String> javascriptPaths, String cssPath, boolean earlyHints) {
+        List<String> links = new ArrayList<>();
+        if (StringUtils.isNotBlank(cssPath)) {
+            links.add(createLink(cssPath, "preload", "style"));
+        }
+        if (javascriptPaths != null) {
+            for (String eachJavascriptPath : javascriptPaths) {
+                // ES modules are fetched with CORS and have to be preloaded accordingly
+                if (eachJavascriptPath.endsWith(".mjs")) {
+                    links.add(createLink(eachJavascriptPath, "modulepreload", null));
+                }
+                else {
+                    links.add(createLink(eachJavascriptPath, "preload", "script"));
+                }
+            }
+        }
+
+        if (links.isEmpty()) {
+            return new PreloadLinks(null, false);
+        }
+        return new PreloadLinks(String.join(", ", links), earlyHints);
+    }
+
+    /**
+     * Create the preload links of the entry points in the <code>asset-manifest.json</code> of a Create-React-App build.
+     *
+     * @param assetManifestUrl The URL of the asset manifest, may be null.
+     * @param earlyHints Send the links with a <code>103 Early Hints</code> response before the HTML is rendered.
+     * @return The preload links.
+     */
+    public static PreloadLinks fromAssetManifest(URL assetManifestUrl, boolean earlyHints) {
+        if (assetManifestUrl == null) {
+            LOGGER.info("There is no asset manifest, the index.html is sent without preload links.");
+            return create(null, null, false);
+        }
+
+        JsonNode assetManifest;
+        try {
+            assetManifest = OBJECT_MAPPER.readTree(assetManifestUrl);
+        } catch (IOException e) {
+            throw new ApplicationInitializationException("Error while reading the asset manifest " + assetManifestUrl, e);
+        }
+
+        List<String> javascriptPaths = new ArrayList<>();
+        String cssPath = null;
+        for (String eachEntryPoint : getEntryPoints(assetManifest)) {
+            if (eachEntryPoint.endsWith(".css") && cssPath == null) {
+                cssPath = eachEntryPoint;
+            }
+            else if (eachEntryPoint.endsWith(".js") || eachEntryPoint.endsWith(".mjs")) {
+                javascriptPaths.add(eachEntryPoint);
+            }
+        }
+
+        LOGGER.info("Found preload links in the asset manifest: {}, {}", cssPath, javascriptPaths);
+        return create(javascriptPaths, cssPath, earlyHints);
+    }
+
+    private static String createLink(String path, String rel, String as) {
+        StringBuilder result = new StringBuilder().append('<').append(path).append(">; rel=").append(rel);
+        if (as != null) {
+            result.append("; as=").append(as);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Current versions of Create-React-App list the entry points relative to the build, the <code>files</code> contain the URL paths
+     * including the public URL. Older versions only provide <code>main.js</code> and <code>main.css</code>.
+     */
+    private static List<String> getEntryPoints(JsonNode assetManifest) {
+        JsonNode files = assetManifest.has("files") ? assetManifest.get("files") : assetManifest;
+
+        List<String> result = new ArrayList<>();
+        JsonNode entryPoints = assetManifest.path("entrypoints");
+        if (!entryPoints.isArray()) {
+            addPath(result, files.path("main.css"));
+            addPath(result, files.path("main.js"));
+            return result;
+        }
+
+        for (JsonNode eachEntryPoint : entryPoints) {
+            result.add(getUrlPath(files, eachEntryPoint.asText()));
+        }
+        return result;
+    }
+
+    private static void addPath(List<String> paths, JsonNode path) {
+        if (path.isTextual()) {
+            paths.add(path.asText());
+        }
+    }
+
+    private static String getUrlPath(JsonNode files, String entryPoint) {
+        for (Iterator<Entry<String, JsonNode>> iterator = files.fields(); iterator.hasNext();) {
+            String urlPath = iterator.next().getValue().asText();
+            if (urlPath.endsWith("/" + entryPoint)) {
+                return urlPath;
+            }
+        }
+        return "/" + entryPoint;
+    }
+
+    private static boolean isEarlyHintsSupported(Request request, HttpServletResponse response) {
+        if ("HTTP/1.0".equals(request.raw().getProtocol())) {
+            return false;
+        }
+
+        // only Jetty sends an informational response for sendError(103), other implementations would send an error
+        ServletResponse servletResponse = response;
+        while (servletResponse instanceof ServletResponseWrapper) {
+            servletResponse = ((ServletResponseWrapper) servletResponse).getResponse();
+        }
+        return servletResponse instanceof org.eclipse.jetty.server.Response;
+    }
+
+    /**
+     * Add the <code>Link</code> header to the response and send the <code>103 Early Hints</code> response if enabled.
+     *
+     * @param request The request of the HTML page.
+     * @param response The response of the HTML page.
+     */
+    public void send(Request request, Response response) {
+        if (this.link == null) {
+            return;
+        }
+
+        response.header(RESPONSE_HEADER_LINK, this.link);
+        if (!this.earlyHints || !isEarlyHintsSupported(request, response.raw())) {
+            return;
+        }
+
+        try {
+            response.raw().sendError(SC_EARLY_HINTS);
+        } catch (IOException e) {
+            // the page itself can't be sent either, leave the error handling to it
+            LOGGER.debug("Error while sending early hints.", e);
+        }
+    }
+}
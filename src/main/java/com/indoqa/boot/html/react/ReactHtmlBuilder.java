@@ -113,6 +113,14 @@ public class ReactHtmlBuilder implements HtmlBuilder {
         return this;
     }
 
+    String getMainCssPath() {
+        return this.mainCssPath;
+    }
+
+    List<String> getMainJavascriptPaths() {
+        return this.javascriptPaths;
+    }
+
     ReactHtmlBuilder setMainCssPath(String mainCssPath) {
         this.mainCssPath = mainCssPath;
         return this;
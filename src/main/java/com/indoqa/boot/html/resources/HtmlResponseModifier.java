@@ -21,6 +21,12 @@ import spark.Response;
 
 /**
  * Use this function to get access to the Spark request and response.
+ * <p>
+ * React applications (see {@link com.indoqa.boot.html.react.AbstractCreateReactAppResourceBase}) write the index.html directly to
+ * the response stream. Only if a modifier is set, the page is rendered into the body of the response before the modifier is
+ * invoked, so it can read the page with <code>response.body()</code> and replace it. If the modifier commits the response, e.g. with
+ * <code>response.redirect(...)</code>, the body isn't written.
+ * </p>
  */
 @FunctionalInterface
 public interface HtmlResponseModifier {
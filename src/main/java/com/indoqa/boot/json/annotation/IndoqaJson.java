@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.annotation;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Java bean as JSON data transfer object. If enabled in the build, the
+ * {@link com.indoqa.boot.json.processor.IndoqaJsonProcessor} generates a Jackson serializer (and a deserializer if the class has a
+ * public no-arg constructor) for it at build time. The
+ * {@link com.indoqa.boot.json.transformer.JacksonTransformer} registers the generated classes automatically, so that no reflection is
+ * required to access the properties.
+ * <p>
+ * Supported are public classes with bean getters and setters. Properties can be renamed with <code>@JsonProperty</code> and excluded
+ * with <code>@JsonIgnore</code>, all other Jackson annotations are rejected by the processor.
+ * </p>
+ */
+@Documented
+@Retention(CLASS)
+@Target(TYPE)
+public @interface IndoqaJson {
+    // marker annotation
+}
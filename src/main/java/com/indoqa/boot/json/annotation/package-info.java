@@ -14,16 +14,8 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.indoqa.boot.actuate.resources;
 
-import jakarta.annotation.PostConstruct;
-
-public class ActuatorGzipInterceptor extends AbstractAdminResources {
-
-    @PostConstruct
-    public void mount() {
-        if (this.isAdminServiceAvailable()) {
-            this.getSparkAdminService().after((request, response) -> response.header("Content-Encoding", "gzip"));
-        }
-    }
-}
+/**
+ * Annotations for JSON data transfer objects
+ */
+package com.indoqa.boot.json.annotation;
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A property of an {@link com.indoqa.boot.json.annotation.IndoqaJson} bean.
+ */
+/*default*/ final class BeanProperty {
+
+    private final String name;
+    private String jsonName;
+    private ExecutableElement getter;
+    private ExecutableElement setter;
+    private int position = Integer.MAX_VALUE;
+
+    BeanProperty(String name) {
+        this.name = name;
+        this.jsonName = name;
+    }
+
+    public ExecutableElement getGetter() {
+        return this.getter;
+    }
+
+    public String getJsonName() {
+        return this.jsonName;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getPosition() {
+        return this.position;
+    }
+
+    public ExecutableElement getSetter() {
+        return this.setter;
+    }
+
+    public TypeMirror getSetterType() {
+        return this.setter.getParameters().get(0).asType();
+    }
+
+    public boolean hasGetter() {
+        return this.getter != null;
+    }
+
+    public boolean hasSetter() {
+        return this.setter != null;
+    }
+
+    public boolean isRenamed() {
+        return !this.name.equals(this.jsonName);
+    }
+
+    public void setGetter(ExecutableElement getter) {
+        this.getter = getter;
+    }
+
+    public void setJsonName(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public void setSetter(ExecutableElement setter) {
+        this.setter = setter;
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.processor;
+
+import static javax.lang.model.element.Modifier.*;
+import static javax.lang.model.util.ElementFilter.*;
+import static javax.tools.Diagnostic.Kind.ERROR;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a Jackson serializer and deserializer for each class annotated with {@link com.indoqa.boot.json.annotation.IndoqaJson} and
+ * lists them in the index {@link #INDEX_LOCATION}, which is read by the {@link com.indoqa.boot.json.transformer.JacksonTransformer}.
+ * <p>
+ * The processor is not registered as service and has to be enabled explicitly, e.g. with the <code>annotationProcessors</code>
+ * setting of the maven-compiler-plugin or the javac option <code>-processor</code>. The index is written at the end of each
+ * compilation, so incremental compilations that don't include all annotated classes produce an incomplete index.
+ * </p>
+ * <p>
+ * Every generated serializer lists the names of the properties it writes in the constant {@link #PROPERTY_NAMES}. The
+ * {@link com.indoqa.boot.json.transformer.JacksonTransformer} compares them with Jackson's bean introspection and only uses the
+ * serializer if both match.
+ * </p>
+ */
+@SupportedAnnotationTypes(IndoqaJsonProcessor.INDOQA_JSON)
+public class IndoqaJsonProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/indoqa-boot/json-serializers";
+    public static final String PROPERTY_NAMES = "PROPERTY_NAMES";
+
+    /*default*/ static final String INDOQA_JSON = "com.indoqa.boot.json.annotation.IndoqaJson";
+
+    private static final String JACKSON_PACKAGE = "com.fasterxml.jackson.";
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+
+    private final List<String> indexEntries = new ArrayList<>();
+
+    private static String getAnnotationValue(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return "";
+    }
+
+    private static AnnotationMirror getJacksonAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (getName(annotation).equals(annotationName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static String getName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    /**
+     * Jackson's default naming: all leading upper case characters are converted to lower case, e.g. <code>getURL</code> &rarr;
+     * <code>url</code>.
+     */
+    private static String getPropertyName(String methodName, int prefixLength) {
+        StringBuilder result = new StringBuilder(methodName.length() - prefixLength);
+
+        int index = prefixLength;
+        while (index < methodName.length() && Character.isUpperCase(methodName.charAt(index))) {
+            result.append(Character.toLowerCase(methodName.charAt(index)));
+            index++;
+        }
+        return result.append(methodName, index, methodName.length()).toString();
+    }
+
+    private static boolean isBoolean(TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || type.toString().equals(Boolean.class.getName());
+    }
+
+    private static boolean isIgnored(Element element) {
+        return element != null && getJacksonAnnotation(element, JSON_IGNORE) != null;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+            return false;
+        }
+
+        TypeElement indoqaJson = this.processingEnv.getElementUtils().getTypeElement(INDOQA_JSON);
+        if (indoqaJson == null) {
+            return false;
+        }
+
+        for (TypeElement type : typesIn(roundEnv.getElementsAnnotatedWith(indoqaJson))) {
+            if (this.isValid(type)) {
+                this.generate(type);
+            }
+        }
+
+        return true;
+    }
+
+    private void applyJsonProperty(BeanProperty property, Element element) {
+        AnnotationMirror jsonProperty = element == null ? null : getJacksonAnnotation(element, JSON_PROPERTY);
+        if (jsonProperty == null) {
+            return;
+        }
+
+        String value = getAnnotationValue(jsonProperty);
+        if (!value.isEmpty()) {
+            property.setJsonName(value);
+        }
+    }
+
+    private List<BeanProperty> collectProperties(TypeElement type) {
+        List<TypeElement> hierarchy = this.getHierarchy(type);
+
+        Map<String, BeanProperty> properties = new LinkedHashMap<>();
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement eachType : hierarchy) {
+            for (ExecutableElement method : methodsIn(eachType.getEnclosedElements())) {
+                this.collectAccessor(properties, method);
+            }
+            for (VariableElement field : fieldsIn(eachType.getEnclosedElements())) {
+                if (!field.getModifiers().contains(STATIC)) {
+                    fields.putIfAbsent(field.getSimpleName().toString(), field);
+                }
+            }
+        }
+
+        // Jackson orders properties with a backing field by the field declaration
+        int position = 0;
+        for (VariableElement field : fields.values()) {
+            BeanProperty property = properties.get(field.getSimpleName().toString());
+            if (property != null) {
+                property.setPosition(position++);
+            }
+        }
+
+        List<BeanProperty> result = new ArrayList<>();
+        for (BeanProperty property : properties.values()) {
+            VariableElement field = fields.get(property.getName());
+            if (isIgnored(property.getGetter()) || isIgnored(property.getSetter()) || isIgnored(field)) {
+                continue;
+            }
+
+            this.applyJsonProperty(property, field);
+            this.applyJsonProperty(property, property.getSetter());
+            this.applyJsonProperty(property, property.getGetter());
+            result.add(property);
+        }
+        // like Jackson, renamed properties are moved to the end
+        result.sort(Comparator.comparing(BeanProperty::isRenamed).thenComparingInt(BeanProperty::getPosition));
+        return result;
+    }
+
+    private void collectAccessor(Map<String, BeanProperty> properties, ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(PUBLIC) || modifiers.contains(STATIC)) {
+            return;
+        }
+
+        String methodName = method.getSimpleName().toString();
+        int parameterCount = method.getParameters().size();
+        TypeMirror returnType = method.getReturnType();
+
+        if (parameterCount == 0 && returnType.getKind() != TypeKind.VOID && !methodName.equals("getClass")) {
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                properties.computeIfAbsent(getPropertyName(methodName, 3), BeanProperty::new).setGetter(method);
+            } else if (methodName.startsWith("is") && methodName.length() > 2 && isBoolean(returnType)) {
+                properties.computeIfAbsent(getPropertyName(methodName, 2), BeanProperty::new).setGetter(method);
+            }
+        } else if (parameterCount == 1 && methodName.startsWith("set") && methodName.length() > 3) {
+            BeanProperty property = properties.computeIfAbsent(getPropertyName(methodName, 3), BeanProperty::new);
+            // prefer the setter matching the getter type if the setter is overloaded
+            if (!property.hasSetter() || property.hasGetter() && this.processingEnv
+                .getTypeUtils()
+                .isSameType(property.getGetter().getReturnType(), method.getParameters().get(0).asType())) {
+                property.setSetter(method);
+            }
+        }
+    }
+
+    private void error(String message, Element element) {
+        if (element == null) {
+            this.processingEnv.getMessager().printMessage(ERROR, message);
+            return;
+        }
+        this.processingEnv.getMessager().printMessage(ERROR, message, element);
+    }
+
+    private void generate(TypeElement type) {
+        List<BeanProperty> properties = this.collectProperties(type);
+        SourceGenerator generator = new SourceGenerator(this.processingEnv, type, properties);
+
+        try {
+            String serializerName = generator.writeSerializer();
+            String deserializerName = "-";
+            if (this.hasPublicNoArgConstructor(type)) {
+                deserializerName = generator.writeDeserializer();
+            }
+            Name binaryName = this.processingEnv.getElementUtils().getBinaryName(type);
+            this.indexEntries.add(binaryName + " " + serializerName + " " + deserializerName);
+        } catch (IOException e) {
+            this.error("Can't generate the JSON serializers: " + e.getMessage(), type);
+        }
+    }
+
+    private List<TypeElement> getHierarchy(TypeElement type) {
+        LinkedList<TypeElement> result = new LinkedList<>();
+
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            result.addFirst(current);
+
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) this.processingEnv.getTypeUtils().asElement(superclass)
+                : null;
+        }
+        return result;
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(PUBLIC) && constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasUnsupportedAnnotations(Element element) {
+        boolean result = false;
+
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = getName(annotation);
+            if (name.startsWith(JACKSON_PACKAGE) && !name.equals(JSON_PROPERTY) && !name.equals(JSON_IGNORE)) {
+                this.error("@" + name + " is not supported by @IndoqaJson.", element);
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isValid(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+            this.error("@IndoqaJson is only supported for concrete, non-generic classes.", type);
+            return false;
+        }
+
+        for (Element current = type; current.getKind() == ElementKind.CLASS; current = current.getEnclosingElement()) {
+            if (!current.getModifiers().contains(PUBLIC)) {
+                this.error("@IndoqaJson classes and their enclosing classes must be public.", type);
+                return false;
+            }
+            if (current.getEnclosingElement().getKind() == ElementKind.CLASS && !current.getModifiers().contains(STATIC)) {
+                this.error("Nested @IndoqaJson classes must be static.", type);
+                return false;
+            }
+        }
+
+        boolean valid = !this.hasUnsupportedAnnotations(type);
+        for (TypeElement eachType : this.getHierarchy(type)) {
+            for (Element member : eachType.getEnclosedElements()) {
+                valid &= !this.hasUnsupportedAnnotations(member);
+
+                Set<Modifier> modifiers = member.getModifiers();
+                if (member.getKind() == ElementKind.FIELD && modifiers.contains(PUBLIC) && !modifiers.contains(STATIC)) {
+                    this.error("Public fields are not supported by @IndoqaJson, use getters and setters.", member);
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void writeIndex() {
+        if (this.indexEntries.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject index = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                for (String entry : this.indexEntries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            this.error("Can't write the JSON serializer index " + INDEX_LOCATION + ": " + e.getMessage(), null);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.*;
+import javax.lang.model.util.SimpleTypeVisitor14;
+
+/**
+ * Writes the source code of the serializer and the deserializer of an {@link com.indoqa.boot.json.annotation.IndoqaJson} bean.
+ */
+/*default*/ final class SourceGenerator {
+
+    private static final String SERIALIZER_SUFFIX = "_IndoqaJsonSerializer";
+    private static final String DESERIALIZER_SUFFIX = "_IndoqaJsonDeserializer";
+
+    private final ProcessingEnvironment processingEnv;
+    private final TypeElement type;
+    private final List<BeanProperty> properties;
+
+    private final String packageName;
+    private final String simpleName;
+    private final String typeName;
+
+    SourceGenerator(ProcessingEnvironment processingEnv, TypeElement type, List<BeanProperty> properties) {
+        this.processingEnv = processingEnv;
+        this.type = type;
+        this.properties = properties;
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        this.packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        this.typeName = type.getQualifiedName().toString();
+
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        this.simpleName = binaryName.substring(this.packageName.isEmpty() ? 0 : this.packageName.length() + 1).replace('$', '_');
+    }
+
+    private static String getPrimitiveParser(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "this._parseBooleanPrimitive(p, ctxt)";
+            case BYTE:
+                return "this._parseBytePrimitive(p, ctxt)";
+            case SHORT:
+                return "this._parseShortPrimitive(p, ctxt)";
+            case INT:
+                return "this._parseIntPrimitive(p, ctxt)";
+            case LONG:
+                return "this._parseLongPrimitive(p, ctxt)";
+            case FLOAT:
+                return "this._parseFloatPrimitive(p, ctxt)";
+            case DOUBLE:
+                return "this._parseDoublePrimitive(p, ctxt)";
+            case CHAR:
+                return "ctxt.readValue(p, char.class)";
+            default:
+                return null;
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    public String writeDeserializer() throws IOException {
+        String className = this.simpleName + DESERIALIZER_SUFFIX;
+
+        StringBuilder types = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+        List<String> typeConstants = new ArrayList<>();
+
+        for (BeanProperty property : this.properties) {
+            if (!property.hasSetter()) {
+                continue;
+            }
+
+            TypeMirror setterType = property.getSetterType();
+            String setter = "bean." + property.getSetter().getSimpleName();
+
+            cases.append("                case ").append(quote(property.getJsonName())).append(":\n");
+            String primitiveParser = getPrimitiveParser(setterType.getKind());
+            if (primitiveParser != null) {
+                cases.append("                    ").append(setter).append('(').append(primitiveParser).append(");\n");
+            } else {
+                String constant = "TYPE_" + typeConstants.size();
+                typeConstants.add(constant);
+                types
+                    .append("    private static final com.fasterxml.jackson.databind.JavaType ")
+                    .append(constant)
+                    .append(" = com.fasterxml.jackson.databind.type.TypeFactory.defaultInstance()\n")
+                    .append("        .constructType(new com.fasterxml.jackson.core.type.TypeReference<")
+                    .append(this.getSourceType(setterType))
+                    .append(">() {\n")
+                    .append("            // type reference\n")
+                    .append("        });\n");
+                cases
+                    .append("                    ")
+                    .append(setter)
+                    .append("(p.currentToken() == com.fasterxml.jackson.core.JsonToken.VALUE_NULL ? null : ctxt.readValue(p, ")
+                    .append(constant)
+                    .append("));\n");
+            }
+            cases.append("                    break;\n");
+        }
+
+        StringBuilder source = this.createHeader();
+        source
+            .append("public final class ")
+            .append(className)
+            .append(" extends com.fasterxml.jackson.databind.deser.std.StdDeserializer<")
+            .append(this.typeName)
+            .append("> {\n\n")
+            .append("    private static final long serialVersionUID = 1L;\n\n")
+            .append(types)
+            .append(types.length() > 0 ? "\n" : "")
+            .append("    public ")
+            .append(className)
+            .append("() {\n")
+            .append("        super(")
+            .append(this.typeName)
+            .append(".class);\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public ")
+            .append(this.typeName)
+            .append(" deserialize(com.fasterxml.jackson.core.JsonParser p,\n")
+            .append("        com.fasterxml.jackson.databind.DeserializationContext ctxt)\n")
+            .append("        throws java.io.IOException {\n")
+            .append("        com.fasterxml.jackson.core.JsonToken token = p.currentToken();\n")
+            .append("        if (token == com.fasterxml.jackson.core.JsonToken.START_OBJECT) {\n")
+            .append("            token = p.nextToken();\n")
+            .append("        } else if (token != com.fasterxml.jackson.core.JsonToken.FIELD_NAME\n")
+            .append("            && token != com.fasterxml.jackson.core.JsonToken.END_OBJECT) {\n")
+            .append("            return (")
+            .append(this.typeName)
+            .append(") ctxt.handleUnexpectedToken(")
+            .append(this.typeName)
+            .append(".class, p);\n")
+            .append("        }\n\n")
+            .append("        ")
+            .append(this.typeName)
+            .append(" bean = new ")
+            .append(this.typeName)
+            .append("();\n")
+            .append("        for (; token == com.fasterxml.jackson.core.JsonToken.FIELD_NAME; token = p.nextToken()) {\n")
+            .append("            String name = p.currentName();\n")
+            .append("            p.nextToken();\n\n")
+            .append("            switch (name) {\n")
+            .append(cases)
+            .append("                default:\n")
+            .append("                    this.handleUnknownProperty(p, ctxt, bean, name);\n")
+            .append("            }\n")
+            .append("        }\n")
+            .append("        return bean;\n")
+            .append("    }\n")
+            .append("}\n");
+
+        return this.write(className, source);
+    }
+
+    public String writeSerializer() throws IOException {
+        String className = this.simpleName + SERIALIZER_SUFFIX;
+
+        StringBuilder fields = new StringBuilder();
+        StringBuilder propertyNames = new StringBuilder();
+        int index = 0;
+        for (BeanProperty property : this.properties) {
+            if (!property.hasGetter()) {
+                continue;
+            }
+
+            TypeMirror getterType = property.getGetter().getReturnType();
+            String getter = "bean." + property.getGetter().getSimpleName() + "()";
+            String name = quote(property.getJsonName());
+            propertyNames.append(propertyNames.length() > 0 ? ", " : "").append(name);
+
+            switch (getterType.getKind()) {
+                case BOOLEAN:
+                    fields.append("        gen.writeBooleanField(").append(name).append(", ").append(getter).append(");\n");
+                    break;
+                case BYTE:
+                case SHORT:
+                    fields.append("        gen.writeNumberField(").append(name).append(", (int) ").append(getter).append(");\n");
+                    break;
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    fields.append("        gen.writeNumberField(").append(name).append(", ").append(getter).append(");\n");
+                    break;
+                case CHAR:
+                    fields
+                        .append("        gen.writeStringField(")
+                        .append(name)
+                        .append(", String.valueOf(")
+                        .append(getter)
+                        .append("));\n");
+                    break;
+                default:
+                    String value = "value" + index++;
+                    boolean isString = getterType.toString().equals(String.class.getName());
+                    fields
+                        .append("        ")
+                        .append(this.getSourceType(getterType))
+                        .append(' ')
+                        .append(value)
+                        .append(" = ")
+                        .append(getter)
+                        .append(";\n")
+                        .append("        if (")
+                        .append(value)
+                        .append(" != null) {\n")
+                        .append(isString ? "            gen.writeStringField(" : "            provider.defaultSerializeField(")
+                        .append(name)
+                        .append(", ")
+                        .append(value)
+                        .append(isString ? ");\n" : ", gen);\n")
+                        .append("        } else if (writeNulls) {\n")
+                        .append("            gen.writeNullField(")
+                        .append(name)
+                        .append(");\n")
+                        .append("        }\n");
+            }
+        }
+
+        StringBuilder source = this.createHeader();
+        source
+            .append("public final class ")
+            .append(className)
+            .append(" extends com.fasterxml.jackson.databind.ser.std.StdSerializer<")
+            .append(this.typeName)
+            .append("> {\n\n")
+            .append("    private static final long serialVersionUID = 1L;\n\n")
+            .append("    public static final String[] ")
+            .append(IndoqaJsonProcessor.PROPERTY_NAMES)
+            .append(" = {")
+            .append(propertyNames)
+            .append("};\n\n")
+            .append("    public ")
+            .append(className)
+            .append("() {\n")
+            .append("        super(")
+            .append(this.typeName)
+            .append(".class);\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public void serialize(")
+            .append(this.typeName)
+            .append(" bean, com.fasterxml.jackson.core.JsonGenerator gen,\n")
+            .append("        com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n")
+            .append("        com.fasterxml.jackson.annotation.JsonInclude.Include inclusion = provider\n")
+            .append("            .getConfig()\n")
+            .append("            .getDefaultPropertyInclusion(")
+            .append(this.typeName)
+            .append(".class)\n")
+            .append("            .getValueInclusion();\n")
+            .append("        boolean writeNulls = inclusion == com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS\n")
+            .append("            || inclusion == com.fasterxml.jackson.annotation.JsonInclude.Include.USE_DEFAULTS;\n\n")
+            .append("        gen.writeStartObject(bean);\n")
+            .append(fields)
+            .append("        gen.writeEndObject();\n")
+            .append("    }\n")
+            .append("}\n");
+
+        return this.write(className, source);
+    }
+
+    private StringBuilder createHeader() {
+        StringBuilder result = new StringBuilder();
+        if (!this.packageName.isEmpty()) {
+            result.append("package ").append(this.packageName).append(";\n\n");
+        }
+        result
+            .append("/**\n")
+            .append(" * Generated by ")
+            .append(IndoqaJsonProcessor.class.getName())
+            .append(" for {@link ")
+            .append(this.typeName)
+            .append("}.\n")
+            .append(" */\n");
+        return result;
+    }
+
+    /**
+     * Type variables of generic superclasses can't be expressed in the generated code, they are replaced by their erasure.
+     */
+    private String getSourceType(TypeMirror typeMirror) {
+        if (typeMirror.accept(new TypeVariableDetector(), null)) {
+            return this.processingEnv.getTypeUtils().erasure(typeMirror).toString();
+        }
+        return typeMirror.toString();
+    }
+
+    private String write(String className, CharSequence source) throws IOException {
+        String qualifiedName = this.packageName.isEmpty() ? className : this.packageName + "." + className;
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, this.type).openWriter()) {
+            writer.append(source);
+        }
+        return qualifiedName;
+    }
+
+    private static class TypeVariableDetector extends SimpleTypeVisitor14<Boolean, Void> {
+
+        TypeVariableDetector() {
+            super(Boolean.FALSE);
+        }
+
+        @Override
+        public Boolean visitArray(ArrayType type, Void parameter) {
+            return type.getComponentType().accept(this, parameter);
+        }
+
+        @Override
+        public Boolean visitDeclared(DeclaredType type, Void parameter) {
+            for (TypeMirror argument : type.getTypeArguments()) {
+                if (argument.accept(this, parameter)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Boolean visitTypeVariable(TypeVariable type, Void parameter) {
+            return true;
+        }
+
+        @Override
+        public Boolean visitWildcard(WildcardType type, Void parameter) {
+            TypeMirror bound = type.getExtendsBound() != null ? type.getExtendsBound() : type.getSuperBound();
+            return bound != null && bound.accept(this, parameter);
+        }
+    }
+}
@@ -16,37 +16,249 @@
  */
 package com.indoqa.boot.json.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
 import jakarta.inject.Inject;
 
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.json.resources.cache.RequestCoalescer;
+import com.indoqa.boot.json.resources.cache.ResponseCache;
+import com.indoqa.boot.json.transformer.DataFormat;
 import com.indoqa.boot.json.transformer.JacksonTransformer;
 import com.indoqa.boot.json.transformer.JsonTransformer;
 import com.indoqa.boot.resources.AbstractResourcesBase;
+import com.indoqa.boot.resources.exception.FieldSelectionException;
+import com.indoqa.boot.resources.exception.RequestBodyException;
+import com.indoqa.boot.spark.admission.Bulkhead;
 
+import spark.Request;
 import spark.ResponseTransformer;
 import spark.Route;
 import spark.Spark;
 
 /**
  * Base implementations for JSON resources which set the response type to <code>application/json</code> and set the
- * {@link JacksonTransformer}. It delegates all calls to Spark.
+ * {@link JacksonTransformer}. It delegates all calls to Spark.<br>
+ * The binary data formats configured with the property <code>spark.json.formats</code> (e.g. <code>smile,cbor</code>) are
+ * negotiated via the <code>Accept</code> and <code>Content-Type</code> headers. JSON remains the default.<br>
+ * Routes may return a {@link java.util.stream.Stream}, {@link java.util.Iterator} or {@link java.util.Spliterator}. Their elements are
+ * written incrementally as JSON array or, if enabled with <code>spark.json.ndjson</code> and requested via <code>Accept</code>, as
+ * newline-delimited JSON (<code>application/x-ndjson</code>).<br>
+ * If enabled with <code>spark.json.field-selection</code>, clients can request partial responses with the query parameter
+ * <code>fields</code>, e.g. <code>?fields=id,name,address(street,city)</code>.
  */
 public abstract class AbstractJsonResourcesBase extends AbstractResourcesBase {
 
     protected static final String CONTENT_TYPE_JSON = "application/json";
+    protected static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+
+    private static final long DEFAULT_ASYNC_TIMEOUT = 30_000;
+
+    private static final String PROPERTY_MAX_BODY_SIZE = "spark.json.max-body-size";
+    private static final long DEFAULT_MAX_BODY_SIZE = 10 * 1024 * 1024;
+    private static final String PROPERTY_FORMATS = "spark.json.formats";
+    private static final String PROPERTY_NDJSON = "spark.json.ndjson";
+    private static final String PROPERTY_FLUSH_INTERVAL = "spark.json.flush-interval";
+    private static final int DEFAULT_FLUSH_INTERVAL = 100;
+    private static final String PROPERTY_FIELD_SELECTION = "spark.json.field-selection";
+    private static final String PARAMETER_FIELDS = "fields";
+    private static final String PROPERTY_ETAG = "spark.json.etag";
 
     @Inject
     private JsonTransformer transformer;
 
+    @Inject
+    private Environment environment;
+
+    private List<DataFormat> binaryFormats;
+    private Boolean fieldSelection;
+    private Boolean etag;
+
+    private static Route limit(Route route, Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            return route;
+        }
+        return bulkhead.wrap(route);
+    }
+
+    /**
+     * Bind the JSON body of the request to a Java object. The body is parsed directly from the servlet input stream and must not
+     * exceed the maximum body size (see {@link #getMaxBodySize()}). Bodies of a configured binary data format are parsed according to
+     * their <code>Content-Type</code>.
+     *
+     * @param request The request.
+     * @param type The type of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     * @throws RequestBodyException If the body is too large (413) or can't be bound to the type (400).
+     */
+    public <T> T bodyAs(Request request, Class<T> type) {
+        return this.bodyAs(
+            request,
+            type.getSimpleName(),
+            (inputStream, format) -> this.transformer.toObject(inputStream, type, format));
+    }
+
+    /**
+     * Bind the JSON body of the request to a generic Java object, e.g. <code>List&lt;MyDto&gt;</code>.
+     *
+     * @param request The request.
+     * @param type The type reference of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     * @throws RequestBodyException If the body is too large (413) or can't be bound to the type (400).
+     * @see #bodyAs(Request, Class)
+     */
+    public <T> T bodyAs(Request request, TypeReference<T> type) {
+        return this.bodyAs(
+            request,
+            type.getType().getTypeName(),
+            (inputStream, format) -> this.transformer.toObject(inputStream, type, format));
+    }
+
     public void delete(String path, Route route) {
-        this.delete(path, route, this.transformer);
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::delete), null);
+    }
+
+    /**
+     * Map the route for HTTP DELETE requests and execute it within the passed {@link Bulkhead}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param bulkhead The bulkhead that limits the concurrent executions of the route, including the writing of sequences.
+     */
+    public void delete(String path, Route route, Bulkhead bulkhead) {
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::delete), bulkhead);
+    }
+
+    /**
+     * Map the asynchronous route for HTTP DELETE requests. The worker thread is released while the returned stage is pending. Its
+     * result is rendered with the {@link JsonTransformer}, failures and timeouts are handled by the registered exception handlers.
+     *
+     * @param path The path.
+     * @param route The asynchronous route.
+     * @see #getAsyncTimeout()
+     */
+    public void deleteAsync(String path, AsyncRoute route) {
+        this.delete(path, new AsyncRouteAdapter(route, this.getAsyncTimeout()));
     }
 
     public void delete(String path, Route route, ResponseTransformer responseTransformer) {
         Spark.delete(this.resolvePath(path), CONTENT_TYPE_JSON, route, responseTransformer);
     }
 
+    /**
+     * Map the route for HTTP DELETE requests and write its result directly to the servlet output stream, see
+     * {@link JsonTransformer#write(Object, java.io.OutputStream)}. Headers have to be set by the route or by before filters, because
+     * large responses are committed while they are written.
+     *
+     * @param path The path.
+     * @param route The route.
+     */
+    public void deleteStreaming(String path, Route route) {
+        this.mapNegotiated(path, route, this.streaming(route), Spark::delete, null);
+    }
+
     public void get(String path, Route route) {
-        this.get(path, route, this.transformer);
+        Route jsonRoute = this.isETag() ? new ConditionalRoute(route, this::selectTransformer, null) : route;
+        this.mapNegotiated(path, route, this.selectable(jsonRoute), this.rendered(Spark::get), null);
+    }
+
+    /**
+     * Map the route for HTTP GET requests and execute it within the passed {@link Bulkhead}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param bulkhead The bulkhead that limits the concurrent executions of the route, including the writing of sequences.
+     */
+    public void get(String path, Route route, Bulkhead bulkhead) {
+        Route jsonRoute = this.isETag() ? new ConditionalRoute(route, this::selectTransformer, null) : route;
+        this.mapNegotiated(path, route, this.selectable(jsonRoute), this.rendered(Spark::get), bulkhead);
+    }
+
+    /**
+     * Map the route for HTTP GET requests and serve its rendered result from the passed {@link ResponseCache}. Binary data formats and
+     * field selections are not supported.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param cache The response cache.
+     */
+    public void get(String path, Route route, ResponseCache cache) {
+        this.get(path, cache.wrap(route, this.transformer), this.transformer);
+    }
+
+    /**
+     * Map the route for HTTP GET requests and execute it only once for identical concurrent requests, see {@link RequestCoalescer}.
+     * Binary data formats and field selections are not supported.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param coalescer The request coalescer.
+     */
+    public void get(String path, Route route, RequestCoalescer coalescer) {
+        this.get(path, coalescer.wrap(route, this.transformer), this.transformer);
+    }
+
+    /**
+     * Map the asynchronous route for HTTP GET requests. The worker thread is released while the returned stage is pending. Its result
+     * is rendered with the {@link JsonTransformer}, failures and timeouts are handled by the registered exception handlers.
+     *
+     * @param path The path.
+     * @param route The asynchronous route.
+     * @see #getAsyncTimeout()
+     */
+    public void getAsync(String path, AsyncRoute route) {
+        this.get(path, new AsyncRouteAdapter(route, this.getAsyncTimeout()));
+    }
+
+    /**
+     * Map a route for HTTP GET requests whose result rarely changes. The result is rendered once as JSON and then served as bytes from
+     * the cache, including a gzip compressed variant, an <code>ETag</code> and <code>304 Not Modified</code> responses. The route is
+     * only invoked again after the cache was invalidated. Binary data formats and field selections are not supported.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param cache The cache of the rendered response.
+     */
+    public void getPreRendered(String path, Route route, RenderedResponseCache cache) {
+        this.get(path, this.preRendered(route, cache), this.transformer);
+    }
+
+    /**
+     * Map the route for HTTP GET requests and support conditional requests: the JSON response is rendered into a buffer, its hash is
+     * sent as weak <code>ETag</code> and requests with a matching <code>If-None-Match</code> header are answered with
+     * <code>304 Not Modified</code> and without body. Results that are streams or iterators are written without <code>ETag</code>.
+     *
+     * @param path The path.
+     * @param route The route.
+     */
+    public void getConditional(String path, Route route) {
+        this.getConditional(path, route, null);
+    }
+
+    /**
+     * Map the route for HTTP GET requests and support conditional requests. The {@link ETagProvider} is asked for the version of the
+     * resource first, so unchanged resources are answered with <code>304 Not Modified</code> without invoking the route. If it
+     * returns null, the <code>ETag</code> is computed from the rendered JSON response, see {@link #getConditional(String, Route)}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param etagProvider The provider of the resource version.
+     */
+    public void getConditional(String path, Route route, ETagProvider etagProvider) {
+        Route jsonRoute = new ConditionalRoute(route, this::selectTransformer, etagProvider);
+        this.mapNegotiated(path, route, this.selectable(jsonRoute), this.rendered(Spark::get), null);
     }
 
     public void head(String path, Route route) {
@@ -57,23 +269,327 @@ public abstract class AbstractJsonResourcesBase extends AbstractResourcesBase {
         Spark.get(this.resolvePath(path), CONTENT_TYPE_JSON, route, responseTransformer);
     }
 
+    /**
+     * Map the route for HTTP GET requests and write its result directly to the servlet output stream, see
+     * {@link JsonTransformer#write(Object, java.io.OutputStream)}. Headers have to be set by the route or by before filters, because
+     * large responses are committed while they are written.
+     *
+     * @param path The path.
+     * @param route The route.
+     */
+    public void getStreaming(String path, Route route) {
+        this.mapNegotiated(path, route, this.streaming(route), Spark::get, null);
+    }
+
     public void post(String path, Route route) {
-        this.post(path, route, this.transformer);
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::post), null);
+    }
+
+    /**
+     * Map the route for HTTP POST requests and execute it within the passed {@link Bulkhead}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param bulkhead The bulkhead that limits the concurrent executions of the route, including the writing of sequences.
+     */
+    public void post(String path, Route route, Bulkhead bulkhead) {
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::post), bulkhead);
+    }
+
+    /**
+     * Map the asynchronous route for HTTP POST requests. The worker thread is released while the returned stage is pending. Its result
+     * is rendered with the {@link JsonTransformer}, failures and timeouts are handled by the registered exception handlers.
+     *
+     * @param path The path.
+     * @param route The asynchronous route.
+     * @see #getAsyncTimeout()
+     */
+    public void postAsync(String path, AsyncRoute route) {
+        this.post(path, new AsyncRouteAdapter(route, this.getAsyncTimeout()));
     }
 
     public void post(String path, Route route, ResponseTransformer responseTransformer) {
         Spark.post(this.resolvePath(path), CONTENT_TYPE_JSON, route, responseTransformer);
     }
 
+    /**
+     * Map the route for HTTP POST requests and write its result directly to the servlet output stream, see
+     * {@link JsonTransformer#write(Object, java.io.OutputStream)}. Headers have to be set by the route or by before filters, because
+     * large responses are committed while they are written.
+     *
+     * @param path The path.
+     * @param route The route.
+     */
+    public void postStreaming(String path, Route route) {
+        this.mapNegotiated(path, route, this.streaming(route), Spark::post, null);
+    }
+
     public void put(String path, Route route) {
-        this.put(path, route, this.transformer);
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::put), null);
+    }
+
+    /**
+     * Map the route for HTTP PUT requests and execute it within the passed {@link Bulkhead}.
+     *
+     * @param path The path.
+     * @param route The route.
+     * @param bulkhead The bulkhead that limits the concurrent executions of the route, including the writing of sequences.
+     */
+    public void put(String path, Route route, Bulkhead bulkhead) {
+        this.mapNegotiated(path, route, this.selectable(route), this.rendered(Spark::put), bulkhead);
+    }
+
+    /**
+     * Map the asynchronous route for HTTP PUT requests. The worker thread is released while the returned stage is pending. Its result
+     * is rendered with the {@link JsonTransformer}, failures and timeouts are handled by the registered exception handlers.
+     *
+     * @param path The path.
+     * @param route The asynchronous route.
+     * @see #getAsyncTimeout()
+     */
+    public void putAsync(String path, AsyncRoute route) {
+        this.put(path, new AsyncRouteAdapter(route, this.getAsyncTimeout()));
     }
 
     public void put(String path, Route route, ResponseTransformer responseTransformer) {
         Spark.put(this.resolvePath(path), CONTENT_TYPE_JSON, route, responseTransformer);
     }
 
+    /**
+     * Map the route for HTTP PUT requests and write its result directly to the servlet output stream, see
+     * {@link JsonTransformer#write(Object, java.io.OutputStream)}. Headers have to be set by the route or by before filters, because
+     * large responses are committed while they are written.
+     *
+     * @param path The path.
+     * @param route The route.
+     */
+    public void putStreaming(String path, Route route) {
+        this.mapNegotiated(path, route, this.streaming(route), Spark::put, null);
+    }
+
+    /**
+     * The maximum time in ms an asynchronous route may take before the request fails with an
+     * {@link com.indoqa.boot.resources.exception.AsyncRouteTimeoutException}. Override it to use a different timeout.
+     *
+     * @return The timeout in ms.
+     */
+    protected long getAsyncTimeout() {
+        return DEFAULT_ASYNC_TIMEOUT;
+    }
+
+    /**
+     * The maximum size of request bodies in bytes that are bound by {@link #bodyAs(Request, Class)}. It is configured with the
+     * property <code>spark.json.max-body-size</code> (default 10 MB).
+     *
+     * @return The maximum body size in bytes.
+     */
+    protected long getMaxBodySize() {
+        return this.environment.getProperty(PROPERTY_MAX_BODY_SIZE, Long.class, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * The binary data formats that are negotiated in addition to JSON. They are configured with the property
+     * <code>spark.json.formats</code> as comma-separated list of names (<code>smile</code>, <code>cbor</code>, <code>msgpack</code>).
+     *
+     * @return The binary data formats.
+     */
+    protected List<DataFormat> getBinaryFormats() {
+        if (this.binaryFormats == null) {
+            this.binaryFormats = this.readBinaryFormats();
+        }
+        return this.binaryFormats;
+    }
+
+    /**
+     * The number of elements of a {@link java.util.stream.Stream}, {@link java.util.Iterator} or {@link java.util.Spliterator} after
+     * which the response is flushed to the client. It is configured with the property <code>spark.json.flush-interval</code> (default
+     * 100).
+     *
+     * @return The flush interval.
+     */
+    protected int getFlushInterval() {
+        return this.environment.getProperty(PROPERTY_FLUSH_INTERVAL, Integer.class, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Wrap the route to serve its result from the passed {@link RenderedResponseCache}.
+     *
+     * @param route The route.
+     * @param cache The cache of the rendered response.
+     * @return The route that serves the cached response.
+     * @see #getPreRendered(String, Route, RenderedResponseCache)
+     */
+    protected Route preRendered(Route route, RenderedResponseCache cache) {
+        return new PreRenderedRoute(route, cache, this.transformer);
+    }
+
     protected JsonTransformer getTransformer() {
         return this.transformer;
     }
+
+    private <T> T bodyAs(Request request, String typeName, BiFunction<InputStream, DataFormat, T> reader) {
+        long maxBodySize = this.getMaxBodySize();
+        if (request.raw().getContentLengthLong() > maxBodySize) {
+            throw RequestBodyException.tooLarge(maxBodySize);
+        }
+
+        LimitedInputStream inputStream;
+        try {
+            inputStream = new LimitedInputStream(request.raw().getInputStream(), maxBodySize);
+        } catch (IOException e) {
+            throw RequestBodyException.invalid(typeName, e);
+        }
+
+        try {
+            return reader.apply(inputStream, this.getRequestFormat(request));
+        } catch (RuntimeException e) {
+            if (inputStream.isLimitExceeded()) {
+                throw RequestBodyException.tooLarge(maxBodySize);
+            }
+            throw RequestBodyException.invalid(typeName, e);
+        }
+    }
+
+    private DataFormat getRequestFormat(Request request) {
+        DataFormat format = DataFormat.forContentType(request.contentType());
+        if (format != null && this.getBinaryFormats().contains(format)) {
+            return format;
+        }
+        return DataFormat.JSON;
+    }
+
+    /**
+     * Field selection is configured with the property <code>spark.json.field-selection</code> (default false).
+     *
+     * @return True if the query parameter <code>fields</code> selects the fields of responses.
+     */
+    protected boolean isFieldSelection() {
+        if (this.fieldSelection == null) {
+            this.fieldSelection = this.environment.getProperty(PROPERTY_FIELD_SELECTION, Boolean.class, Boolean.FALSE);
+        }
+        return this.fieldSelection;
+    }
+
+    /**
+     * Conditional requests for all routes mapped with {@link #get(String, Route)} are configured with the property
+     * <code>spark.json.etag</code> (default false).
+     *
+     * @return True if all JSON responses of GET routes get an <code>ETag</code>.
+     * @see #getConditional(String, Route)
+     */
+    protected boolean isETag() {
+        if (this.etag == null) {
+            this.etag = this.environment.getProperty(PROPERTY_ETAG, Boolean.class, Boolean.FALSE);
+        }
+        return this.etag;
+    }
+
+    private boolean isNewlineDelimitedJson() {
+        return this.environment.getProperty(PROPERTY_NDJSON, Boolean.class, Boolean.FALSE);
+    }
+
+    /**
+     * Map the JSON route and, if newline-delimited JSON or binary formats are enabled, a {@link FormatNegotiationRoute} that selects
+     * the format with the <code>Accept</code> header. It is mapped for all content types, because Spark dispatches requests only to
+     * routes with a matching accept type.<br>
+     * The bulkhead wraps the mapped route, so that streams and iterators are also written within it. Otherwise their elements would
+     * be produced after the permit has been released.
+     */
+    private void mapNegotiated(String path, Route route, Route jsonRoute, RouteMapping mapping, Bulkhead bulkhead) {
+        Map<String, Route> alternativeRoutes = new LinkedHashMap<>();
+        if (this.isNewlineDelimitedJson()) {
+            Route sequenceRoute = new SequenceRoute(route, this::selectTransformer, DataFormat.JSON, true, this.getFlushInterval());
+            alternativeRoutes.put(CONTENT_TYPE_NDJSON, new StreamingRoute(sequenceRoute, this::selectTransformer, DataFormat.JSON));
+        }
+        for (DataFormat format : this.getBinaryFormats()) {
+            Route sequenceRoute = new SequenceRoute(route, this::selectTransformer, format, false, this.getFlushInterval());
+            alternativeRoutes.put(format.getContentType(), new StreamingRoute(sequenceRoute, this::selectTransformer, format));
+        }
+
+        String resolvedPath = this.resolvePath(path);
+        if (alternativeRoutes.isEmpty()) {
+            mapping.map(resolvedPath, CONTENT_TYPE_JSON, limit(jsonRoute, bulkhead));
+            return;
+        }
+
+        Route negotiationRoute = limit(new FormatNegotiationRoute(CONTENT_TYPE_JSON, jsonRoute, alternativeRoutes), bulkhead);
+        for (String contentType : alternativeRoutes.keySet()) {
+            mapping.map(resolvedPath, contentType, negotiationRoute);
+        }
+        mapping.map(resolvedPath, CONTENT_TYPE_JSON, negotiationRoute);
+    }
+
+    private List<DataFormat> readBinaryFormats() {
+        String[] names = this.environment.getProperty(PROPERTY_FORMATS, String[].class);
+        if (names == null) {
+            return Collections.emptyList();
+        }
+
+        List<DataFormat> result = new ArrayList<>();
+        for (String name : names) {
+            DataFormat format = DataFormat.forName(name);
+            if (format == null) {
+                throw new ApplicationInitializationException("The data format '" + name + "' of " + PROPERTY_FORMATS + " is unknown.");
+            }
+            if (!this.transformer.supports(format)) {
+                throw new ApplicationInitializationException(
+                    "The data format '" + name + "' is not supported. Add the Jackson data format module for it to the classpath.");
+            }
+            if (format != DataFormat.JSON) {
+                result.add(format);
+            }
+        }
+        return result;
+    }
+
+    private RouteMapping rendered(RenderedRouteMapping mapping) {
+        return (path, acceptType, route) -> mapping.map(path, acceptType, route, this.transformer);
+    }
+
+    private Route selectable(Route route) {
+        Route sequenceRoute = this.sequences(route);
+        if (!this.isFieldSelection()) {
+            return sequenceRoute;
+        }
+
+        Route streamingRoute = new StreamingRoute(sequenceRoute, this::selectTransformer, DataFormat.JSON);
+        return new FieldSelectionRoute(sequenceRoute, streamingRoute, PARAMETER_FIELDS);
+    }
+
+    private JsonTransformer selectTransformer(Request request) {
+        if (!this.isFieldSelection()) {
+            return this.transformer;
+        }
+
+        String fields = request.queryParams(PARAMETER_FIELDS);
+        if (fields == null) {
+            return this.transformer;
+        }
+
+        try {
+            return this.transformer.select(fields);
+        } catch (IllegalArgumentException e) {
+            throw FieldSelectionException.invalid(fields, e);
+        }
+    }
+
+    private Route sequences(Route route) {
+        return new SequenceRoute(route, this::selectTransformer, DataFormat.JSON, false, this.getFlushInterval());
+    }
+
+    private Route streaming(Route route) {
+        return new StreamingRoute(this.sequences(route), this::selectTransformer, DataFormat.JSON);
+    }
+
+    @FunctionalInterface
+    private interface RenderedRouteMapping {
+
+        void map(String path, String acceptType, Route route, ResponseTransformer responseTransformer);
+    }
+
+    @FunctionalInterface
+    private interface RouteMapping {
+
+        void map(String path, String acceptType, Route route);
+    }
 }
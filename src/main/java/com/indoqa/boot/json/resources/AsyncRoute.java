@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.util.concurrent.CompletionStage;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * A route that returns its result asynchronously. The worker thread is released while the {@link CompletionStage} is pending and the
+ * result is rendered after the stage has completed.
+ */
+@FunctionalInterface
+public interface AsyncRoute {
+
+    /**
+     * Invoked when a request is made on this route's corresponding path.
+     *
+     * @param request The request object providing information about the HTTP request.
+     * @param response The response object providing functionality for modifying the response.
+     * @return The stage that completes with the content to be set in the response.
+     * @throws Exception Implementation can choose to throw an exception.
+     */
+    CompletionStage<?> handle(Request request, Response response) throws Exception; // NOSONAR
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static com.indoqa.boot.spark.AsyncRouteResponse.ATTRIBUTE_ASYNC_DISPATCH;
+import static com.indoqa.boot.spark.AsyncRouteResponse.ATTRIBUTE_ASYNC_PENDING;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.indoqa.boot.resources.exception.AsyncRouteTimeoutException;
+import com.indoqa.boot.spark.AsyncRouteResponse;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Adapts an {@link AsyncRoute} to a Spark {@link Route}:
+ * <ol>
+ * <li>The initial dispatch invokes the asynchronous route, puts the request into servlet async mode and returns immediately. The
+ * {@link AsyncRouteResponse} discards everything Spark writes in this dispatch.</li>
+ * <li>As soon as the stage completes or the timeout elapses, the request is dispatched again with the request attribute
+ * {@link AsyncRouteResponse#ATTRIBUTE_ASYNC_DISPATCH}. This time the route returns the result (or throws the failure) and Spark
+ * renders it with the response transformer and the registered exception handlers. All filters run again, filters that must only run
+ * once skip the dispatch with {@link AsyncRouteResponse#isAsyncDispatch(HttpServletRequest)}.</li>
+ * </ol>
+ * If the Spark service doesn't support asynchronous routes (e.g. when running in a servlet container), the route waits for the
+ * result instead.
+ */
+/*default*/ final class AsyncRouteAdapter implements Route {
+
+    private static final String ATTRIBUTE_RESULT = AsyncRouteAdapter.class.getName() + ".result";
+    private static final String PENDING = "";
+
+    private final AsyncRoute route;
+    private final long timeout;
+
+    AsyncRouteAdapter(AsyncRoute route, long timeout) {
+        this.route = route;
+        this.timeout = timeout;
+    }
+
+    private static Exception unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        HttpServletRequest rawRequest = request.raw();
+
+        AsyncResult result = (AsyncResult) rawRequest.getAttribute(ATTRIBUTE_RESULT);
+        if (result != null) {
+            rawRequest.removeAttribute(ATTRIBUTE_RESULT);
+            rawRequest.removeAttribute(ATTRIBUTE_ASYNC_PENDING);
+            return result.get();
+        }
+
+        CompletableFuture<?> future = this.route.handle(request, response).toCompletableFuture();
+        if (future.isDone() || !AsyncRouteResponse.isSupported(response.raw()) || !rawRequest.isAsyncSupported()) {
+            return this.await(future);
+        }
+
+        AsyncContext asyncContext = rawRequest.startAsync();
+        asyncContext.setTimeout(this.timeout);
+        rawRequest.setAttribute(ATTRIBUTE_ASYNC_PENDING, Boolean.TRUE);
+        AsyncRouteResponse.registerCompletionCallbacks(asyncContext, rawRequest, response.raw());
+
+        AsyncDispatcher dispatcher = new AsyncDispatcher(asyncContext, rawRequest);
+        asyncContext.addListener(dispatcher);
+        future.whenComplete(dispatcher::onCompletion);
+
+        // the return value is discarded by the AsyncRouteResponse but has to be set to prevent Spark from sending a 404
+        return PENDING;
+    }
+
+    private Object await(CompletionStage<?> stage) throws Exception {
+        try {
+            return stage.toCompletableFuture().get(this.timeout, MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new AsyncRouteTimeoutException(this.timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static final class AsyncResult {
+
+        private final Object value;
+        private final Throwable failure;
+
+        private AsyncResult(Object value, Throwable failure) {
+            this.value = value;
+            this.failure = failure;
+        }
+
+        public Object get() throws Exception {
+            if (this.failure != null) {
+                throw unwrap(this.failure);
+            }
+            return this.value;
+        }
+    }
+
+    private final class AsyncDispatcher implements AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final HttpServletRequest request;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private AsyncDispatcher(AsyncContext asyncContext, HttpServletRequest request) {
+            this.asyncContext = asyncContext;
+            this.request = request;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.finished.set(true);
+        }
+
+        public void onCompletion(Object value, Throwable failure) {
+            this.dispatch(new AsyncResult(value, failure));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // the client has gone, there is nobody left to render a response for
+            if (this.finished.compareAndSet(false, true)) {
+                this.asyncContext.complete();
+            }
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // not relevant
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            this.dispatch(new AsyncResult(null, new AsyncRouteTimeoutException(AsyncRouteAdapter.this.timeout)));
+        }
+
+        private void dispatch(AsyncResult result) {
+            if (!this.finished.compareAndSet(false, true)) {
+                return;
+            }
+
+            this.request.setAttribute(ATTRIBUTE_RESULT, result);
+            this.request.setAttribute(ATTRIBUTE_ASYNC_DISPATCH, Boolean.TRUE);
+            this.asyncContext.dispatch();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Function;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.ETags;
+import com.indoqa.boot.spark.AsyncRouteResponse;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Adds a weak <code>ETag</code> to the responses of the wrapped route and answers matching <code>If-None-Match</code> headers with
+ * <code>304 Not Modified</code>. The entity tag is either provided by an {@link ETagProvider} before the route is invoked or it is
+ * computed from the rendered bytes. Streams and iterators are passed through without an entity tag.
+ * <p>
+ * The placeholder that an asynchronous route returns while its result is pending is passed through as well, the entity tag is computed
+ * when the request is dispatched again with the result.
+ * </p>
+ */
+/*default*/ final class ConditionalRoute implements Route {
+
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private final Route route;
+    private final Function<Request, JsonTransformer> transformers;
+    private final ETagProvider etagProvider;
+
+    ConditionalRoute(Route route, Function<Request, JsonTransformer> transformers, ETagProvider etagProvider) {
+        this.route = route;
+        this.transformers = transformers;
+        this.etagProvider = etagProvider;
+    }
+
+    private static boolean isAsyncPending(Request request) {
+        return request.raw().getAttribute(AsyncRouteResponse.ATTRIBUTE_ASYNC_PENDING) != null;
+    }
+
+    private static void sendNotModified(Response response) throws Exception {
+        HttpServletResponse rawResponse = response.raw();
+        rawResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        rawResponse.flushBuffer();
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        String version = this.etagProvider == null ? null : this.etagProvider.getVersion(request);
+        if (version != null) {
+            String etag = ETags.weak(version);
+            response.raw().setHeader(HEADER_ETAG, etag);
+            if (ETags.matches(request.headers(HEADER_IF_NONE_MATCH), etag)) {
+                sendNotModified(response);
+                return null;
+            }
+            return this.route.handle(request, response);
+        }
+
+        Object model = this.route.handle(request, response);
+        if (model == null || SequenceRoute.isSequence(model) || response.raw().isCommitted() || isAsyncPending(request)) {
+            return model;
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.transformers.apply(request).write(model, outputStream);
+        byte[] body = outputStream.toByteArray();
+
+        String etag = ETags.weak(body);
+        response.raw().setHeader(HEADER_ETAG, etag);
+        if (ETags.matches(request.headers(HEADER_IF_NONE_MATCH), etag)) {
+            sendNotModified(response);
+            return null;
+        }
+
+        HttpServletResponse rawResponse = response.raw();
+        if (rawResponse.getContentType() == null) {
+            rawResponse.setContentType(AbstractJsonResourcesBase.CONTENT_TYPE_JSON);
+        }
+        rawResponse.setContentLength(body.length);
+        rawResponse.getOutputStream().write(body);
+        rawResponse.flushBuffer();
+
+        // the response is committed, Spark doesn't write anything else
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import spark.Request;
+
+/**
+ * Computes the entity tag of a resource before its route is invoked, e.g. from a version counter or a last modification timestamp.
+ * Unchanged resources are answered with <code>304 Not Modified</code> without rendering them.
+ */
+@FunctionalInterface
+public interface ETagProvider {
+
+    /**
+     * Get the current version of the requested resource. It has to change whenever the response of the route changes, including
+     * changes caused by request parameters.
+     *
+     * @param request The request.
+     * @return The version that is sent as weak entity tag, or null to compute the entity tag from the rendered response.
+     * @throws Exception Implementation can choose to throw an exception.
+     */
+    String getVersion(Request request) throws Exception; // NOSONAR
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Requests with a field selection can't be rendered by the response transformer of the route, because it doesn't know the request.
+ * They are passed to a {@link StreamingRoute} instead, all other requests to the wrapped route.
+ */
+/*default*/ final class FieldSelectionRoute implements Route {
+
+    private final Route route;
+    private final Route streamingRoute;
+    private final String parameterName;
+
+    FieldSelectionRoute(Route route, Route streamingRoute, String parameterName) {
+        this.route = route;
+        this.streamingRoute = streamingRoute;
+        this.parameterName = parameterName;
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        if (request.queryParams(this.parameterName) == null) {
+            return this.route.handle(request, response);
+        }
+
+        this.streamingRoute.handle(request, response);
+
+        // commit the response, so Spark doesn't render the return value of this route
+        response.raw().flushBuffer();
+        return null;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Selects the data format of the response with the <code>Accept</code> header of the request and executes the route for it. JSON is
+ * selected if the request has no <code>Accept</code> header, if another format isn't accepted with a higher quality (e.g. for
+ * <code>*&#47;*</code> or <code>application/*</code>) or if no format is accepted at all.
+ * <p>
+ * Spark only selects routes whose accept type matches the <code>Accept</code> header, so this route has to be mapped for every
+ * content type. If several accept types match equally, Spark's selection is random, that's why it must not choose the format.
+ * </p>
+ */
+/*default*/ final class FormatNegotiationRoute implements Route {
+
+    private static final String HEADER_ACCEPT = "Accept";
+    private static final String HEADER_VARY = "Vary";
+    private static final String ANY_MEDIA_RANGE = "*/*";
+
+    private final Route jsonRoute;
+    private final Map<String, Route> alternativeRoutes;
+    private final List<String> contentTypes = new ArrayList<>();
+
+    FormatNegotiationRoute(String jsonContentType, Route jsonRoute, Map<String, Route> alternativeRoutes) {
+        this.jsonRoute = jsonRoute;
+        this.alternativeRoutes = alternativeRoutes;
+
+        this.contentTypes.add(jsonContentType);
+        this.contentTypes.addAll(alternativeRoutes.keySet());
+    }
+
+    /**
+     * Get the quality value of the content type in the passed <code>Accept</code> header. It is taken from the most specific media
+     * range that matches the content type.
+     *
+     * @param accept The value of the <code>Accept</code> header.
+     * @param contentType The content type in lower case, e.g. <code>application/json</code>.
+     * @return The quality value or 0 if the content type is not accepted.
+     */
+    public static float getQuality(String accept, String contentType) {
+        float result = 0;
+        int bestSpecificity = -1;
+
+        for (String eachRange : accept.split(",")) {
+            int parametersStart = eachRange.indexOf(';');
+            String range = parametersStart == -1 ? eachRange : eachRange.substring(0, parametersStart);
+
+            int specificity = getSpecificity(range.trim().toLowerCase(Locale.ROOT), contentType);
+            if (specificity > bestSpecificity) {
+                bestSpecificity = specificity;
+                result = parametersStart == -1 ? 1 : parseQuality(eachRange.substring(parametersStart + 1));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Select the content type with the highest quality value in the passed <code>Accept</code> header. The first content type wins
+     * if several are accepted equally.
+     *
+     * @param accept The value of the <code>Accept</code> header or null.
+     * @param contentTypes The available content types in lower case, the default first.
+     * @return The selected content type.
+     */
+    public static String negotiate(String accept, List<String> contentTypes) {
+        String result = contentTypes.get(0);
+        if (accept == null || accept.isBlank()) {
+            return result;
+        }
+
+        float bestQuality = getQuality(accept, result);
+        for (int i = 1; i < contentTypes.size(); i++) {
+            float quality = getQuality(accept, contentTypes.get(i));
+            if (quality > bestQuality) {
+                bestQuality = quality;
+                result = contentTypes.get(i);
+            }
+        }
+        return result;
+    }
+
+    private static int getSpecificity(String range, String contentType) {
+        if (range.equals(contentType)) {
+            return 2;
+        }
+        if (range.endsWith("/*") && contentType.startsWith(range.substring(0, range.length() - 1))) {
+            return 1;
+        }
+        if (range.equals(ANY_MEDIA_RANGE)) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private static float parseQuality(String parameters) {
+        for (String eachParameter : parameters.split(";")) {
+            String parameter = eachParameter.trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        response.raw().addHeader(HEADER_VARY, HEADER_ACCEPT);
+
+        Route route = this.alternativeRoutes.get(negotiate(request.headers(HEADER_ACCEPT), this.contentTypes));
+        if (route == null) {
+            return this.jsonRoute.handle(request, response);
+        }
+
+        route.handle(request, response);
+
+        // commit the response, so Spark doesn't render the return value of this route
+        response.raw().flushBuffer();
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import com.indoqa.boot.json.transformer.JsonTransformer;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * Renders the result of the wrapped route once and serves the bytes from the {@link RenderedResponseCache} until it is invalidated.
+ * The wrapped route is only invoked to render the response again, headers and status codes set by it are not cached. If the route
+ * returns null, nothing is cached.
+ */
+/*default*/ final class PreRenderedRoute implements Route {
+
+    private final Route route;
+    private final RenderedResponseCache cache;
+    private final JsonTransformer transformer;
+
+    PreRenderedRoute(Route route, RenderedResponseCache cache, JsonTransformer transformer) {
+        this.route = route;
+        this.cache = cache;
+        this.transformer = transformer;
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        RenderedResponse renderedResponse = this.cache.get();
+
+        if (renderedResponse == null) {
+            // read the revision first, a modification while rendering invalidates the result immediately
+            long revision = this.cache.getRevision();
+            long invalidations = this.cache.getInvalidations();
+
+            Object model = this.route.handle(request, response);
+            if (model == null) {
+                return null;
+            }
+
+            renderedResponse = RenderedResponse.render(model, this.transformer, revision, invalidations);
+            this.cache.put(renderedResponse);
+        }
+
+        renderedResponse.send(request.raw(), response.raw());
+
+        // the response is committed, Spark doesn't write anything else
+        return null;
+    }
+}
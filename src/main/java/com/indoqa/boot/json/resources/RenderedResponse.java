@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.AcceptEncoding;
+import com.indoqa.boot.resources.ETags;
+
+/**
+ * The rendered body of a route including a gzip compressed variant and the entity tags of both.
+ */
+/*default*/ final class RenderedResponse {
+
+    private static final String GZIP = "gzip";
+
+    private final byte[] body;
+    private final String etag;
+    private final byte[] gzippedBody;
+    private final String gzippedETag;
+
+    private final long revision;
+    private final long invalidations;
+
+    private RenderedResponse(byte[] body, byte[] gzippedBody, long revision, long invalidations) {
+        this.body = body;
+        this.etag = ETags.strong(body);
+        this.gzippedBody = gzippedBody;
+        this.gzippedETag = gzippedBody == null ? null : ETags.variant(this.etag, GZIP);
+        this.revision = revision;
+        this.invalidations = invalidations;
+    }
+
+    public static RenderedResponse render(Object model, JsonTransformer transformer, long revision, long invalidations)
+        throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.write(model, outputStream);
+        byte[] body = outputStream.toByteArray();
+        return new RenderedResponse(body, gzip(body), revision, invalidations);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(body);
+        }
+
+        if (outputStream.size() >= body.length) {
+            // small bodies don't get smaller
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
+
+    public boolean isRevision(long currentRevision, long currentInvalidations) {
+        return this.revision == currentRevision && this.invalidations == currentInvalidations;
+    }
+
+    /**
+     * Send the body (or <code>304 Not Modified</code>) and commit the response.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzipped = this.gzippedBody != null && AcceptEncoding.accepts(request, GZIP);
+        String currentETag = gzipped ? this.gzippedETag : this.etag;
+
+        response.setHeader("ETag", currentETag);
+        if (this.gzippedBody != null) {
+            response.setHeader("Vary", AcceptEncoding.HEADER_ACCEPT_ENCODING);
+        }
+
+        // Jetty's GzipHandler removes the encoding suffix of compressed variants from If-None-Match headers
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ETags.matches(ifNoneMatch, currentETag) || ETags.matches(ifNoneMatch, this.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.flushBuffer();
+            return;
+        }
+
+        byte[] currentBody = gzipped ? this.gzippedBody : this.body;
+        if (response.getContentType() == null) {
+            response.setContentType(AbstractJsonResourcesBase.CONTENT_TYPE_JSON);
+        }
+        if (gzipped) {
+            response.setHeader("Content-Encoding", GZIP);
+        }
+        response.setContentLength(currentBody.length);
+        response.getOutputStream().write(currentBody);
+        response.flushBuffer();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the rendered bytes of a route whose result rarely changes, see
+ * {@link AbstractJsonResourcesBase#getPreRendered(String, spark.Route, RenderedResponseCache)}. The route is invoked again after
+ * {@link #invalidate()} was called or the revision of the cached object has changed.
+ */
+public final class RenderedResponseCache {
+
+    private final LongSupplier revision;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile RenderedResponse response;
+
+    /**
+     * Create a cache that is only invalidated with {@link #invalidate()}.
+     */
+    public RenderedResponseCache() {
+        this(() -> 0);
+    }
+
+    /**
+     * Create a cache that is invalidated whenever the passed revision changes, e.g. a modification counter of the cached object.
+     *
+     * @param revision The revision of the cached object.
+     */
+    public RenderedResponseCache(LongSupplier revision) {
+        this.revision = revision;
+    }
+
+    public void invalidate() {
+        this.invalidations.incrementAndGet();
+        this.response = null;
+    }
+
+    /*default*/ RenderedResponse get() {
+        RenderedResponse result = this.response;
+        if (result == null || !result.isRevision(this.revision.getAsLong(), this.invalidations.get())) {
+            return null;
+        }
+        return result;
+    }
+
+    /*default*/ long getInvalidations() {
+        return this.invalidations.get();
+    }
+
+    /*default*/ long getRevision() {
+        return this.revision.getAsLong();
+    }
+
+    /*default*/ void put(RenderedResponse renderedResponse) {
+        this.response = renderedResponse;
+    }
+}
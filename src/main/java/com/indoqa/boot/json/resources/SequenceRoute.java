@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+
+import com.indoqa.boot.json.transformer.DataFormat;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+import spark.utils.GzipUtils;
+
+/**
+ * Writes {@link java.util.stream.Stream}s, {@link Iterator}s and {@link Spliterator}s returned by the wrapped route element by element
+ * with {@link JsonTransformer#writeSequence(Iterator, OutputStream, DataFormat, boolean, int)}. All other results are returned
+ * unchanged.<br>
+ * The blocking servlet output stream provides the backpressure: the next element is only requested after the previous one has been
+ * written. Streams and {@link AutoCloseable} iterators are closed in any case, e.g. to release database cursors when the client
+ * disconnects.
+ */
+/*default*/ final class SequenceRoute implements Route {
+
+    private static final Logger LOGGER = getLogger(SequenceRoute.class);
+
+    private final Route route;
+    private final Function<Request, JsonTransformer> transformers;
+    private final DataFormat format;
+    private final boolean newlineDelimited;
+    private final int flushInterval;
+
+    SequenceRoute(Route route, Function<Request, JsonTransformer> transformers, DataFormat format, boolean newlineDelimited,
+        int flushInterval) {
+        this.route = route;
+        this.transformers = transformers;
+        this.format = format;
+        this.newlineDelimited = newlineDelimited;
+        this.flushInterval = flushInterval;
+    }
+
+    private static void close(Object sequence) throws Exception {
+        if (sequence instanceof AutoCloseable) {
+            ((AutoCloseable) sequence).close();
+        }
+    }
+
+    /*default*/ static boolean isSequence(Object model) {
+        return model instanceof BaseStream || model instanceof Iterator || model instanceof Spliterator;
+    }
+
+    private static Iterator<?> toIterator(Object model) {
+        if (model instanceof BaseStream) {
+            return ((BaseStream<?, ?>) model).iterator();
+        }
+        if (model instanceof Iterator) {
+            return (Iterator<?>) model;
+        }
+        if (model instanceof Spliterator) {
+            return Spliterators.iterator((Spliterator<?>) model);
+        }
+        return null;
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        Object model = this.route.handle(request, response);
+
+        Iterator<?> elements = toIterator(model);
+        if (elements == null) {
+            return model;
+        }
+
+        try {
+            this.write(elements, request, response);
+        } catch (IOException e) {
+            // the response is committed already, there is nobody left to report the error to
+            LOGGER.debug("Writing the sequence for {} was aborted: {}", request.pathInfo(), e.getMessage());
+        } finally {
+            close(model);
+        }
+
+        // the response is committed, Spark doesn't write anything else
+        return null;
+    }
+
+    private String getContentType() {
+        if (this.newlineDelimited) {
+            return AbstractJsonResourcesBase.CONTENT_TYPE_NDJSON;
+        }
+        return this.format.getContentType();
+    }
+
+    private void write(Iterator<?> elements, Request request, Response response) throws IOException {
+        if (response.raw().getContentType() == null || this.newlineDelimited) {
+            response.type(this.getContentType());
+        }
+
+        // the same rule Spark applies when it serializes the body
+        OutputStream outputStream = GzipUtils.checkAndWrap(request.raw(), response.raw(), true);
+        JsonTransformer transformer = this.transformers.apply(request);
+        transformer.writeSequence(elements, outputStream, this.format, this.newlineDelimited, this.flushInterval);
+
+        if (outputStream instanceof GZIPOutputStream) {
+            // finish the compressed stream
+            outputStream.close();
+        } else {
+            // commit the response, so Spark doesn't serialize the return value of this route
+            outputStream.flush();
+        }
+    }
+}
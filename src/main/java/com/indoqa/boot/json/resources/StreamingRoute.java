@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import java.io.OutputStream;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import com.indoqa.boot.json.transformer.DataFormat;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+import spark.utils.GzipUtils;
+
+/**
+ * Writes the result of the wrapped route with {@link JsonTransformer#write(Object, OutputStream, DataFormat)} directly to the servlet
+ * output stream. Spark only gets an empty byte array to serialize.
+ */
+/*default*/ final class StreamingRoute implements Route {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Route route;
+    private final Function<Request, JsonTransformer> transformers;
+    private final DataFormat format;
+
+    StreamingRoute(Route route, Function<Request, JsonTransformer> transformers, DataFormat format) {
+        this.route = route;
+        this.transformers = transformers;
+        this.format = format;
+    }
+
+    @Override
+    public Object handle(Request request, Response response) throws Exception {
+        Object model = this.route.handle(request, response);
+        if (model == null) {
+            return EMPTY;
+        }
+
+        if (response.raw().getContentType() == null) {
+            response.type(this.format.getContentType());
+        }
+
+        // the same rule Spark applies when it serializes the body
+        OutputStream outputStream = GzipUtils.checkAndWrap(request.raw(), response.raw(), true);
+        this.transformers.apply(request).write(model, outputStream, this.format);
+
+        if (outputStream instanceof GZIPOutputStream) {
+            // finish the compressed stream, Spark skips committed responses
+            outputStream.close();
+        }
+
+        return EMPTY;
+    }
+}
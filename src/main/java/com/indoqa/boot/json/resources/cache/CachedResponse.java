@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.AcceptEncoding;
+import com.indoqa.boot.resources.ETags;
+
+/**
+ * A rendered response of the {@link ResponseCache}. The body is kept gzip compressed, unless it doesn't get smaller. Clients that
+ * don't accept gzip get the body inflated while it is written.
+ */
+/*default*/ final class CachedResponse {
+
+    private static final String GZIP = "gzip";
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final byte[] body;
+    private final boolean gzipped;
+    private final int length;
+    private final String etag;
+    private final String contentType;
+    private final long created;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private CachedResponse(byte[] body, boolean gzipped, int length, String etag, String contentType, long created) {
+        this.body = body;
+        this.gzipped = gzipped;
+        this.length = length;
+        this.etag = etag;
+        this.contentType = contentType;
+        this.created = created;
+    }
+
+    public static CachedResponse render(Object model, JsonTransformer transformer, String contentType, long created)
+        throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.write(model, outputStream);
+        byte[] body = outputStream.toByteArray();
+        String etag = ETags.strong(body);
+
+        byte[] gzippedBody = gzip(body);
+        if (gzippedBody == null) {
+            return new CachedResponse(body, false, body.length, etag, contentType, created);
+        }
+        return new CachedResponse(gzippedBody, true, body.length, etag, contentType, created);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(body);
+        }
+
+        if (outputStream.size() >= body.length) {
+            // small bodies don't get smaller
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
+
+    public long getAge(long now) {
+        return now - this.created;
+    }
+
+    public int getWeight(String key) {
+        return this.body.length + 2 * key.length() + ENTRY_OVERHEAD;
+    }
+
+    public void endRefresh() {
+        this.refreshing.set(false);
+    }
+
+    /**
+     * @return True if the caller has to refresh this response, false if another request is already refreshing it.
+     */
+    public boolean startRefresh() {
+        return this.refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * Send the body (or <code>304 Not Modified</code>) and commit the response.
+     */
+    public void send(HttpServletRequest request, HttpServletResponse response, String vary) throws IOException {
+        boolean sendGzipped = this.gzipped && AcceptEncoding.accepts(request, GZIP);
+        String currentETag = sendGzipped ? ETags.variant(this.etag, GZIP) : this.etag;
+
+        response.setHeader("ETag", currentETag);
+        if (vary != null) {
+            response.setHeader("Vary", vary);
+        }
+
+        // Jetty's GzipHandler removes the encoding suffix of compressed variants from If-None-Match headers
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ETags.matches(ifNoneMatch, currentETag) || ETags.matches(ifNoneMatch, this.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.flushBuffer();
+            return;
+        }
+
+        response.setContentType(this.contentType);
+        if (sendGzipped) {
+            response.setHeader("Content-Encoding", GZIP);
+            response.setContentLength(this.body.length);
+            response.getOutputStream().write(this.body);
+        } else if (this.gzipped) {
+            response.setContentLength(this.length);
+            try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(this.body))) {
+                inputStream.transferTo(response.getOutputStream());
+            }
+        } else {
+            response.setContentLength(this.length);
+            response.getOutputStream().write(this.body);
+        }
+        response.flushBuffer();
+    }
+
+    public boolean isGzipped() {
+        return this.gzipped;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+/**
+ * Estimates how often a key was requested recently with a count-min sketch of 4-bit counters. All counters are halved periodically,
+ * so the estimate ages and keys that were popular a while ago lose their advantage. Not thread-safe.
+ */
+/*default*/ final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedSize) {
+        int size = (int) Math.min(1 << 24, Math.max(16, Long.highestOneBit(Math.max(1, expectedSize) - 1) << 1));
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    private static int spread(int hashCode) {
+        int result = hashCode * 0x9e3779b9;
+        return result ^ (result >>> 16);
+    }
+
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        int result = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((this.table[this.indexOf(hash, i)] >>> offset) & MAX_COUNT);
+            result = Math.min(result, count);
+        }
+        return result;
+    }
+
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= this.incrementAt(this.indexOf(hash, i), start + i);
+        }
+
+        if (added && ++this.additions >= this.sampleSize) {
+            this.reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        if (((this.table[index] >>> offset) & MAX_COUNT) == MAX_COUNT) {
+            return false;
+        }
+        this.table[index] += 1L << offset;
+        return true;
+    }
+
+    private int indexOf(int hash, int seedIndex) {
+        long result = (hash + SEEDS[seedIndex]) * SEEDS[seedIndex];
+        result += result >>> 32;
+        return (int) result & this.tableMask;
+    }
+
+    private void reset() {
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+        }
+        this.additions >>>= 1;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.actuate.metrics.Metric;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.AcceptEncoding;
+
+import spark.Request;
+import spark.Route;
+
+/**
+ * A request coalescer executes a route only once for identical concurrent GET requests (single-flight). Requests arriving while the
+ * route is executed wait for its rendered response and send the same bytes. If the wait exceeds the limit or the route fails, the
+ * waiting requests execute the route independently. This protects downstream systems from bursts of identical requests, e.g. after
+ * a deployment or when a cached response expires.
+ * <p>
+ * The key of a request must contain everything its response depends on. Requests with the same key get the same response, even if
+ * they were sent by different users. The default key consists of the path, the query string and the <code>Authorization</code>
+ * and <code>Cookie</code> headers, so only requests with the same credentials are coalesced. If the response depends on other
+ * headers or on state that is derived from the request, e.g. by a before filter, a key function has to be passed.
+ * </p>
+ * <p>
+ * Coalescers are identified by their name, their statistics are available via <code>/metrics</code>:
+ * </p>
+ *
+ * <pre>
+ * this.get("/catalog", this::getCatalog, RequestCoalescer.of("catalog", 2000));
+ * </pre>
+ *
+ * @see ResponseCache.Builder#coalesce(java.time.Duration)
+ */
+public final class RequestCoalescer {
+
+    private static final Map<String, RequestCoalescer> COALESCERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int maxWait;
+    private final Function<Request, String> keyFunction;
+    private final SingleFlight singleFlight;
+
+    private RequestCoalescer(String name, int maxWait, Function<Request, String> keyFunction) {
+        this.name = name;
+        this.maxWait = maxWait;
+        this.keyFunction = keyFunction;
+        this.singleFlight = new SingleFlight(maxWait * 1_000_000L);
+    }
+
+    /**
+     * Create the coalescer with the passed name. Requests are identical if they have the same path, query string and
+     * <code>Authorization</code> and <code>Cookie</code> headers.
+     *
+     * @param name The name of the coalescer.
+     * @param maxWait The maximum time in ms a request waits for the response of an identical request.
+     * @return The coalescer.
+     */
+    public static RequestCoalescer of(String name, int maxWait) {
+        return of(name, maxWait, createDefaultKeyFunction());
+    }
+
+    /**
+     * Create the coalescer with the passed name. A previously created coalescer with the same name is replaced.
+     *
+     * @param name The name of the coalescer.
+     * @param maxWait The maximum time in ms a request waits for the response of an identical request.
+     * @param keyFunction Requests with the same key are identical and get the same response, so the key must contain the user if the
+     *            response is user specific.
+     * @return The coalescer.
+     */
+    public static RequestCoalescer of(String name, int maxWait, Function<Request, String> keyFunction) {
+        if (maxWait < 0) {
+            throw new ApplicationInitializationException(
+                "Invalid configuration of request coalescer '" + name + "': maxWait=" + maxWait);
+        }
+
+        RequestCoalescer result = new RequestCoalescer(name, maxWait, keyFunction);
+        COALESCERS.put(name, result);
+        return result;
+    }
+
+    static Function<Request, String> createDefaultKeyFunction() {
+        return ResponseCache.varyKeyFunction(ResponseCache.createKeyFunction(null), ResponseCache.CREDENTIAL_HEADERS);
+    }
+
+    static Collection<RequestCoalescer> getCoalescers() {
+        return COALESCERS.values();
+    }
+
+    public int getMaxWait() {
+        return this.maxWait;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Wrap the passed route so that identical concurrent requests share its rendered result. Only results of responses with status
+     * <code>200 OK</code> are shared. Headers set by the route are only sent to the request that executed it.
+     *
+     * @param route The route to be wrapped.
+     * @param transformer The transformer that renders the result of the route.
+     * @return The wrapped route.
+     */
+    public Route wrap(Route route, JsonTransformer transformer) {
+        return (request, response) -> {
+            Object result = this.singleFlight.execute(this.keyFunction.apply(request), () -> {
+                Object model = route.handle(request, response);
+                if (!ResponseCache.isCacheable(model, response)) {
+                    return model;
+                }
+                return ResponseCache.render(model, transformer, response);
+            });
+
+            if (!(result instanceof CachedResponse)) {
+                return result;
+            }
+
+            CachedResponse renderedResponse = (CachedResponse) result;
+            String vary = renderedResponse.isGzipped() ? AcceptEncoding.HEADER_ACCEPT_ENCODING : null;
+            renderedResponse.send(request.raw(), response.raw(), vary);
+
+            // the response is committed, Spark doesn't write anything else
+            return null;
+        };
+    }
+
+    List<Metric<?>> metrics() {
+        return this.singleFlight.metrics("request_coalescer." + this.name + ".");
+    }
+}
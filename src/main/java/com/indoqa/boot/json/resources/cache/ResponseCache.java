@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.actuate.metrics.Metric;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.AcceptEncoding;
+
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+/**
+ * An in-process cache of rendered JSON responses of GET routes. Responses are stored gzip compressed under a key that is derived from
+ * the request and the values of the request headers listed in {@link Builder#vary}. The size of all cached responses is limited by a
+ * byte budget, eviction and admission follow the W-TinyLFU policy, so responses that are requested frequently are kept.
+ * <p>
+ * The default key consists of the path, the query string (or the parameters passed to {@link Builder#keyParameters}) and the
+ * <code>Authorization</code> and <code>Cookie</code> headers, so a response rendered for one user is never sent to another one.
+ * Requests with credentials only share responses with requests that carry the same credentials. If the response doesn't depend on
+ * the user, or if it depends on other state derived from the request, e.g. by a before filter, a key function has to be passed.
+ * </p>
+ * <p>
+ * Caches are identified by their name, their statistics are available via <code>/metrics</code>:
+ * </p>
+ *
+ * <pre>
+ * private final ResponseCache catalogCache = ResponseCache
+ *     .builder("catalog")
+ *     .keyParameters("category", "page")
+ *     .timeToLive(Duration.ofMinutes(1))
+ *     .staleWhileRevalidate(Duration.ofSeconds(30))
+ *     .maxBytes(32 * 1024 * 1024)
+ *     .build();
+ *
+ * this.get("/catalog", this::getCatalog, this.catalogCache);
+ * </pre>
+ */
+public final class ResponseCache {
+
+    private static final Map<String, ResponseCache> CACHES = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = getLogger(ResponseCache.class);
+
+    private static final String CONTENT_TYPE_JSON = "application/json";
+
+    static final String[] CREDENTIAL_HEADERS = {"Authorization", "Cookie"};
+
+    private final String name;
+    private final Function<Request, String> keyFunction;
+    private final String[] varyHeaders;
+    private final String vary;
+    private final String varyGzipped;
+    private final long timeToLive;
+    private final long staleWhileRevalidate;
+    private final TinyLfuStore store;
+    private final SingleFlight singleFlight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    private ResponseCache(Builder builder) {
+        this.name = builder.name;
+        Function<Request, String> baseKeyFunction = builder.keyFunction != null ? builder.keyFunction
+            : varyKeyFunction(createKeyFunction(builder.keyParameters), CREDENTIAL_HEADERS);
+        this.keyFunction = varyKeyFunction(baseKeyFunction, builder.varyHeaders);
+        this.varyHeaders = builder.varyHeaders;
+        this.vary = this.varyHeaders.length == 0 ? null : String.join(", ", this.varyHeaders);
+        this.varyGzipped = this.vary == null ? AcceptEncoding.HEADER_ACCEPT_ENCODING
+            : this.vary + ", " + AcceptEncoding.HEADER_ACCEPT_ENCODING;
+        this.timeToLive = builder.timeToLive.toNanos();
+        this.staleWhileRevalidate = builder.staleWhileRevalidate.toNanos();
+        this.store = new TinyLfuStore(builder.maxBytes);
+        this.singleFlight = builder.coalescingMaxWait == null ? null : new SingleFlight(builder.coalescingMaxWait.toNanos());
+    }
+
+    /**
+     * Start the configuration of a cache. Responses are cached for one minute, the cache size is limited to 16 MB.
+     *
+     * @param name The name of the cache.
+     * @return The builder.
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    static Collection<ResponseCache> getCaches() {
+        return CACHES.values();
+    }
+
+    static boolean isCacheable(Object model, Response response) {
+        return model != null && !response.raw().isCommitted() && response.raw().getStatus() == HttpServletResponse.SC_OK;
+    }
+
+    static Function<Request, String> createKeyFunction(String[] keyParameters) {
+        if (keyParameters == null) {
+            return request -> {
+                String queryString = request.queryString();
+                return queryString == null ? request.pathInfo() : request.pathInfo() + '?' + queryString;
+            };
+        }
+
+        return request -> {
+            StringBuilder result = new StringBuilder(request.pathInfo());
+            for (String parameter : keyParameters) {
+                String[] values = request.queryParamsValues(parameter);
+                if (values != null) {
+                    result.append('&').append(parameter).append('=').append(String.join(",", values));
+                }
+            }
+            return result.toString();
+        };
+    }
+
+    /**
+     * Extend the key function by the values of the passed request headers.
+     */
+    static Function<Request, String> varyKeyFunction(Function<Request, String> keyFunction, String[] varyHeaders) {
+        if (varyHeaders.length == 0) {
+            return keyFunction;
+        }
+
+        return request -> {
+            StringBuilder result = new StringBuilder(keyFunction.apply(request));
+            for (String header : varyHeaders) {
+                String value = request.headers(header);
+                result.append('\n').append(value == null ? "" : value);
+            }
+            return result.toString();
+        };
+    }
+
+    static CachedResponse render(Object model, JsonTransformer transformer, Response response) throws Exception {
+        String contentType = response.raw().getContentType();
+        return CachedResponse.render(model, transformer, contentType == null ? CONTENT_TYPE_JSON : contentType, System.nanoTime());
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Remove all cached responses.
+     */
+    public void invalidate() {
+        this.store.clear();
+    }
+
+    /**
+     * Remove the cached responses of a key. If the cache varies by request headers or credentials, all variants have to be removed
+     * separately.
+     *
+     * @param key The key as created by the key function.
+     */
+    public void invalidate(String key) {
+        this.store.remove(key);
+    }
+
+    /**
+     * Wrap the passed route so that its rendered result is served from this cache. Only results of responses with status
+     * <code>200 OK</code> are cached. Headers set by the route are not cached.
+     *
+     * @param route The route to be wrapped.
+     * @param transformer The transformer that renders the result of the route.
+     * @return The wrapped route.
+     */
+    public Route wrap(Route route, JsonTransformer transformer) {
+        return (request, response) -> {
+            String key = this.keyFunction.apply(request);
+            CachedResponse cachedResponse = this.store.get(key);
+
+            if (cachedResponse != null) {
+                long age = cachedResponse.getAge(System.nanoTime());
+                if (age <= this.timeToLive) {
+                    this.hits.increment();
+                    this.send(cachedResponse, request, response);
+                    return null;
+                }
+
+                if (age <= this.timeToLive + this.staleWhileRevalidate) {
+                    this.staleHits.increment();
+                    this.send(cachedResponse, request, response);
+                    if (cachedResponse.startRefresh()) {
+                        this.refresh(key, cachedResponse, route, transformer, request, response);
+                    }
+                    return null;
+                }
+            }
+
+            this.misses.increment();
+            Callable<Object> computation = () -> this.compute(key, route, transformer, request, response);
+            Object result = this.singleFlight == null ? computation.call() : this.singleFlight.execute(key, computation);
+            if (!(result instanceof CachedResponse)) {
+                return result;
+            }
+
+            this.send((CachedResponse) result, request, response);
+
+            // the response is committed, Spark doesn't write anything else
+            return null;
+        };
+    }
+
+    List<Metric<?>> metrics() {
+        String prefix = "response_cache." + this.name + ".";
+
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>(prefix + "hits", this.hits.sum()));
+        result.add(new Metric<>(prefix + "stale_hits", this.staleHits.sum()));
+        result.add(new Metric<>(prefix + "misses", this.misses.sum()));
+        result.add(new Metric<>(prefix + "evictions", this.store.getEvictions()));
+        result.add(new Metric<>(prefix + "refresh_failures", this.refreshFailures.sum()));
+        result.add(new Metric<>(prefix + "size", this.store.getSize()));
+        result.add(new Metric<>(prefix + "bytes", this.store.getBytes()));
+        if (this.singleFlight != null) {
+            result.addAll(this.singleFlight.metrics(prefix));
+        }
+        return result;
+    }
+
+    private Object compute(String key, Route route, JsonTransformer transformer, Request request, Response response) throws Exception {
+        Object model = route.handle(request, response);
+        if (!isCacheable(model, response)) {
+            return model;
+        }
+
+        CachedResponse result = render(model, transformer, response);
+        this.store.put(key, result);
+        return result;
+    }
+
+    /**
+     * The stale response has already been sent, so the client doesn't wait for the refresh. Only the status code and the body of the
+     * route can't be inspected anymore, so routes have to signal errors with exceptions.
+     */
+    private void refresh(String key, CachedResponse staleResponse, Route route, JsonTransformer transformer, Request request,
+        Response response) {
+        try {
+            Object model = route.handle(request, response);
+            if (model != null) {
+                this.store.put(key, render(model, transformer, response));
+            }
+        } catch (Exception e) { // NOSONAR
+            this.refreshFailures.increment();
+            LOGGER.warn("Error while refreshing the cached response '{}' of response cache '{}'.", key, this.name, e);
+        } finally {
+            staleResponse.endRefresh();
+        }
+    }
+
+    private void send(CachedResponse cachedResponse, Request request, Response response) throws Exception {
+        cachedResponse.send(request.raw(), response.raw(), cachedResponse.isGzipped() ? this.varyGzipped : this.vary);
+    }
+
+    public static final class Builder {
+
+        private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+        private static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+        private final String name;
+        private Function<Request, String> keyFunction;
+        private String[] keyParameters;
+        private String[] varyHeaders = new String[0];
+        private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+        private Duration staleWhileRevalidate = Duration.ZERO;
+        private long maxBytes = DEFAULT_MAX_BYTES;
+        private Duration coalescingMaxWait;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Create the cache and register it for the metrics. A previously created cache with the same name is replaced.
+         *
+         * @return The cache.
+         */
+        public ResponseCache build() {
+            if (this.timeToLive.isNegative() || this.timeToLive.isZero() || this.staleWhileRevalidate.isNegative()
+                || this.maxBytes < 1 || this.coalescingMaxWait != null && this.coalescingMaxWait.isNegative()) {
+                throw new ApplicationInitializationException(
+                    "Invalid configuration of response cache '" + this.name + "': timeToLive=" + this.timeToLive
+                        + ", staleWhileRevalidate=" + this.staleWhileRevalidate + ", maxBytes=" + this.maxBytes
+                        + ", coalescingMaxWait=" + this.coalescingMaxWait);
+            }
+
+            ResponseCache result = new ResponseCache(this);
+            CACHES.put(this.name, result);
+            return result;
+        }
+
+        /**
+         * Render a missing response only once for concurrent requests with the same key. The other requests wait at most for the
+         * passed duration and then execute the route independently. By default, requests are not coalesced.
+         *
+         * @param maxWait The maximum time a request waits for the response of a concurrent request.
+         * @return This builder.
+         * @see RequestCoalescer
+         */
+        public Builder coalesce(Duration maxWait) {
+            this.coalescingMaxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Derive the cache key with the passed function instead of the path, the query parameters and the credentials headers. The
+         * key must contain the user if the response is user specific.
+         *
+         * @param function The key function.
+         * @return This builder.
+         */
+        public Builder keyFunction(Function<Request, String> function) {
+            this.keyFunction = function;
+            return this;
+        }
+
+        /**
+         * Derive the cache key from the path, the passed query parameters and the credentials headers only. All other query
+         * parameters are ignored. By default, the whole query string is part of the key.
+         *
+         * @param parameters The names of the query parameters.
+         * @return This builder.
+         */
+        public Builder keyParameters(String... parameters) {
+            this.keyParameters = parameters.clone();
+            return this;
+        }
+
+        /**
+         * @param bytes The maximum size of all cached responses, including some overhead per entry.
+         * @return This builder.
+         */
+        public Builder maxBytes(long bytes) {
+            this.maxBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Expired responses are still served for the passed duration. The first request after the expiration renders the response
+         * again after the stale response has been sent. By default, expired responses are never served.
+         *
+         * @param duration The duration.
+         * @return This builder.
+         */
+        public Builder staleWhileRevalidate(Duration duration) {
+            this.staleWhileRevalidate = duration;
+            return this;
+        }
+
+        /**
+         * @param duration The duration a response is served from the cache.
+         * @return This builder.
+         */
+        public Builder timeToLive(Duration duration) {
+            this.timeToLive = duration;
+            return this;
+        }
+
+        /**
+         * Cache separate responses for different values of the passed request headers (e.g. <code>Accept-Language</code>) and send
+         * them in the <code>Vary</code> header.
+         *
+         * @param headers The names of the request headers.
+         * @return This builder.
+         */
+        public Builder vary(String... headers) {
+            this.varyHeaders = headers.clone();
+            return this;
+        }
+    }
+}
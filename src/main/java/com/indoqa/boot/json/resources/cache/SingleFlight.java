@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.indoqa.boot.actuate.metrics.Metric;
+
+/**
+ * Executes a computation only once for concurrent requests with the same key. Requests arriving while the computation is in flight
+ * wait for its {@link CachedResponse}. If the wait exceeds the limit, or the computation fails or produces no response that can be
+ * shared, the waiting requests execute the computation independently.
+ */
+/*default*/ final class SingleFlight {
+
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWait;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    SingleFlight(long maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * @param key The key of the computation.
+     * @param computation The computation, only a {@link CachedResponse} result is shared with waiting requests.
+     * @return The result of the own computation or the shared response of a concurrent one.
+     * @throws Exception If the computation fails.
+     */
+    public Object execute(String key, Callable<Object> computation) throws Exception {
+        CompletableFuture<CachedResponse> future = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> leader = this.inFlight.putIfAbsent(key, future);
+
+        if (leader != null) {
+            CachedResponse sharedResponse = this.await(leader);
+            if (sharedResponse != null) {
+                this.coalesced.increment();
+                return sharedResponse;
+            }
+
+            this.fallbacks.increment();
+            return computation.call();
+        }
+
+        this.executions.increment();
+        Object result = null;
+        try {
+            result = computation.call();
+            return result;
+        } finally {
+            // complete first, requests arriving in between get the fresh response as well
+            future.complete(result instanceof CachedResponse ? (CachedResponse) result : null);
+            this.inFlight.remove(key, future);
+        }
+    }
+
+    public List<Metric<?>> metrics(String prefix) {
+        long executionCount = this.executions.sum();
+        long coalescedCount = this.coalesced.sum();
+        long fallbackCount = this.fallbacks.sum();
+        long total = executionCount + coalescedCount + fallbackCount;
+
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>(prefix + "executions", executionCount));
+        result.add(new Metric<>(prefix + "coalesced", coalescedCount));
+        result.add(new Metric<>(prefix + "fallbacks", fallbackCount));
+        result.add(new Metric<>(prefix + "coalescing_ratio", total == 0 ? 0.0 : (double) coalescedCount / total));
+        result.add(new Metric<>(prefix + "in_flight", this.inFlight.size()));
+        return result;
+    }
+
+    private CachedResponse await(CompletableFuture<CachedResponse> leader) {
+        try {
+            return leader.get(this.maxWait, NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) { // NOSONAR
+            return null;
+        }
+    }
+}
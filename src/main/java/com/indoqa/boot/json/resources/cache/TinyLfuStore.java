@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A size-bounded store that evicts with W-TinyLFU: new entries are added to a small LRU window. Entries leaving the window compete
+ * with the least recently used entry of the main area and are only admitted if they were requested more frequently (see
+ * {@link FrequencySketch}). The main area is a segmented LRU, entries requested again while on probation are moved to the protected
+ * segment. This keeps popular responses cached even when many one-off requests pass through.
+ * <p>
+ * The size is measured in bytes. All methods are synchronized, the bodies are sent outside of the lock.
+ * </p>
+ */
+/*default*/ final class TinyLfuStore {
+
+    private static final int AVERAGE_ENTRY_SIZE = 2048;
+
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long protectedMaxBytes;
+    private final FrequencySketch sketch;
+
+    private final Map<String, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Node> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+    private long evictions;
+
+    TinyLfuStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = Math.max(1, maxBytes / 100);
+        this.protectedMaxBytes = (maxBytes - this.windowMaxBytes) * 4 / 5;
+        this.sketch = new FrequencySketch(maxBytes / AVERAGE_ENTRY_SIZE);
+    }
+
+    private static Entry<String, Node> eldest(Map<String, Node> segment) {
+        Iterator<Entry<String, Node>> iterator = segment.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        return iterator.next();
+    }
+
+    public synchronized void clear() {
+        this.window.clear();
+        this.probation.clear();
+        this.protectedSegment.clear();
+        this.windowBytes = 0;
+        this.probationBytes = 0;
+        this.protectedBytes = 0;
+    }
+
+    /**
+     * Get the response for the passed key and record the access.
+     */
+    public synchronized CachedResponse get(String key) {
+        this.sketch.increment(key);
+
+        Node node = this.window.get(key);
+        if (node != null) {
+            return node.response;
+        }
+
+        node = this.protectedSegment.get(key);
+        if (node != null) {
+            return node.response;
+        }
+
+        node = this.probation.remove(key);
+        if (node == null) {
+            return null;
+        }
+
+        this.probationBytes -= node.weight;
+        this.protectedSegment.put(key, node);
+        this.protectedBytes += node.weight;
+        this.demoteProtected();
+        return node.response;
+    }
+
+    public synchronized long getBytes() {
+        return this.windowBytes + this.probationBytes + this.protectedBytes;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized int getSize() {
+        return this.window.size() + this.probation.size() + this.protectedSegment.size();
+    }
+
+    public synchronized void put(String key, CachedResponse response) {
+        this.remove(key);
+
+        Node node = new Node(response, response.getWeight(key));
+        if (node.weight > this.maxBytes - this.windowMaxBytes) {
+            // never evict the whole cache for a single response
+            return;
+        }
+
+        this.window.put(key, node);
+        this.windowBytes += node.weight;
+
+        while (this.windowBytes > this.windowMaxBytes) {
+            Entry<String, Node> candidate = eldest(this.window);
+            this.window.remove(candidate.getKey());
+            this.windowBytes -= candidate.getValue().weight;
+            this.admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public synchronized void remove(String key) {
+        Node node = this.window.remove(key);
+        if (node != null) {
+            this.windowBytes -= node.weight;
+            return;
+        }
+
+        node = this.probation.remove(key);
+        if (node != null) {
+            this.probationBytes -= node.weight;
+            return;
+        }
+
+        node = this.protectedSegment.remove(key);
+        if (node != null) {
+            this.protectedBytes -= node.weight;
+        }
+    }
+
+    private void admit(String key, Node candidate) {
+        long mainMaxBytes = this.maxBytes - this.windowMaxBytes;
+        int candidateFrequency = this.sketch.frequency(key);
+
+        while (this.probationBytes + this.protectedBytes + candidate.weight > mainMaxBytes) {
+            Map<String, Node> segment = this.probation.isEmpty() ? this.protectedSegment : this.probation;
+            Entry<String, Node> victim = eldest(segment);
+
+            this.evictions++;
+            if (candidateFrequency <= this.sketch.frequency(victim.getKey())) {
+                return;
+            }
+
+            segment.remove(victim.getKey());
+            if (segment == this.probation) {
+                this.probationBytes -= victim.getValue().weight;
+            } else {
+                this.protectedBytes -= victim.getValue().weight;
+            }
+        }
+
+        this.probation.put(key, candidate);
+        this.probationBytes += candidate.weight;
+    }
+
+    private void demoteProtected() {
+        while (this.protectedBytes > this.protectedMaxBytes) {
+            Entry<String, Node> eldest = eldest(this.protectedSegment);
+            this.protectedSegment.remove(eldest.getKey());
+            this.protectedBytes -= eldest.getValue().weight;
+            this.probation.put(eldest.getKey(), eldest.getValue());
+            this.probationBytes += eldest.getValue().weight;
+        }
+    }
+
+    private static final class Node {
+
+        private final CachedResponse response;
+        private final int weight;
+
+        Node(CachedResponse response, int weight) {
+            this.response = response;
+            this.weight = weight;
+        }
+    }
+}
@@ -16,27 +16,87 @@
  */
 package com.indoqa.boot.json.transformer;
 
+import static org.apache.commons.lang3.StringUtils.abbreviate;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.indoqa.boot.actuate.metrics.Metric;
+import com.indoqa.boot.actuate.metrics.PublicMetrics;
 
 /**
  * This base implementation of a {@link JsonTransformer} uses Jackson. It provides a template method {@link #configure()} for custom
  * configurations. The {@link #render(Object)} method returns an empty string if the passed Java object is null. This avoids usually
- * unwanted 404 responses.
+ * unwanted 404 responses.<br>
+ * {@link #write(Object, OutputStream)} serializes directly into the output stream. Jackson's UTF-8 generator encodes into a recycled
+ * byte buffer, so neither a JSON string nor a byte array of the whole response is created.<br>
+ * The object writers and readers are cached per type (and JSON view). Changes of the object mapper configuration after
+ * {@link #configure()} are not applied to them. The cache statistics are provided via the {@link PublicMetrics} interface.<br>
+ * Binary {@link DataFormat}s are supported if the corresponding Jackson data format module is on the classpath. They use a copy of the
+ * configured object mapper.<br>
+ * {@link #writeSequence(Iterator, OutputStream, DataFormat, boolean, int)} uses a single generator for all elements and flushes it
+ * only after every <code>flushInterval</code> elements.<br>
+ * {@link #select(String)} returns a transformer that only writes the selected fields. It uses a copy of the object mapper with a
+ * property filter assigned to all types, so the rendering of complete objects is not slowed down. Parsed field selectors are kept in a
+ * bounded LRU cache.
  */
-public abstract class AbstractJacksonTransformer implements JsonTransformer {
+public abstract class AbstractJacksonTransformer implements JsonTransformer, PublicMetrics {
+
+    // error messages must not contain multi-MB request bodies
+    private static final int MAX_JSON_IN_ERROR_MESSAGE = 256;
+    private static final String NEWLINE = "\n";
+    private static final int MAX_FIELD_SELECTIONS = 1000;
 
     protected ObjectMapper objectMapper;
 
+    private final ObjectMapperCache cache;
+    private final Map<DataFormat, Optional<ObjectMapperCache>> formatCaches = new ConcurrentHashMap<>();
+    private final Map<DataFormat, ObjectMapperCache> filteringCaches = new ConcurrentHashMap<>();
+    private final FieldSelectionCache fieldSelections = new FieldSelectionCache(MAX_FIELD_SELECTIONS);
+
     public AbstractJacksonTransformer() {
         this.objectMapper = new ObjectMapper();
         this.configure();
+        this.cache = new ObjectMapperCache(this.objectMapper);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> result = new ArrayList<>(this.cache.metrics("json.transformer"));
+        result.addAll(this.fieldSelections.metrics("json.transformer.field-selections"));
+        return result;
     }
 
     @Override
     public String render(Object model) {
+        return this.render(model, null);
+    }
+
+    /**
+     * Render the model with the passed JSON view, see {@link com.fasterxml.jackson.annotation.JsonView}.
+     *
+     * @param model The model to be rendered.
+     * @param view The JSON view or null to render all properties.
+     * @return The JSON string or an empty string if the model is null.
+     */
+    public String render(Object model, Class<?> view) {
         // a NULL model means "no content", but we must return an empty String or Spark will assume the call was unsuccessful and
         // create a 404 response
         if (model == null) {
@@ -44,27 +104,285 @@ public abstract class AbstractJacksonTransformer implements JsonTransformer {
         }
 
         try {
-            return this.objectMapper.writeValueAsString(model);
+            return this.cache.getWriter(model.getClass(), view).writeValueAsString(model);
         } catch (JsonProcessingException e) {
             throw new JsonTransformerException("Can't marshal object as JSON string.", e);
         }
     }
 
+    /**
+     * Get a transformer that only writes the selected fields. Unmarshalling is delegated to this transformer.
+     *
+     * @param fields The field selector, e.g. <code>id,name,address(street,city),owner.name</code>.
+     * @return The transformer for the selected fields.
+     * @throws IllegalArgumentException If the field selector is invalid.
+     */
+    @Override
+    public JsonTransformer select(String fields) {
+        return new FieldSelectingTransformer(this.fieldSelections.get(fields));
+    }
+
+    @Override
+    public void write(Object model, OutputStream outputStream) throws IOException {
+        this.write(model, outputStream, DataFormat.JSON);
+    }
+
+    @Override
+    public void writeSequence(Iterator<?> elements, OutputStream outputStream, DataFormat format, boolean newlineDelimited,
+        int flushInterval) throws IOException {
+        this.writeSequence(elements, outputStream, format, newlineDelimited, flushInterval, null);
+    }
+
     @Override
     public <T> T toObject(String json, Class<T> type) {
         try {
-            return this.objectMapper.readValue(json, type);
+            return this.cache.getReader(type).readValue(json);
+        } catch (IOException e) {
+            throw new JsonTransformerException(
+                "Can't unmarshal object from JSON string:\n" + abbreviate(json, MAX_JSON_IN_ERROR_MESSAGE), e);
+        }
+    }
+
+    @Override
+    public <T> T toObject(byte[] json, Class<T> type) {
+        try {
+            return this.cache.getReader(type).readValue(json);
+        } catch (IOException e) {
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getName() + " from JSON bytes.", e);
+        }
+    }
+
+    @Override
+    public <T> T toObject(byte[] json, TypeReference<T> type) {
+        try {
+            return this.cache.getReader(type).readValue(json);
+        } catch (IOException e) {
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getType() + " from JSON bytes.", e);
+        }
+    }
+
+    @Override
+    public <T> T toObject(InputStream json, Class<T> type) {
+        try {
+            return this.cache.getReader(type).readValue(json);
         } catch (IOException e) {
-            throw new JsonTransformerException("Can't unmarshal object from JSON string:\n" + json, e);
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getName() + " from JSON stream.", e);
+        }
+    }
+
+    @Override
+    public <T> T toObject(InputStream json, TypeReference<T> type) {
+        try {
+            return this.cache.getReader(type).readValue(json);
+        } catch (IOException e) {
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getType() + " from JSON stream.", e);
+        }
+    }
+
+    @Override
+    public boolean supports(DataFormat format) {
+        return this.getCache(format).isPresent();
+    }
+
+    @Override
+    public void write(Object model, OutputStream outputStream, DataFormat format) throws IOException {
+        this.write(model, outputStream, format, null);
+    }
+
+    @Override
+    public <T> T toObject(InputStream input, Class<T> type, DataFormat format) {
+        try {
+            return this.getSupportedCache(format).getReader(type).readValue(input);
+        } catch (IOException e) {
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getName() + " from " + format + " stream.", e);
+        }
+    }
+
+    @Override
+    public <T> T toObject(InputStream input, TypeReference<T> type, DataFormat format) {
+        try {
+            return this.getSupportedCache(format).getReader(type).readValue(input);
+        } catch (IOException e) {
+            throw new JsonTransformerException("Can't unmarshal object of type " + type.getType() + " from " + format + " stream.", e);
         }
     }
 
     protected abstract void configure();
 
+    private Optional<ObjectMapperCache> createCache(DataFormat format) {
+        JsonFactory factory = format.createFactory();
+        if (factory == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ObjectMapperCache(this.objectMapper.copyWith(factory)));
+    }
+
+    private Optional<ObjectMapperCache> getCache(DataFormat format) {
+        if (format == DataFormat.JSON) {
+            return Optional.of(this.cache);
+        }
+        return this.formatCaches.computeIfAbsent(format, this::createCache);
+    }
+
+    private ObjectMapperCache getFilteringCache(DataFormat format) {
+        return this.filteringCaches.computeIfAbsent(
+            format,
+            key -> new ObjectMapperCache(FieldSelectionFilter.createFilteringMapper(this.getSupportedCache(key).getObjectMapper())));
+    }
+
+    private ObjectMapperCache getSupportedCache(DataFormat format) {
+        return this.getCache(format)
+            .orElseThrow(
+                () -> new UnsupportedOperationException("The Jackson data format module for " + format + " is not available."));
+    }
+
+    private ObjectWriter getWriter(DataFormat format, Class<?> type, FilterProvider filters) {
+        if (filters == null) {
+            return this.getSupportedCache(format).getWriter(type);
+        }
+        return this.getFilteringCache(format).getWriter(type).with(filters);
+    }
+
+    private String renderSelected(Object model, FilterProvider filters) {
+        if (model == null) {
+            return "";
+        }
+
+        try {
+            return this.getWriter(DataFormat.JSON, model.getClass(), filters).writeValueAsString(model);
+        } catch (JsonProcessingException e) {
+            throw new JsonTransformerException("Can't marshal object as JSON string.", e);
+        }
+    }
+
+    private void write(Object model, OutputStream outputStream, DataFormat format, FilterProvider filters) throws IOException {
+        if (model == null) {
+            return;
+        }
+
+        try {
+            this.getWriter(format, model.getClass(), filters).writeValue(outputStream, model);
+        } catch (JsonProcessingException e) {
+            throw new JsonTransformerException("Can't marshal object as " + format + " stream.", e);
+        }
+    }
+
+    private void writeSequence(Iterator<?> elements, OutputStream outputStream, DataFormat format, boolean newlineDelimited,
+        int flushInterval, FilterProvider filters) throws IOException {
+        if (newlineDelimited && format != DataFormat.JSON) {
+            throw new UnsupportedOperationException("Newline-delimited output is not supported for " + format + ".");
+        }
+
+        // Jackson flushes after every value by default, that would send a chunk per element
+        ObjectWriter writer = this.getWriter(format, Object.class, filters).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        if (newlineDelimited) {
+            writer = writer.withRootValueSeparator(NEWLINE);
+        }
+
+        int count = 0;
+        // the sequence writer doesn't close a passed generator, the generator doesn't close the output stream
+        try (JsonGenerator generator = writer.createGenerator(outputStream);
+            SequenceWriter sequenceWriter = newlineDelimited ? writer.writeValues(generator) : writer.writeValuesAsArray(generator)) {
+            while (elements.hasNext()) {
+                sequenceWriter.write(elements.next());
+                if (++count % flushInterval == 0) {
+                    sequenceWriter.flush();
+                }
+            }
+
+            if (newlineDelimited && count > 0) {
+                // the root value separator is only written between the elements
+                generator.writeRaw(NEWLINE);
+            }
+        } catch (JsonProcessingException e) {
+            throw new JsonTransformerException("Can't marshal element " + count + " as " + format + " stream.", e);
+        }
+    }
+
     protected ObjectMapper getObjectMapper() {
         return this.objectMapper;
     }
 
+    /**
+     * Writes only the selected fields and delegates unmarshalling to the enclosing transformer.
+     */
+    private class FieldSelectingTransformer implements JsonTransformer {
+
+        private final FilterProvider filters;
+
+        FieldSelectingTransformer(FilterProvider filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        public String render(Object model) {
+            return AbstractJacksonTransformer.this.renderSelected(model, this.filters);
+        }
+
+        @Override
+        public JsonTransformer select(String fields) {
+            return AbstractJacksonTransformer.this.select(fields);
+        }
+
+        @Override
+        public boolean supports(DataFormat format) {
+            return AbstractJacksonTransformer.this.supports(format);
+        }
+
+        @Override
+        public <T> T toObject(byte[] json, Class<T> type) {
+            return AbstractJacksonTransformer.this.toObject(json, type);
+        }
+
+        @Override
+        public <T> T toObject(byte[] json, TypeReference<T> type) {
+            return AbstractJacksonTransformer.this.toObject(json, type);
+        }
+
+        @Override
+        public <T> T toObject(InputStream json, Class<T> type) {
+            return AbstractJacksonTransformer.this.toObject(json, type);
+        }
+
+        @Override
+        public <T> T toObject(InputStream input, Class<T> type, DataFormat format) {
+            return AbstractJacksonTransformer.this.toObject(input, type, format);
+        }
+
+        @Override
+        public <T> T toObject(InputStream json, TypeReference<T> type) {
+            return AbstractJacksonTransformer.this.toObject(json, type);
+        }
+
+        @Override
+        public <T> T toObject(InputStream input, TypeReference<T> type, DataFormat format) {
+            return AbstractJacksonTransformer.this.toObject(input, type, format);
+        }
+
+        @Override
+        public <T> T toObject(String json, Class<T> type) {
+            return AbstractJacksonTransformer.this.toObject(json, type);
+        }
+
+        @Override
+        public void write(Object model, OutputStream outputStream) throws IOException {
+            AbstractJacksonTransformer.this.write(model, outputStream, DataFormat.JSON, this.filters);
+        }
+
+        @Override
+        public void write(Object model, OutputStream outputStream, DataFormat format) throws IOException {
+            AbstractJacksonTransformer.this.write(model, outputStream, format, this.filters);
+        }
+
+        @Override
+        public void writeSequence(Iterator<?> elements, OutputStream outputStream, DataFormat format, boolean newlineDelimited,
+            int flushInterval) throws IOException {
+            AbstractJacksonTransformer.this
+                .writeSequence(elements, outputStream, format, newlineDelimited, flushInterval, this.filters);
+        }
+    }
+
     public static class JsonTransformerException extends RuntimeException {
 
         private static final long serialVersionUID = 1L;
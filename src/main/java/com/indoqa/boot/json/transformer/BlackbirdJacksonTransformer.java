@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import com.fasterxml.jackson.databind.Module;
+import com.indoqa.boot.ApplicationInitializationException;
+
+/**
+ * A {@link JacksonTransformer} that registers Jackson's Blackbird module, which replaces reflection based property access with
+ * generated lambdas. Use it by overriding <code>getJsonTransformerClass</code> of the application. The module is an optional
+ * dependency and has to be added to the application:
+ *
+ * <pre>
+ * &lt;dependency&gt;
+ *   &lt;groupId&gt;com.fasterxml.jackson.module&lt;/groupId&gt;
+ *   &lt;artifactId&gt;jackson-module-blackbird&lt;/artifactId&gt;
+ * &lt;/dependency&gt;
+ * </pre>
+ */
+public class BlackbirdJacksonTransformer extends JacksonTransformer {
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    /*default*/ static Module createBlackbirdModule() {
+        try {
+            return Class.forName(BLACKBIRD_MODULE).asSubclass(Module.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new ApplicationInitializationException(
+                "The Jackson Blackbird module (com.fasterxml.jackson.module:jackson-module-blackbird) is not available.",
+                e);
+        }
+    }
+
+    @Override
+    protected void configure() {
+        super.configure();
+        this.objectMapper.registerModule(createBlackbirdModule());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static org.apache.commons.lang3.StringUtils.substringBefore;
+import static org.apache.commons.lang3.StringUtils.trim;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * The data formats supported by the {@link AbstractJacksonTransformer}. All formats except JSON require the corresponding Jackson
+ * data format module on the classpath.
+ */
+public enum DataFormat {
+
+    JSON("json", "application/json", null),
+    SMILE("smile", "application/x-jackson-smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+    CBOR("cbor", "application/cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+    MESSAGE_PACK("msgpack", "application/x-msgpack", "org.msgpack.jackson.dataformat.MessagePackFactory");
+
+    private final String name;
+    private final String contentType;
+    private final String factoryClassName;
+
+    DataFormat(String name, String contentType, String factoryClassName) {
+        this.name = name;
+        this.contentType = contentType;
+        this.factoryClassName = factoryClassName;
+    }
+
+    /**
+     * Find the data format by its name, e.g. <code>cbor</code>.
+     *
+     * @param name The name of the data format.
+     * @return The data format or null if there is no data format with this name.
+     */
+    public static DataFormat forName(String name) {
+        for (DataFormat format : values()) {
+            if (format.name.equalsIgnoreCase(trim(name))) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the data format of a <code>Content-Type</code> header. Parameters like the charset are ignored.
+     *
+     * @param contentType The value of the <code>Content-Type</code> header.
+     * @return The data format or null if the content type doesn't belong to any data format.
+     */
+    public static DataFormat forContentType(String contentType) {
+        String mimeType = trim(substringBefore(contentType, ";"));
+        for (DataFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(mimeType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Create the Jackson factory of this data format.
+     *
+     * @return The factory or null if the data format module is not on the classpath.
+     */
+    /*default*/ JsonFactory createFactory() {
+        if (this.factoryClassName == null) {
+            return new JsonFactory();
+        }
+
+        try {
+            return Class.forName(this.factoryClassName).asSubclass(JsonFactory.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
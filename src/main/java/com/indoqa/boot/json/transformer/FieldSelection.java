@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A parsed field selector, e.g. <code>id,name,address(street,city),owner.name</code>. Fields are separated by commas, nested fields
+ * are selected either with dots or with parentheses. Selecting a field without nested fields selects it completely.
+ */
+/*default*/ final class FieldSelection {
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    // null means that all fields are selected
+    private final Map<String, FieldSelection> children;
+
+    private FieldSelection(Map<String, FieldSelection> children) {
+        this.children = children;
+    }
+
+    public static FieldSelection parse(String selector) {
+        FieldSelection result = new FieldSelection(new HashMap<>());
+
+        int end = parseList(selector, 0, result);
+        if (end != selector.length()) {
+            throw invalid(selector, end);
+        }
+
+        return result;
+    }
+
+    private static IllegalArgumentException invalid(String selector, int position) {
+        return new IllegalArgumentException("The field selection '" + selector + "' is invalid at position " + position + ".");
+    }
+
+    private static boolean isAt(String selector, int position, char expected) {
+        return position < selector.length() && selector.charAt(position) == expected;
+    }
+
+    /**
+     * Parse a comma-separated list of fields into the target.
+     *
+     * @return The position after the list, i.e. the end of the selector or a closing parenthesis.
+     */
+    private static int parseList(String selector, int start, FieldSelection target) {
+        int position = start;
+
+        while (true) {
+            FieldSelection parent = target;
+            String name = null;
+
+            // a path of dot-separated names
+            while (true) {
+                int nameEnd = scanName(selector, position);
+                name = selector.substring(position, nameEnd).trim();
+                if (name.isEmpty()) {
+                    throw invalid(selector, position);
+                }
+
+                position = nameEnd;
+                if (!isAt(selector, position, '.')) {
+                    break;
+                }
+
+                parent = parent.addChild(name);
+                position++;
+            }
+
+            if (isAt(selector, position, '(')) {
+                position = parseList(selector, position + 1, parent.addChild(name));
+                if (!isAt(selector, position, ')')) {
+                    throw invalid(selector, position);
+                }
+                position++;
+            } else {
+                parent.selectAll(name);
+            }
+
+            if (!isAt(selector, position, ',')) {
+                return position;
+            }
+            position++;
+        }
+    }
+
+    private static int scanName(String selector, int start) {
+        for (int i = start; i < selector.length(); i++) {
+            char c = selector.charAt(i);
+            if (c == ',' || c == '.' || c == '(' || c == ')') {
+                return i;
+            }
+        }
+        return selector.length();
+    }
+
+    /**
+     * Get the selection of the nested fields of the passed field.
+     *
+     * @param name The name of the field.
+     * @return The nested selection or null if the field is not selected.
+     */
+    public FieldSelection get(String name) {
+        if (this.children == null) {
+            return ALL;
+        }
+        return this.children.get(name);
+    }
+
+    public boolean isAll() {
+        return this.children == null;
+    }
+
+    public boolean isSelected(String name) {
+        return this.children == null || this.children.containsKey(name);
+    }
+
+    private FieldSelection addChild(String name) {
+        if (this.children == null) {
+            // all nested fields are selected anyway
+            return this;
+        }
+
+        FieldSelection child = this.children.computeIfAbsent(name, key -> new FieldSelection(new HashMap<>()));
+        if (child.isAll()) {
+            return ALL;
+        }
+        return child;
+    }
+
+    private void selectAll(String name) {
+        if (this.children != null) {
+            this.children.put(name, ALL);
+        }
+    }
+}
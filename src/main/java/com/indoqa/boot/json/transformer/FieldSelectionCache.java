@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.indoqa.boot.actuate.metrics.Metric;
+
+/**
+ * A bounded LRU cache of the filter providers for field selectors. Clients usually send the same few selectors, so they are parsed
+ * only once.
+ */
+/*default*/ final class FieldSelectionCache {
+
+    private final Map<String, FilterProvider> filterProviders;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    FieldSelectionCache(int maxSize) {
+        this.filterProviders = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FilterProvider> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    private static FilterProvider createFilterProvider(String selector) {
+        return new SimpleFilterProvider()
+            .addFilter(FieldSelectionFilter.ID, new FieldSelectionFilter(FieldSelection.parse(selector)))
+            .setFailOnUnknownId(false);
+    }
+
+    /**
+     * Get the filter provider for the passed selector.
+     *
+     * @param selector The field selector.
+     * @return The filter provider.
+     * @throws IllegalArgumentException If the selector is invalid.
+     */
+    public FilterProvider get(String selector) {
+        this.lookups.increment();
+
+        synchronized (this.filterProviders) {
+            FilterProvider result = this.filterProviders.get(selector);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // parse outside the lock, concurrent misses for the same selector produce equal results
+        this.misses.increment();
+        FilterProvider result = createFilterProvider(selector);
+        synchronized (this.filterProviders) {
+            this.filterProviders.put(selector, result);
+        }
+        return result;
+    }
+
+    public List<Metric<?>> metrics(String prefix) {
+        List<Metric<?>> result = new ArrayList<>();
+        synchronized (this.filterProviders) {
+            result.add(new Metric<>(prefix + ".size", this.filterProviders.size()));
+        }
+        result.add(new Metric<>(prefix + ".hits", this.lookups.sum() - this.misses.sum()));
+        return result;
+    }
+}
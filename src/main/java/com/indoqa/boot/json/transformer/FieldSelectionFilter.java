@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+/**
+ * A Jackson property filter that only writes the fields of a {@link FieldSelection}. The position of a property within the selection
+ * is derived from the output context of the generator, so the filter works for nested beans, maps and arrays without knowing the
+ * types in advance.
+ */
+/*default*/ final class FieldSelectionFilter extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "indoqa-boot.field-selection";
+
+    private final FieldSelection selection;
+
+    FieldSelectionFilter(FieldSelection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Assign the filter to all types of a copy of the passed object mapper. The filter has to be provided by every writer of the
+     * copy.
+     *
+     * @param objectMapper The object mapper.
+     * @return The copy with the filter assigned to all types.
+     */
+    public static ObjectMapper createFilteringMapper(ObjectMapper objectMapper) {
+        return objectMapper.copy().addMixIn(Object.class, FilterMixIn.class);
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer)
+        throws Exception {
+        FieldSelection current = this.resolve(generator.getOutputContext());
+        if (current == null || current.isSelected(writer.getName())) {
+            writer.serializeAsField(pojo, generator, provider);
+        } else if (!generator.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, generator, provider);
+        }
+    }
+
+    /**
+     * Find the selection of the object or array that is written in the passed context.
+     */
+    private FieldSelection resolve(JsonStreamContext context) {
+        JsonStreamContext parent = context.getParent();
+        if (parent == null || parent.inRoot()) {
+            return this.selection;
+        }
+
+        FieldSelection parentSelection = this.resolve(parent);
+        if (parentSelection == null || parent.inArray()) {
+            // the elements of an array share its selection
+            return parentSelection;
+        }
+        return parentSelection.get(parent.getCurrentName());
+    }
+
+    @JsonFilter(ID)
+    private abstract static class FilterMixIn {
+
+        // only carries the annotation
+    }
+}
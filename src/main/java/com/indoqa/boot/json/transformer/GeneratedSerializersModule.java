@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.*;
+
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.json.processor.IndoqaJsonProcessor;
+
+/**
+ * Registers the serializers and deserializers that were generated by the {@link IndoqaJsonProcessor} for
+ * {@link com.indoqa.boot.json.annotation.IndoqaJson} beans. They are read from all indexes
+ * ({@link IndoqaJsonProcessor#INDEX_LOCATION}) on the classpath.
+ * <p>
+ * A generated serializer is only used if it writes the same Json as Jackson's bean serializer with the configuration of the object
+ * mapper. Jackson falls back to its bean serializer for subclasses of the annotated classes, property filters (e.g. field selection),
+ * <code>MapperFeature.DEFAULT_VIEW_INCLUSION</code> disabled, inclusion rules other than <code>ALWAYS</code> and
+ * <code>NON_NULL</code>, and if the introspected properties differ from the generated ones (e.g. because of a naming strategy or
+ * mix-in annotations).
+ * </p>
+ */
+/*default*/ final class GeneratedSerializersModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = getLogger(GeneratedSerializersModule.class);
+    private static final String NO_DESERIALIZER = "-";
+
+    private final GeneratedSerializers generatedSerializers = new GeneratedSerializers();
+    private int count;
+
+    GeneratedSerializersModule(ClassLoader classLoader) {
+        super(GeneratedSerializersModule.class.getSimpleName());
+        this.setSerializers(this.generatedSerializers);
+
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(IndoqaJsonProcessor.INDEX_LOCATION);
+            while (indexes.hasMoreElements()) {
+                this.readIndex(classLoader, indexes.nextElement());
+            }
+        } catch (IOException e) {
+            throw new ApplicationInitializationException("Can't read the indexes of generated JSON serializers.", e);
+        }
+
+        if (this.count > 0) {
+            LOGGER.info("Registered generated JSON serializers for {} classes.", this.count);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void register(ClassLoader classLoader, String[] entry) throws ReflectiveOperationException {
+        Class type = Class.forName(entry[0], false, classLoader);
+        Class<?> serializerType = Class.forName(entry[1], true, classLoader);
+        String[] propertyNames = (String[]) serializerType.getField(IndoqaJsonProcessor.PROPERTY_NAMES).get(null);
+
+        this.generatedSerializers.addSerializer(type, (JsonSerializer) serializerType.getDeclaredConstructor().newInstance());
+        this.generatedSerializers.propertyNames.put(type, Arrays.asList(propertyNames));
+        if (!NO_DESERIALIZER.equals(entry[2])) {
+            Class<?> deserializerType = Class.forName(entry[2], true, classLoader);
+            this.addDeserializer(type, (JsonDeserializer) deserializerType.getDeclaredConstructor().newInstance());
+        }
+        this.count++;
+    }
+
+    private void readIndex(ClassLoader classLoader, URL index) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] entry = line.trim().split(" ");
+                if (entry.length != 3) {
+                    continue;
+                }
+
+                try {
+                    this.register(classLoader, entry);
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    // the index can be outdated after incremental compilations
+                    LOGGER.warn("Can't register the generated JSON serializers for {}: {}", entry[0], e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class GeneratedSerializers extends SimpleSerializers {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<Class<?>, List<String>> propertyNames = new HashMap<>();
+
+        private static boolean isSupported(Include inclusion) {
+            return inclusion == Include.ALWAYS || inclusion == Include.NON_NULL || inclusion == Include.USE_DEFAULTS;
+        }
+
+        @Override
+        public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+            // SimpleSerializers also returns the serializer of a superclass
+            List<String> expectedNames = this.propertyNames.get(type.getRawClass());
+            if (expectedNames == null || !this.isEquivalent(config, beanDesc, expectedNames)) {
+                return null;
+            }
+            return super.findSerializer(config, type, beanDesc);
+        }
+
+        private boolean isEquivalent(SerializationConfig config, BeanDescription beanDesc, List<String> expectedNames) {
+            if (config.getAnnotationIntrospector().findFilterId(beanDesc.getClassInfo()) != null) {
+                return false;
+            }
+            if (!config.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION)) {
+                return false;
+            }
+
+            // the generated serializer only evaluates the default value inclusion of the object mapper, the content inclusion is
+            // applied by the serializers of the property values
+            if (!isSupported(config.getDefaultPropertyInclusion(beanDesc.getBeanClass()).getValueInclusion())
+                || !beanDesc.findPropertyInclusion(JsonInclude.Value.empty()).equals(JsonInclude.Value.empty())) {
+                return false;
+            }
+
+            List<String> names = new ArrayList<>();
+            for (BeanPropertyDefinition property : beanDesc.findProperties()) {
+                if (!property.hasGetter()) {
+                    continue;
+                }
+                if (property.findViews() != null || !property.findInclusion().equals(JsonInclude.Value.empty())) {
+                    return false;
+                }
+                names.add(property.getName());
+            }
+            return names.equals(expectedNames);
+        }
+    }
+}
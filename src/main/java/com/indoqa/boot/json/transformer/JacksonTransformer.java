@@ -18,13 +18,17 @@ package com.indoqa.boot.json.transformer;
 
 import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
 
+import org.springframework.util.ClassUtils;
+
 /**
- * The default implementation of a {@link JsonTransformer}.
+ * The default implementation of a {@link JsonTransformer}. It registers the serializers that were generated for
+ * {@link com.indoqa.boot.json.annotation.IndoqaJson} beans.
  */
 public class JacksonTransformer extends AbstractJacksonTransformer {
 
     @Override
     protected void configure() {
         this.objectMapper.configure(WRITE_DATES_AS_TIMESTAMPS, false);
+        this.objectMapper.registerModule(new GeneratedSerializersModule(ClassUtils.getDefaultClassLoader()));
     }
 }
@@ -16,6 +16,18 @@
  */
 package com.indoqa.boot.json.transformer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import spark.ResponseTransformer;
 
 /**
@@ -27,4 +39,212 @@ public interface JsonTransformer extends ResponseTransformer {
     String render(Object model);
 
     <T> T toObject(String json, Class<T> type);
+
+    /**
+     * Unmarshal a Java object from UTF-8 encoded JSON. This default implementation creates a string first.
+     *
+     * @param json The JSON bytes.
+     * @param type The type of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     */
+    default <T> T toObject(byte[] json, Class<T> type) {
+        return this.toObject(new String(json, UTF_8), type);
+    }
+
+    /**
+     * Unmarshal a Java object from a stream of UTF-8 encoded JSON. The input stream is not closed. This default implementation reads
+     * the whole stream into a string first.
+     *
+     * @param json The JSON stream.
+     * @param type The type of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     */
+    default <T> T toObject(InputStream json, Class<T> type) {
+        try {
+            return this.toObject(json.readAllBytes(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read JSON stream.", e);
+        }
+    }
+
+    /**
+     * Unmarshal a generic Java object (e.g. a <code>List&lt;MyDto&gt;</code>) from UTF-8 encoded JSON. This default implementation
+     * only supports type references of non-generic classes and delegates to {@link #toObject(byte[], Class)}.
+     *
+     * @param json The JSON bytes.
+     * @param type The type reference of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     * @throws UnsupportedOperationException If the type reference refers to a generic type.
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T toObject(byte[] json, TypeReference<T> type) {
+        if (!(type.getType() instanceof Class)) {
+            throw new UnsupportedOperationException(
+                "The generic type " + type.getType() + " is not supported by " + this.getClass() + ".");
+        }
+        return this.toObject(json, (Class<T>) type.getType());
+    }
+
+    /**
+     * Unmarshal a generic Java object (e.g. a <code>List&lt;MyDto&gt;</code>) from a stream of UTF-8 encoded JSON. The input stream
+     * is not closed. This default implementation reads the whole stream into a byte array first.
+     *
+     * @param json The JSON stream.
+     * @param type The type reference of the Java object.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     */
+    default <T> T toObject(InputStream json, TypeReference<T> type) {
+        try {
+            return this.toObject(json.readAllBytes(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read JSON stream.", e);
+        }
+    }
+
+    /**
+     * Write the JSON representation of the model as UTF-8 to the passed output stream. Nothing is written if the model is null. The
+     * output stream is not closed.<br>
+     * This default implementation renders a string first, implementations should override it to write directly to the stream.
+     *
+     * @param model The model to be written.
+     * @param outputStream The target output stream.
+     * @throws IOException If writing to the output stream fails.
+     */
+    default void write(Object model, OutputStream outputStream) throws IOException {
+        if (model == null) {
+            return;
+        }
+        outputStream.write(this.render(model).getBytes(UTF_8));
+    }
+
+    /**
+     * Write the elements incrementally to the output stream, either as array or, if <code>newlineDelimited</code> is set, as
+     * newline-delimited JSON (one element per line). Only the element that is currently written has to be in memory. The output
+     * stream is flushed after every <code>flushInterval</code> elements and is not closed.<br>
+     * This default implementation renders every JSON element as string first. Other data formats are collected into a list that is
+     * passed to {@link #write(Object, OutputStream, DataFormat)}.
+     *
+     * @param elements The elements to be written.
+     * @param outputStream The target output stream.
+     * @param format The data format. Newline-delimited output is only supported for JSON.
+     * @param newlineDelimited True to write newline-delimited JSON instead of an array.
+     * @param flushInterval The number of elements after which the output stream is flushed.
+     * @throws IOException If writing to the output stream fails.
+     */
+    default void writeSequence(Iterator<?> elements, OutputStream outputStream, DataFormat format, boolean newlineDelimited,
+        int flushInterval) throws IOException {
+        if (format != DataFormat.JSON) {
+            if (newlineDelimited) {
+                throw new UnsupportedOperationException("Newline-delimited output is not supported for " + format + ".");
+            }
+
+            List<Object> list = new ArrayList<>();
+            elements.forEachRemaining(list::add);
+            this.write(list, outputStream, format);
+            return;
+        }
+
+        if (!newlineDelimited) {
+            outputStream.write('[');
+        }
+
+        int count = 0;
+        while (elements.hasNext()) {
+            if (count > 0 && !newlineDelimited) {
+                outputStream.write(',');
+            }
+            outputStream.write(this.render(elements.next()).getBytes(UTF_8));
+            if (newlineDelimited) {
+                outputStream.write('\n');
+            }
+            if (++count % flushInterval == 0) {
+                outputStream.flush();
+            }
+        }
+
+        if (!newlineDelimited) {
+            outputStream.write(']');
+        }
+    }
+
+    /**
+     * Get a transformer that only writes the selected fields of the models, e.g. for partial responses. Transformers that don't
+     * support field selection return themselves and write all fields.
+     *
+     * @param fields The field selector, e.g. <code>id,name,address(street,city),owner.name</code>.
+     * @return The transformer for the selected fields.
+     * @throws IllegalArgumentException If the field selector is invalid.
+     */
+    default JsonTransformer select(String fields) {
+        return this;
+    }
+
+    /**
+     * Find out if this transformer supports the passed data format.
+     *
+     * @param format The data format.
+     * @return True if {@link #write(Object, OutputStream, DataFormat)} and {@link #toObject(InputStream, Class, DataFormat)} can be
+     *         used with the data format.
+     */
+    default boolean supports(DataFormat format) {
+        return format == DataFormat.JSON;
+    }
+
+    /**
+     * Write the model in the passed data format to the output stream. Nothing is written if the model is null. The output stream is
+     * not closed.<br>
+     * This default implementation only supports JSON and delegates to {@link #write(Object, OutputStream)}.
+     *
+     * @param model The model to be written.
+     * @param outputStream The target output stream.
+     * @param format The data format.
+     * @throws IOException If writing to the output stream fails.
+     * @throws UnsupportedOperationException If the data format is not supported by this transformer.
+     */
+    default void write(Object model, OutputStream outputStream, DataFormat format) throws IOException {
+        this.checkSupported(format);
+        this.write(model, outputStream);
+    }
+
+    /**
+     * Unmarshal a Java object from a stream in the passed data format. The input stream is not closed.<br>
+     * This default implementation only supports JSON and delegates to {@link #toObject(InputStream, Class)}.
+     *
+     * @param input The input stream.
+     * @param type The type of the Java object.
+     * @param format The data format.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     * @throws UnsupportedOperationException If the data format is not supported by this transformer.
+     */
+    default <T> T toObject(InputStream input, Class<T> type, DataFormat format) {
+        this.checkSupported(format);
+        return this.toObject(input, type);
+    }
+
+    /**
+     * Unmarshal a generic Java object from a stream in the passed data format. The input stream is not closed.<br>
+     * This default implementation only supports JSON and delegates to {@link #toObject(InputStream, TypeReference)}.
+     *
+     * @param input The input stream.
+     * @param type The type reference of the Java object.
+     * @param format The data format.
+     * @param <T> The type of the Java object.
+     * @return The Java object.
+     * @throws UnsupportedOperationException If the data format is not supported by this transformer.
+     */
+    default <T> T toObject(InputStream input, TypeReference<T> type, DataFormat format) {
+        this.checkSupported(format);
+        return this.toObject(input, type);
+    }
+
+    private void checkSupported(DataFormat format) {
+        if (format != DataFormat.JSON) {
+            throw new UnsupportedOperationException("The data format " + format + " is not supported by " + this.getClass() + ".");
+        }
+    }
 }
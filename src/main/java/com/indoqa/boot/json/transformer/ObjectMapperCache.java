@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.indoqa.boot.actuate.metrics.Metric;
+
+/**
+ * Caches preconfigured {@link ObjectWriter}s and {@link ObjectReader}s per type (and per JSON view) of an {@link ObjectMapper}, so
+ * that the root serializers and deserializers are resolved only once.<br>
+ * The factory of the object mapper is configured to leave output targets and input sources open
+ * ({@link com.fasterxml.jackson.core.JsonGenerator.Feature#AUTO_CLOSE_TARGET} and
+ * {@link com.fasterxml.jackson.core.JsonParser.Feature#AUTO_CLOSE_SOURCE} are disabled), so that callers can continue to write to
+ * or read from servlet streams. This also applies to writers and readers that are created by the object mapper directly.
+ */
+/*default*/ final class ObjectMapperCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final ClassValue<ObjectWriter> writers;
+    private final Map<Class<?>, ClassValue<ObjectWriter>> viewWriters = new ConcurrentHashMap<>();
+    private final ClassValue<ObjectReader> readers;
+    private final Map<Type, ObjectReader> typeReaders = new ConcurrentHashMap<>();
+
+    private final LongAdder writerLookups = new LongAdder();
+    private final LongAdder writerMisses = new LongAdder();
+    private final LongAdder readerLookups = new LongAdder();
+    private final LongAdder readerMisses = new LongAdder();
+
+    ObjectMapperCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.objectMapper.getFactory().disable(AUTO_CLOSE_TARGET).disable(AUTO_CLOSE_SOURCE);
+        this.writers = this.createWriters(objectMapper.writer());
+        this.readers = new ClassValue<>() {
+
+            @Override
+            protected ObjectReader computeValue(Class<?> type) {
+                ObjectMapperCache.this.readerMisses.increment();
+                return ObjectMapperCache.this.objectMapper.readerFor(type);
+            }
+        };
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return this.objectMapper;
+    }
+
+    public ObjectReader getReader(Class<?> type) {
+        this.readerLookups.increment();
+        return this.readers.get(type);
+    }
+
+    /**
+     * Readers for generic types are cached per type, so different type references of the same type share a reader.
+     *
+     * @param type The type reference.
+     * @return The reader.
+     */
+    public ObjectReader getReader(TypeReference<?> type) {
+        this.readerLookups.increment();
+        return this.typeReaders.computeIfAbsent(type.getType(), key -> {
+            this.readerMisses.increment();
+            return this.objectMapper.readerFor(type);
+        });
+    }
+
+    public ObjectWriter getWriter(Class<?> type) {
+        this.writerLookups.increment();
+        return this.writers.get(type);
+    }
+
+    public ObjectWriter getWriter(Class<?> type, Class<?> view) {
+        if (view == null) {
+            return this.getWriter(type);
+        }
+
+        this.writerLookups.increment();
+        return this.viewWriters.computeIfAbsent(view, key -> this.createWriters(this.objectMapper.writerWithView(key))).get(type);
+    }
+
+    public List<Metric<?>> metrics(String prefix) {
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>(prefix + ".writers.size", this.writerMisses.sum()));
+        result.add(new Metric<>(prefix + ".writers.hits", this.writerLookups.sum() - this.writerMisses.sum()));
+        result.add(new Metric<>(prefix + ".readers.size", this.readerMisses.sum()));
+        result.add(new Metric<>(prefix + ".readers.hits", this.readerLookups.sum() - this.readerMisses.sum()));
+        return result;
+    }
+
+    private ClassValue<ObjectWriter> createWriters(ObjectWriter baseWriter) {
+        return new ClassValue<>() {
+
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                ObjectMapperCache.this.writerMisses.increment();
+                return baseWriter.forType(type);
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources;
+
+import java.util.Enumeration;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Evaluates the <code>Accept-Encoding</code> header of a request.
+ */
+public final class AcceptEncoding {
+
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
+    private AcceptEncoding() {
+        // hide utility class constructor
+    }
+
+    /**
+     * Check if the request accepts the content encoding, i.e. if the encoding is listed in an <code>Accept-Encoding</code> header
+     * without <code>q=0</code>. The wildcard <code>*</code> is not evaluated.
+     *
+     * @param request The request.
+     * @param encoding The content encoding, e.g. <code>gzip</code>.
+     * @return True if the encoding is accepted.
+     */
+    public static boolean accepts(HttpServletRequest request, String encoding) {
+        Enumeration<String> headers = request.getHeaders(HEADER_ACCEPT_ENCODING);
+        if (headers == null) {
+            return false;
+        }
+
+        while (headers.hasMoreElements()) {
+            if (getQuality(headers.nextElement(), encoding) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the quality value of the encoding in the passed header value.
+     *
+     * @param header The value of an <code>Accept-Encoding</code> header.
+     * @param encoding The content encoding.
+     * @return The quality value or 0 if the encoding is not listed.
+     */
+    public static float getQuality(String header, String encoding) {
+        for (String eachCoding : header.split(",")) {
+            int parametersStart = eachCoding.indexOf(';');
+            String name = parametersStart == -1 ? eachCoding.trim() : eachCoding.substring(0, parametersStart).trim();
+            if (!name.equalsIgnoreCase(encoding)) {
+                continue;
+            }
+
+            if (parametersStart == -1) {
+                return 1;
+            }
+            return parseQuality(eachCoding.substring(parametersStart + 1));
+        }
+        return 0;
+    }
+
+    private static float parseQuality(String parameters) {
+        for (String eachParameter : parameters.split(";")) {
+            String parameter = eachParameter.trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Float.parseFloat(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
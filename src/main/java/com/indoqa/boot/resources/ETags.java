@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Creates entity tags from response bodies and evaluates <code>If-None-Match</code> headers. The tags are based on the CRC32C checksum
+ * and the length of the body, which is fast to compute and good enough to detect changes of a resource.
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+        // hide utility class constructor
+    }
+
+    /**
+     * Check if the <code>If-None-Match</code> header of a request matches the entity tag (weak comparison).
+     *
+     * @param ifNoneMatch The value of the <code>If-None-Match</code> header, may be null.
+     * @param etag The current entity tag of the resource.
+     * @return True if the client has the current representation already, i.e. the response is <code>304 Not Modified</code>.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+
+        String opaqueTag = stripWeakPrefix(etag);
+        for (String eachTag : ifNoneMatch.split(",")) {
+            String candidate = eachTag.trim();
+            if ("*".equals(candidate) || opaqueTag.equals(stripWeakPrefix(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a strong entity tag for the passed body.
+     *
+     * @param body The body.
+     * @return The entity tag including the quotes.
+     */
+    public static String strong(byte[] body) {
+        return strong(body, 0, body.length);
+    }
+
+    /**
+     * Create a strong entity tag for a part of the passed byte array.
+     *
+     * @param body The byte array.
+     * @param offset The offset of the body.
+     * @param length The length of the body.
+     * @return The entity tag including the quotes.
+     */
+    public static String strong(byte[] body, int offset, int length) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(body, offset, length);
+        return new StringBuilder(24)
+            .append('"')
+            .append(Integer.toHexString(length))
+            .append('-')
+            .append(Long.toHexString(checksum.getValue()))
+            .append('"')
+            .toString();
+    }
+
+    /**
+     * Create the entity tag of an encoded variant, e.g. <code>gzip</code>. Strong entity tags must differ between encodings.
+     *
+     * @param etag The entity tag of the unencoded body.
+     * @param encoding The content encoding.
+     * @return The entity tag of the encoded variant.
+     */
+    public static String variant(String etag, String encoding) {
+        return new StringBuilder(etag.length() + encoding.length() + 2)
+            .append(etag, 0, etag.length() - 1)
+            .append("--")
+            .append(encoding)
+            .append('"')
+            .toString();
+    }
+
+    /**
+     * Create a weak entity tag for the passed body.
+     *
+     * @param body The body.
+     * @return The weak entity tag.
+     */
+    public static String weak(byte[] body) {
+        return WEAK_PREFIX + strong(body);
+    }
+
+    /**
+     * Create a weak entity tag from a version, e.g. a modification counter.
+     *
+     * @param version The version, it must not contain double quotes.
+     * @return The weak entity tag.
+     */
+    public static String weak(String version) {
+        return new StringBuilder(version.length() + 4).append(WEAK_PREFIX).append('"').append(version).append('"').toString();
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        if (etag.startsWith(WEAK_PREFIX)) {
+            return etag.substring(WEAK_PREFIX.length());
+        }
+        return etag;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources.exception;
+
+/**
+ * Thrown if the field selection of a partial response is invalid.
+ */
+public class FieldSelectionException extends AbstractRestResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String TYPE_INVALID = "FIELD_SELECTION_INVALID";
+
+    protected FieldSelectionException(String message, HttpStatusCode statusCode, String type, Throwable cause) {
+        super(message, statusCode, type, cause);
+    }
+
+    public static FieldSelectionException invalid(String fields, Throwable cause) {
+        FieldSelectionException result = new FieldSelectionException(
+            cause.getMessage(),
+            HttpStatusCode.BAD_REQUEST,
+            TYPE_INVALID,
+            cause);
+        result.setParameter("fields", fields);
+        return result;
+    }
+}
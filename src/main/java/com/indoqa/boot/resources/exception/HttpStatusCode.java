@@ -25,7 +25,9 @@ public enum HttpStatusCode {
     BAD_REQUEST(400, true),
     FORBIDDEN(403, true),
     NOT_FOUND(404, true),
-    INTERNAL_SERVER_ERROR(500, true);
+    PAYLOAD_TOO_LARGE(413, true),
+    INTERNAL_SERVER_ERROR(500, true),
+    SERVICE_UNAVAILABLE(503, true);
 
     private final int code;
     private final boolean hasBody;
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources.exception;
+
+/**
+ * Thrown if the body of a request can't be bound to a Java object, either because it exceeds the maximum size or because it is
+ * invalid.
+ */
+public class RequestBodyException extends AbstractRestResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String TYPE_TOO_LARGE = "REQUEST_BODY_TOO_LARGE";
+    private static final String TYPE_INVALID = "REQUEST_BODY_INVALID";
+
+    protected RequestBodyException(String message, HttpStatusCode statusCode, String type, Throwable cause) {
+        super(message, statusCode, type, cause);
+    }
+
+    public static RequestBodyException invalid(String typeName, Throwable cause) {
+        return new RequestBodyException(
+            "The request body can't be read as " + typeName + ".",
+            HttpStatusCode.BAD_REQUEST,
+            TYPE_INVALID,
+            cause);
+    }
+
+    public static RequestBodyException tooLarge(long maxBodySize) {
+        RequestBodyException result = new RequestBodyException(
+            "The request body exceeds the maximum size of " + maxBodySize + " bytes.",
+            HttpStatusCode.PAYLOAD_TOO_LARGE,
+            TYPE_TOO_LARGE,
+            null);
+        result.setParameter("maxBodySize", maxBodySize);
+        return result;
+    }
+}
@@ -34,6 +34,9 @@ import org.springframework.core.env.Environment;
 
 import com.indoqa.boot.profile.ProfileDetector;
 
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
 public abstract class AbstractSparkService {
 
     private static final Logger LOGGER = getLogger(SparkAdminService.class);
@@ -89,6 +92,17 @@ public abstract class AbstractSparkService {
         }
     }
 
+    /**
+     * Register an embedded Jetty factory that applies the passed settings to the thread pool and the connector of the server. The
+     * port, the IP address and the SSL configuration are taken from the Spark service.
+     *
+     * @param identifier The identifier of the embedded server, see {@link EmbeddedServers}.
+     * @param settings The resolved server settings.
+     */
+    static void registerEmbeddedServer(Object identifier, SparkServerSettings settings) {
+        EmbeddedServers.add(identifier, new EmbeddedJettyFactory(new ConfigurableJettyServerFactory(settings)));
+    }
+
     void claimPortOrShutdown(int checkPort, int shutdownPort) {
         if (isPortAvailable(checkPort)) {
             return;
@@ -129,4 +143,8 @@ public abstract class AbstractSparkService {
         String portProperty = this.environment.getProperty(PROPERTY_PORT, DEFAULT_SPARK_PORT);
         return parseIntegerProperty(portProperty, PROPERTY_PORT);
     }
+
+    SparkServerSettings readServerSettings(String prefix) {
+        return SparkServerSettings.read(this.environment, prefix);
+    }
 }
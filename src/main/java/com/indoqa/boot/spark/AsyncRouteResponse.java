@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark;
+
+import static jakarta.servlet.DispatcherType.ASYNC;
+import static jakarta.servlet.DispatcherType.REQUEST;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Spark always serializes the result of a route and closes the response output stream when the route returns. This response wrapper
+ * discards that output if a route has put the request into asynchronous mode and has marked it as pending, see
+ * {@link #ATTRIBUTE_ASYNC_PENDING}. The actual response is rendered when the request is dispatched again after the asynchronous
+ * processing has finished.
+ * <p>
+ * Spark runs all filters in both dispatches, so application filters (e.g. authentication) are executed a second time before the
+ * result is rendered. The second dispatch carries the request attribute {@link #ATTRIBUTE_ASYNC_DISPATCH}. Filters that must only run
+ * once per request (e.g. admission control or request counting) skip it with {@link #isAsyncDispatch(HttpServletRequest)} or by
+ * checking the attribute and use {@link #afterCompletion(HttpServletRequest, HttpServletResponse, IntConsumer)} instead of relying on
+ * <code>afterAfter</code>.
+ * </p>
+ */
+public final class AsyncRouteResponse extends HttpServletResponseWrapper {
+
+    /**
+     * Set this request attribute after starting the asynchronous mode to discard the output of the initial dispatch.
+     */
+    public static final String ATTRIBUTE_ASYNC_PENDING = AsyncRouteResponse.class.getName() + ".pending";
+
+    /**
+     * This request attribute is set when the request is dispatched again to render the result of an asynchronous route.
+     */
+    public static final String ATTRIBUTE_ASYNC_DISPATCH = AsyncRouteResponse.class.getName() + ".dispatch";
+
+    private static final String ATTRIBUTE_COMPLETION_CALLBACKS = AsyncRouteResponse.class.getName() + ".completion-callbacks";
+
+    private final HttpServletRequest request;
+    private final boolean initialDispatch;
+
+    AsyncRouteResponse(HttpServletRequest request, HttpServletResponse response) {
+        super(response);
+        this.request = request;
+        this.initialDispatch = request.getDispatcherType() == REQUEST;
+    }
+
+    /**
+     * Run the callback when the request is complete. Without a pending asynchronous route this happens immediately, otherwise after
+     * the result of the route has been sent or the client has gone. Calls within the dispatch after the asynchronous processing are
+     * ignored, the callback of the initial dispatch covers them.
+     *
+     * @param request The raw servlet request.
+     * @param response The raw servlet response.
+     * @param callback The callback, it gets the final status of the response.
+     */
+    public static void afterCompletion(HttpServletRequest request, HttpServletResponse response, IntConsumer callback) {
+        if (isAsyncDispatch(request)) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<IntConsumer> callbacks = (List<IntConsumer>) request.getAttribute(ATTRIBUTE_COMPLETION_CALLBACKS);
+        if (callbacks == null || request.getAttribute(ATTRIBUTE_ASYNC_PENDING) == null) {
+            callback.accept(response.getStatus());
+            return;
+        }
+
+        synchronized (callbacks) {
+            callbacks.add(callback);
+        }
+    }
+
+    /**
+     * Find out if the request is dispatched again after an asynchronous route has completed.
+     *
+     * @param request The raw servlet request.
+     * @return True if this is the second dispatch of an asynchronous route.
+     */
+    public static boolean isAsyncDispatch(HttpServletRequest request) {
+        return request.getAttribute(ATTRIBUTE_ASYNC_DISPATCH) != null || request.getDispatcherType() == ASYNC;
+    }
+
+    /**
+     * Prepare the request for {@link #afterCompletion(HttpServletRequest, HttpServletResponse, IntConsumer)}. This has to be called
+     * right after starting the asynchronous mode.
+     *
+     * @param asyncContext The started asynchronous context.
+     * @param request The raw servlet request.
+     * @param response The raw servlet response.
+     */
+    public static void registerCompletionCallbacks(AsyncContext asyncContext, HttpServletRequest request,
+        HttpServletResponse response) {
+        List<IntConsumer> callbacks = new ArrayList<>();
+        request.setAttribute(ATTRIBUTE_COMPLETION_CALLBACKS, callbacks);
+        asyncContext.addListener(new CompletionListener(callbacks, response));
+    }
+
+    /**
+     * Find out if asynchronous routes are supported for the passed response, i.e. if it was created by an embedded Spark service of
+     * Indoqa-Boot.
+     *
+     * @param response The raw servlet response.
+     * @return True if asynchronous routes are supported.
+     */
+    public static boolean isSupported(HttpServletResponse response) {
+        return response instanceof AsyncRouteResponse;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (this.isDiscarding()) {
+            return;
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (this.isDiscarding()) {
+            return new DiscardingServletOutputStream();
+        }
+        return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (this.isDiscarding()) {
+            return new PrintWriter(OutputStream.nullOutputStream());
+        }
+        return super.getWriter();
+    }
+
+    private boolean isDiscarding() {
+        return this.initialDispatch && this.request.getAttribute(ATTRIBUTE_ASYNC_PENDING) != null;
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+
+        private final List<IntConsumer> callbacks;
+        private final HttpServletResponse response;
+
+        private CompletionListener(List<IntConsumer> callbacks, HttpServletResponse response) {
+            this.callbacks = callbacks;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this.callbacks) {
+                for (IntConsumer eachCallback : this.callbacks) {
+                    eachCallback.accept(this.response.getStatus());
+                }
+                this.callbacks.clear();
+            }
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // not relevant
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows
+        }
+    }
+
+    private static class DiscardingServletOutputStream extends ServletOutputStream {
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            // nothing is ever written
+        }
+
+        @Override
+        public void write(int b) {
+            // discard
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // discard
+        }
+    }
+}
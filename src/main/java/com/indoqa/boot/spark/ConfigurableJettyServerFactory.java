@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark;
+
+import java.util.concurrent.Executors;
+
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.server.*;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/**
+ * A {@link JettyServerFactory} that creates a Jetty server whose connector is configured by {@link SparkServerSettings}. Spark
+ * discards its own connector if the server has one already, so the connector created by Spark is replaced when it is registered
+ * instead. The replacement keeps the host, the port, the SSL configuration and the request customizers (e.g. for forwarded headers)
+ * of the Spark service.
+ * <p>
+ * The Spark handler is wrapped by an {@link AsyncRouteHandler} to support routes that complete asynchronously.
+ * </p>
+ * <p>
+ * If compression is enabled, a {@link GzipHandler} compresses responses for clients that accept gzip. It skips small bodies and
+ * already compressed content types, sets <code>Vary: Accept-Encoding</code> and leaves responses alone that have a
+ * <code>Content-Encoding</code> already. The deflaters are pooled per server.
+ * </p>
+ */
+/*default*/ final class ConfigurableJettyServerFactory implements JettyServerFactory {
+
+    private static final String VIRTUAL_THREAD_NAME_PREFIX = "spark-virtual-";
+
+    private final SparkServerSettings settings;
+
+    ConfigurableJettyServerFactory(SparkServerSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+        QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads, minThreads, threadTimeoutMillis);
+
+        if (this.settings.isVirtualThreads()) {
+            // Jetty dispatches blocking tasks (i.e. request handling) to this executor, selectors keep running on the pool
+            threadPool.setVirtualThreadsExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(VIRTUAL_THREAD_NAME_PREFIX, 0).factory()));
+        }
+
+        return this.create(threadPool);
+    }
+
+    @Override
+    public Server create(ThreadPool threadPool) {
+        Server server = new Server(threadPool) {
+
+            @Override
+            public void setHandler(Handler handler) {
+                super.setHandler(handler == null ? null : ConfigurableJettyServerFactory.this.wrap(handler));
+            }
+
+            @Override
+            public void setConnectors(Connector[] connectors) {
+                super.setConnectors(ConfigurableJettyServerFactory.this.configure(this, connectors));
+            }
+        };
+
+        if (this.settings.isCompression()) {
+            // the GzipHandler takes the deflater pool of the server
+            server.addBean(new DeflaterPool(this.settings.getDeflaterPoolCapacity(), this.settings.getCompressionLevel(), true));
+        }
+
+        return server;
+    }
+
+    private GzipHandler createGzipHandler() {
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize(this.settings.getCompressionMinSize());
+        gzipHandler.setIncludedMethods(HttpMethod.GET.asString(), HttpMethod.POST.asString(), HttpMethod.PUT.asString());
+        gzipHandler.addExcludedMimeTypes(this.settings.getCompressionExcludedMimeTypes());
+        // streamed responses are flushed explicitly, the compressed data has to reach the client
+        gzipHandler.setSyncFlush(true);
+        return gzipHandler;
+    }
+
+    private Connector[] configure(Server server, Connector[] connectors) {
+        if (connectors == null) {
+            return null;
+        }
+
+        Connector[] result = new Connector[connectors.length];
+        for (int i = 0; i < connectors.length; i++) {
+            result[i] = connectors[i] instanceof ServerConnector
+                ? this.createConnector(server, (ServerConnector) connectors[i])
+                : connectors[i];
+        }
+        return result;
+    }
+
+    /**
+     * Acceptors and selectors can only be passed to the constructor, so a new connector is created with the connection factories of
+     * the Spark connector (HTTP and SSL). The Spark connector was never started and is dropped.
+     */
+    private ServerConnector createConnector(Server server, ServerConnector sparkConnector) {
+        HttpConnectionFactory httpConnectionFactory = sparkConnector.getConnectionFactory(HttpConnectionFactory.class);
+        if (httpConnectionFactory != null) {
+            HttpConfiguration httpConfiguration = httpConnectionFactory.getHttpConfiguration();
+            httpConfiguration.setRequestHeaderSize(this.settings.getRequestHeaderSize());
+            httpConfiguration.setResponseHeaderSize(this.settings.getResponseHeaderSize());
+            httpConfiguration.setOutputBufferSize(this.settings.getOutputBufferSize());
+        }
+
+        ServerConnector connector = new ServerConnector(
+            server,
+            this.settings.getAcceptors(),
+            this.settings.getSelectors(),
+            sparkConnector.getConnectionFactories().toArray(new ConnectionFactory[0]));
+        connector.setDefaultProtocol(sparkConnector.getDefaultProtocol());
+        connector.setHost(sparkConnector.getHost());
+        connector.setPort(sparkConnector.getPort());
+        connector.setIdleTimeout(this.settings.getIdleTimeout());
+        return connector;
+    }
+
+    private Handler wrap(Handler handler) {
+        Handler asyncRouteHandler = new AsyncRouteHandler(handler);
+        if (!this.settings.isCompression()) {
+            return asyncRouteHandler;
+        }
+
+        GzipHandler gzipHandler = this.createGzipHandler();
+        gzipHandler.setHandler(asyncRouteHandler);
+        return gzipHandler;
+    }
+}
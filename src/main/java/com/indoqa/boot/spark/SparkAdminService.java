@@ -32,7 +32,11 @@ public final class SparkAdminService extends AbstractSparkService {
 
     private static final Logger LOGGER = getLogger(SparkAdminService.class);
 
+    private static final String PROPERTY_PREFIX = "admin.spark.";
+    private static final String EMBEDDED_SERVER_IDENTIFIER = "indoqa-boot-admin";
+
     private Service service;
+    private SparkServerSettings serverSettings;
 
     @PostConstruct
     public void initialize() {
@@ -48,8 +52,23 @@ public final class SparkAdminService extends AbstractSparkService {
 
         this.claimPortOrShutdown(adminPort, adminPort);
 
+        this.serverSettings = this.readServerSettings(PROPERTY_PREFIX);
+        registerEmbeddedServer(EMBEDDED_SERVER_IDENTIFIER, this.serverSettings);
+
         this.service = Service.ignite();
+        this.service.embeddedServerIdentifier(EMBEDDED_SERVER_IDENTIFIER);
         this.service.port(adminPort);
+        this.service.threadPool(
+            this.serverSettings.getMaxThreads(),
+            this.serverSettings.getMinThreads(),
+            this.serverSettings.getThreadIdleTimeout());
+    }
+
+    /**
+     * @return The resolved thread pool and connector settings or null if the admin service is not available.
+     */
+    public SparkServerSettings getServerSettings() {
+        return this.serverSettings;
     }
 
     public Service instance() {
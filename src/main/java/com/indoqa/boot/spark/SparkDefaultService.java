@@ -21,12 +21,17 @@ import static spark.globalstate.ServletFlag.isRunningFromServlet;
 import jakarta.annotation.PostConstruct;
 
 import spark.Spark;
+import spark.embeddedserver.EmbeddedServers.Identifiers;
 
 /**
  * The default Spark service for application resources.
  */
 public class SparkDefaultService extends AbstractSparkService {
 
+    private static final String PROPERTY_PREFIX = "spark.";
+
+    private SparkServerSettings serverSettings;
+
     @PostConstruct
     public void initialize() {
         if (isRunningFromServlet()) {
@@ -39,6 +44,20 @@ public class SparkDefaultService extends AbstractSparkService {
         int shutdownPort = adminPort > 0 ? adminPort : port;
         this.claimPortOrShutdown(port, shutdownPort);
 
+        this.serverSettings = this.readServerSettings(PROPERTY_PREFIX);
+        registerEmbeddedServer(Identifiers.JETTY, this.serverSettings);
+
         Spark.port(port);
+        Spark.threadPool(
+            this.serverSettings.getMaxThreads(),
+            this.serverSettings.getMinThreads(),
+            this.serverSettings.getThreadIdleTimeout());
+    }
+
+    /**
+     * @return The resolved thread pool and connector settings or null if the application runs from within a servlet container.
+     */
+    public SparkServerSettings getServerSettings() {
+        return this.serverSettings;
     }
 }
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark;
+
+import static com.indoqa.boot.spark.PortUtils.parseIntegerProperty;
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.indoqa.boot.ApplicationInitializationException;
+
+/**
+ * The resolved thread pool and connector settings of an embedded Jetty server. All values are read from Spring properties that share
+ * a common prefix (e.g. <code>spark.threads.max</code> or <code>admin.spark.threads.max</code>). Unset properties fall back to the
+ * defaults used by Spark and Jetty. Response compression is enabled by default.
+ */
+public final class SparkServerSettings {
+
+    private static final String PROPERTY_THREADS_MIN = "threads.min";
+    private static final String PROPERTY_THREADS_MAX = "threads.max";
+    private static final String PROPERTY_THREADS_IDLE_TIMEOUT = "threads.idle-timeout";
+    private static final String PROPERTY_ACCEPTORS = "acceptors";
+    private static final String PROPERTY_SELECTORS = "selectors";
+    private static final String PROPERTY_REQUEST_HEADER_SIZE = "request-header-size";
+    private static final String PROPERTY_RESPONSE_HEADER_SIZE = "response-header-size";
+    private static final String PROPERTY_OUTPUT_BUFFER_SIZE = "output-buffer-size";
+    private static final String PROPERTY_IDLE_TIMEOUT = "idle-timeout";
+    private static final String PROPERTY_VIRTUAL_THREADS = "virtual-threads";
+    private static final String PROPERTY_VIRTUAL_THREADS_PINNED_THRESHOLD = "virtual-threads.pinned-threshold";
+    private static final String PROPERTY_COMPRESSION = "compression";
+    private static final String PROPERTY_COMPRESSION_MIN_SIZE = "compression.min-size";
+    private static final String PROPERTY_COMPRESSION_LEVEL = "compression.level";
+    private static final String PROPERTY_COMPRESSION_EXCLUDED_MIME_TYPES = "compression.excluded-mime-types";
+    private static final String PROPERTY_COMPRESSION_DEFLATER_POOL_CAPACITY = "compression.deflater-pool-capacity";
+
+    private static final int DEFAULT_THREADS_MIN = 8;
+    private static final int DEFAULT_THREADS_MAX = 200;
+    private static final int DEFAULT_THREADS_IDLE_TIMEOUT = 60_000;
+    private static final int DEFAULT_REQUEST_HEADER_SIZE = 8 * 1024;
+    private static final int DEFAULT_RESPONSE_HEADER_SIZE = 8 * 1024;
+    private static final int DEFAULT_OUTPUT_BUFFER_SIZE = 32 * 1024;
+    private static final int DEFAULT_IDLE_TIMEOUT = 60 * 60 * 1000;
+    private static final int DEFAULT_VIRTUAL_THREADS_PINNED_THRESHOLD = 20;
+    private static final int DEFAULT_COMPRESSION_MIN_SIZE = 1024;
+    private static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    private final String prefix;
+
+    private int minThreads;
+    private int maxThreads;
+    private int threadIdleTimeout;
+    private int acceptors;
+    private int selectors;
+    private int requestHeaderSize;
+    private int responseHeaderSize;
+    private int outputBufferSize;
+    private int idleTimeout;
+    private boolean virtualThreads;
+    private int virtualThreadsPinnedThreshold;
+    private boolean compression;
+    private int compressionMinSize;
+    private int compressionLevel;
+    private String[] compressionExcludedMimeTypes;
+    private int deflaterPoolCapacity;
+
+    private SparkServerSettings(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Read the settings from the Spring environment.
+     *
+     * @param environment The Spring environment.
+     * @param prefix The property prefix including the trailing dot, e.g. <code>spark.</code>
+     * @return The resolved settings.
+     */
+    public static SparkServerSettings read(Environment environment, String prefix) {
+        SparkServerSettings settings = new SparkServerSettings(prefix);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        settings.minThreads = settings.readInt(environment, PROPERTY_THREADS_MIN, DEFAULT_THREADS_MIN);
+        settings.maxThreads = settings.readInt(environment, PROPERTY_THREADS_MAX, DEFAULT_THREADS_MAX);
+        settings.threadIdleTimeout = settings.readInt(environment, PROPERTY_THREADS_IDLE_TIMEOUT, DEFAULT_THREADS_IDLE_TIMEOUT);
+        settings.acceptors = settings.readInt(environment, PROPERTY_ACCEPTORS, Math.max(1, Math.min(4, processors / 8)));
+        settings.selectors = settings.readInt(environment, PROPERTY_SELECTORS, Math.max(1, Math.min(4, processors / 2)));
+        settings.requestHeaderSize = settings.readInt(environment, PROPERTY_REQUEST_HEADER_SIZE, DEFAULT_REQUEST_HEADER_SIZE);
+        settings.responseHeaderSize = settings.readInt(environment, PROPERTY_RESPONSE_HEADER_SIZE, DEFAULT_RESPONSE_HEADER_SIZE);
+        settings.outputBufferSize = settings.readInt(environment, PROPERTY_OUTPUT_BUFFER_SIZE, DEFAULT_OUTPUT_BUFFER_SIZE);
+        settings.idleTimeout = settings.readInt(environment, PROPERTY_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+        settings.virtualThreads = environment.getProperty(settings.prefix + PROPERTY_VIRTUAL_THREADS, Boolean.class, FALSE);
+        settings.virtualThreadsPinnedThreshold = settings.readInt(
+            environment,
+            PROPERTY_VIRTUAL_THREADS_PINNED_THRESHOLD,
+            DEFAULT_VIRTUAL_THREADS_PINNED_THRESHOLD);
+        settings.compression = environment.getProperty(settings.prefix + PROPERTY_COMPRESSION, Boolean.class, TRUE);
+        settings.compressionMinSize = settings.readInt(environment, PROPERTY_COMPRESSION_MIN_SIZE, DEFAULT_COMPRESSION_MIN_SIZE);
+        settings.compressionLevel = settings.readInt(environment, PROPERTY_COMPRESSION_LEVEL, DEFAULT_COMPRESSION_LEVEL);
+        settings.compressionExcludedMimeTypes = environment.getProperty(
+            settings.prefix + PROPERTY_COMPRESSION_EXCLUDED_MIME_TYPES,
+            String[].class,
+            new String[0]);
+        // a deflater is only used by one request at a time
+        settings.deflaterPoolCapacity = settings.readInt(
+            environment,
+            PROPERTY_COMPRESSION_DEFLATER_POOL_CAPACITY,
+            settings.maxThreads);
+
+        settings.validate();
+        return settings;
+    }
+
+    @JsonProperty("acceptors")
+    public int getAcceptors() {
+        return this.acceptors;
+    }
+
+    /**
+     * @return The content types that are never compressed in addition to Jetty's defaults (images, audio, video and archives).
+     */
+    @JsonProperty("compression-excluded-mime-types")
+    public String[] getCompressionExcludedMimeTypes() {
+        return this.compressionExcludedMimeTypes;
+    }
+
+    /**
+     * @return The deflate compression level from 1 (fastest) to 9 (best compression).
+     */
+    @JsonProperty("compression-level")
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * @return The minimum size of a response body in bytes to be compressed.
+     */
+    @JsonProperty("compression-min-size")
+    public int getCompressionMinSize() {
+        return this.compressionMinSize;
+    }
+
+    /**
+     * @return The maximum number of pooled deflaters.
+     */
+    @JsonProperty("compression-deflater-pool-capacity")
+    public int getDeflaterPoolCapacity() {
+        return this.deflaterPoolCapacity;
+    }
+
+    @JsonProperty("idle-timeout")
+    public int getIdleTimeout() {
+        return this.idleTimeout;
+    }
+
+    @JsonProperty("threads-max")
+    public int getMaxThreads() {
+        return this.maxThreads;
+    }
+
+    @JsonProperty("threads-min")
+    public int getMinThreads() {
+        return this.minThreads;
+    }
+
+    @JsonProperty("output-buffer-size")
+    public int getOutputBufferSize() {
+        return this.outputBufferSize;
+    }
+
+    @JsonProperty("request-header-size")
+    public int getRequestHeaderSize() {
+        return this.requestHeaderSize;
+    }
+
+    @JsonProperty("response-header-size")
+    public int getResponseHeaderSize() {
+        return this.responseHeaderSize;
+    }
+
+    @JsonProperty("selectors")
+    public int getSelectors() {
+        return this.selectors;
+    }
+
+    @JsonProperty("threads-idle-timeout")
+    public int getThreadIdleTimeout() {
+        return this.threadIdleTimeout;
+    }
+
+    /**
+     * @return The minimum duration in ms a virtual thread has to be pinned to its carrier thread to be reported.
+     */
+    @JsonProperty("virtual-threads-pinned-threshold")
+    public int getVirtualThreadsPinnedThreshold() {
+        return this.virtualThreadsPinnedThreshold;
+    }
+
+    /**
+     * @return True if responses are compressed for clients that accept it.
+     */
+    @JsonProperty("compression")
+    public boolean isCompression() {
+        return this.compression;
+    }
+
+    /**
+     * @return True if requests are handled by virtual threads. Acceptors and selectors always run on platform threads.
+     */
+    @JsonProperty("virtual-threads")
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    private int readInt(Environment environment, String name, int defaultValue) {
+        String propertyName = this.prefix + name;
+        String value = environment.getProperty(propertyName, Integer.toString(defaultValue));
+        return parseIntegerProperty(value, propertyName);
+    }
+
+    private void validate() {
+        if (this.minThreads < 1 || this.maxThreads < this.minThreads) {
+            throw new ApplicationInitializationException(
+                "Invalid thread pool settings for '" + this.prefix + "': threads.min=" + this.minThreads + ", threads.max="
+                    + this.maxThreads + ". threads.min has to be positive and must not exceed threads.max.");
+        }
+
+        // every acceptor and selector permanently occupies a thread of the pool
+        if (this.acceptors + this.selectors >= this.maxThreads) {
+            throw new ApplicationInitializationException(
+                "Invalid connector settings for '" + this.prefix + "': acceptors=" + this.acceptors + " and selectors="
+                    + this.selectors + " leave no worker threads with threads.max=" + this.maxThreads + ".");
+        }
+
+        if (this.compressionLevel < 1 || this.compressionLevel > 9) {
+            throw new ApplicationInitializationException(
+                "Invalid compression settings for '" + this.prefix + "': compression.level=" + this.compressionLevel
+                    + ". The level has to be between 1 and 9.");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Base implementation of a concurrency limit that adapts itself to the measured round-trip times (RTT) of requests. It keeps track of
+ * the minimum RTT (the no-load baseline) and of a smoothed current RTT. At the end of every window of samples the minimum RTT is reset
+ * to the minimum seen within that window, so that a changed baseline (e.g. after a deployment of a downstream service) is picked up
+ * without adopting the RTT of a single, arbitrary request.
+ */
+/*default*/ abstract class AbstractAdaptiveLimit {
+
+    private static final double RTT_SMOOTHING = 0.1;
+    private static final int MIN_RTT_RESET_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private long minRttNanos;
+    private long windowMinRttNanos;
+    private double currentRttNanos;
+    private long samples;
+
+    protected AbstractAdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public synchronized double getCurrentRttMillis() {
+        return this.currentRttNanos / MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    public synchronized double getMinRttMillis() {
+        return (double) this.minRttNanos / MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Update the limit with the result of a completed request.
+     *
+     * @param rttNanos The round-trip time of the request in nanoseconds.
+     * @param inFlight The number of in-flight requests when the request completed.
+     * @param dropped True if the request failed because of an overload (e.g. a timeout).
+     * @return The new limit.
+     */
+    public synchronized int onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (!dropped) {
+            this.updateRtt(rttNanos);
+        }
+
+        double newLimit = this.computeLimit(this.limit, rttNanos, inFlight, dropped);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+        return (int) this.limit;
+    }
+
+    /**
+     * Calculate the new limit.
+     *
+     * @param currentLimit The current limit.
+     * @param rttNanos The round-trip time of the request in nanoseconds.
+     * @param inFlight The number of in-flight requests when the request completed.
+     * @param dropped True if the request failed because of an overload.
+     * @return The new limit, it is bounded by the minimum and maximum limit afterwards.
+     */
+    protected abstract double computeLimit(double currentLimit, long rttNanos, int inFlight, boolean dropped);
+
+    protected long getMinRttNanos() {
+        return this.minRttNanos;
+    }
+
+    protected double getCurrentRttNanos() {
+        return this.currentRttNanos;
+    }
+
+    private void updateRtt(long rttNanos) {
+        this.samples++;
+
+        if (this.minRttNanos == 0 || rttNanos < this.minRttNanos) {
+            this.minRttNanos = rttNanos;
+        }
+        if (this.windowMinRttNanos == 0 || rttNanos < this.windowMinRttNanos) {
+            this.windowMinRttNanos = rttNanos;
+        }
+        if (this.samples % MIN_RTT_RESET_INTERVAL == 0) {
+            this.minRttNanos = this.windowMinRttNanos;
+            this.windowMinRttNanos = 0;
+        }
+
+        if (this.currentRttNanos == 0) {
+            this.currentRttNanos = rttNanos;
+        } else {
+            this.currentRttNanos = this.currentRttNanos * (1 - RTT_SMOOTHING) + rttNanos * RTT_SMOOTHING;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import static jakarta.servlet.http.HttpServletResponse.SC_GATEWAY_TIMEOUT;
+import static jakarta.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.slf4j.LoggerFactory.getLogger;
+import static spark.Spark.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.springframework.core.env.Environment;
+
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.actuate.metrics.Metric;
+import com.indoqa.boot.actuate.metrics.PublicMetrics;
+import com.indoqa.boot.spark.AsyncRouteResponse;
+
+import spark.Request;
+import spark.Response;
+
+/**
+ * A Spark interceptor that limits the number of concurrently executed requests of the default Spark service. Requests exceeding
+ * <code>spark.admission.max-in-flight</code> wait in a bounded queue. If the queue is full or the queue timeout elapses, the request
+ * is rejected immediately with <code>503 Service Unavailable</code> and a <code>Retry-After</code> header. Admission statistics are
+ * provided via the {@link PublicMetrics} interface.
+ * <p>
+ * By default the limit is static. Set <code>spark.admission.limit</code> to <code>gradient</code> or <code>aimd</code> to let the
+ * limit adapt itself to the measured request latencies. In that case <code>spark.admission.max-in-flight</code> is the initial limit.
+ * </p>
+ * <p>
+ * Asynchronous routes keep their permit until their result has been sent, the second dispatch isn't admitted again.
+ * </p>
+ */
+public class AdmissionControlInterceptor implements PublicMetrics {
+
+    private static final Logger LOGGER = getLogger(AdmissionControlInterceptor.class);
+
+    private static final String PROPERTY_MAX_IN_FLIGHT = "spark.admission.max-in-flight";
+    private static final String PROPERTY_MAX_QUEUE_SIZE = "spark.admission.max-queue-size";
+    private static final String PROPERTY_QUEUE_TIMEOUT = "spark.admission.queue-timeout";
+    private static final String PROPERTY_RETRY_AFTER = "spark.admission.retry-after";
+    private static final String PROPERTY_EXEMPTIONS = "spark.admission.exemptions";
+    private static final String PROPERTY_LIMIT = "spark.admission.limit";
+    private static final String PROPERTY_MIN_LIMIT = "spark.admission.min-limit";
+    private static final String PROPERTY_MAX_LIMIT = "spark.admission.max-limit";
+    private static final String PROPERTY_RTT_TIMEOUT = "spark.admission.rtt-timeout";
+
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 0;
+    private static final int DEFAULT_QUEUE_TIMEOUT = 1000;
+    private static final int DEFAULT_RETRY_AFTER = 1;
+    private static final String[] DEFAULT_EXEMPTIONS = {"/health"};
+    private static final String DEFAULT_LIMIT = "static";
+    private static final int DEFAULT_MIN_LIMIT = 4;
+    private static final int DEFAULT_MAX_LIMIT = 1000;
+    private static final int DEFAULT_RTT_TIMEOUT = 1000;
+
+    private static final String LIMIT_STATIC = "static";
+    private static final String LIMIT_GRADIENT = "gradient";
+    private static final String LIMIT_AIMD = "aimd";
+
+    private static final String ATTRIBUTE_ADMITTED = AdmissionControlInterceptor.class.getName() + ".admitted";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String WILDCARD = "*";
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+    private final AtomicLong maxQueueTimeNanos = new AtomicLong();
+
+    private ConcurrencyLimiter limiter;
+    private AbstractAdaptiveLimit adaptiveLimit;
+    private String retryAfter;
+    private String[] exemptions;
+
+    @Inject
+    private Environment environment;
+
+    private static boolean isDropped(int status) {
+        return status == SC_SERVICE_UNAVAILABLE || status == SC_GATEWAY_TIMEOUT;
+    }
+
+    private static boolean matches(String pattern, String path) {
+        if (pattern.endsWith(WILDCARD)) {
+            return path.startsWith(pattern.substring(0, pattern.length() - WILDCARD.length()));
+        }
+        return pattern.equals(path);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        if (this.limiter == null) {
+            return emptyList();
+        }
+
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>("admission.admitted", this.admitted.sum()));
+        result.add(new Metric<>("admission.rejected", this.rejected.sum()));
+        result.add(new Metric<>("admission.in_flight", this.limiter.getInFlight()));
+        result.add(new Metric<>("admission.queued", this.limiter.getQueued()));
+        result.add(new Metric<>("admission.limit", this.limiter.getLimit()));
+        result.add(new Metric<>("admission.queue_time.total", MILLISECONDS.convert(this.queueTimeNanos.sum(), NANOSECONDS)));
+        result.add(new Metric<>("admission.queue_time.max", MILLISECONDS.convert(this.maxQueueTimeNanos.get(), NANOSECONDS)));
+
+        if (this.adaptiveLimit != null) {
+            result.add(new Metric<>("admission.rtt.min", this.adaptiveLimit.getMinRttMillis()));
+            result.add(new Metric<>("admission.rtt.current", this.adaptiveLimit.getCurrentRttMillis()));
+        }
+        return result;
+    }
+
+    @PostConstruct
+    public void mount() {
+        int maxInFlight = this.environment.getProperty(PROPERTY_MAX_IN_FLIGHT, Integer.class, 0);
+        if (maxInFlight <= 0) {
+            return;
+        }
+
+        int maxQueueSize = this.environment.getProperty(PROPERTY_MAX_QUEUE_SIZE, Integer.class, DEFAULT_MAX_QUEUE_SIZE);
+        int queueTimeout = this.environment.getProperty(PROPERTY_QUEUE_TIMEOUT, Integer.class, DEFAULT_QUEUE_TIMEOUT);
+        this.limiter = new ConcurrencyLimiter(maxInFlight, maxQueueSize, queueTimeout, MILLISECONDS);
+        this.retryAfter = Integer.toString(this.environment.getProperty(PROPERTY_RETRY_AFTER, Integer.class, DEFAULT_RETRY_AFTER));
+        this.exemptions = this.environment.getProperty(PROPERTY_EXEMPTIONS, String[].class, DEFAULT_EXEMPTIONS);
+        this.adaptiveLimit = this.createAdaptiveLimit(maxInFlight);
+
+        LOGGER.info(
+            "Admission control is enabled: limit={}, max-in-flight={}, max-queue-size={}, queue-timeout={} ms",
+            this.environment.getProperty(PROPERTY_LIMIT, DEFAULT_LIMIT),
+            maxInFlight,
+            maxQueueSize,
+            queueTimeout);
+
+        before((request, response) -> this.admit(request, response));
+        afterAfter(
+            (request, response) -> AsyncRouteResponse.afterCompletion(
+                request.raw(),
+                response.raw(),
+                status -> this.release(request.raw(), status)));
+    }
+
+    private void admit(Request request, Response response) {
+        if (AsyncRouteResponse.isAsyncDispatch(request.raw()) || this.isExempt(request.uri())) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        if (!this.acquire()) {
+            this.rejected.increment();
+            response.header(HEADER_RETRY_AFTER, this.retryAfter);
+            halt(SC_SERVICE_UNAVAILABLE, EMPTY);
+        }
+
+        long admissionTime = System.nanoTime();
+        long queueTime = admissionTime - start;
+        this.queueTimeNanos.add(queueTime);
+        this.maxQueueTimeNanos.accumulateAndGet(queueTime, Math::max);
+        this.admitted.increment();
+
+        request.attribute(ATTRIBUTE_ADMITTED, admissionTime);
+    }
+
+    private boolean acquire() {
+        try {
+            return this.limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private AbstractAdaptiveLimit createAdaptiveLimit(int initialLimit) {
+        String limit = this.environment.getProperty(PROPERTY_LIMIT, DEFAULT_LIMIT);
+        if (LIMIT_STATIC.equals(limit)) {
+            return null;
+        }
+
+        int minLimit = this.environment.getProperty(PROPERTY_MIN_LIMIT, Integer.class, DEFAULT_MIN_LIMIT);
+        int maxLimit = this.environment.getProperty(PROPERTY_MAX_LIMIT, Integer.class, DEFAULT_MAX_LIMIT);
+
+        if (LIMIT_GRADIENT.equals(limit)) {
+            return new GradientLimit(initialLimit, minLimit, maxLimit);
+        }
+
+        if (LIMIT_AIMD.equals(limit)) {
+            int rttTimeout = this.environment.getProperty(PROPERTY_RTT_TIMEOUT, Integer.class, DEFAULT_RTT_TIMEOUT);
+            return new AimdLimit(initialLimit, minLimit, maxLimit, MILLISECONDS.toNanos(rttTimeout));
+        }
+
+        throw new ApplicationInitializationException(
+            "Invalid value of the property '" + PROPERTY_LIMIT + "': " + limit + ". Supported values are static, gradient and aimd.");
+    }
+
+    private boolean isExempt(String path) {
+        for (String eachExemption : this.exemptions) {
+            if (matches(eachExemption, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(HttpServletRequest request, int status) {
+        Long admissionTime = (Long) request.getAttribute(ATTRIBUTE_ADMITTED);
+        if (admissionTime == null) {
+            return;
+        }
+
+        request.removeAttribute(ATTRIBUTE_ADMITTED);
+
+        if (this.adaptiveLimit != null) {
+            long rtt = System.nanoTime() - admissionTime;
+            int newLimit = this.adaptiveLimit.onSample(rtt, this.limiter.getInFlight(), isDropped(status));
+            this.limiter.setLimit(newLimit);
+        }
+
+        this.limiter.release();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+/**
+ * An additive increase / multiplicative decrease (AIMD) concurrency limit: The limit grows by one for every successful request that
+ * was executed while the limit was used at least by half. If a request exceeds the RTT timeout or was dropped because of an overload,
+ * the limit is reduced by a constant ratio.
+ */
+/*default*/ final class AimdLimit extends AbstractAdaptiveLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final long rttTimeoutNanos;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long rttTimeoutNanos) {
+        super(initialLimit, minLimit, maxLimit);
+        this.rttTimeoutNanos = rttTimeoutNanos;
+    }
+
+    @Override
+    protected double computeLimit(double currentLimit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > this.rttTimeoutNanos) {
+            return currentLimit * BACKOFF_RATIO;
+        }
+
+        if (inFlight * 2 >= currentLimit) {
+            return currentLimit + 1;
+        }
+
+        return currentLimit;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import static jakarta.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static spark.Spark.halt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.indoqa.boot.ApplicationInitializationException;
+import com.indoqa.boot.actuate.metrics.Metric;
+
+import spark.Route;
+
+/**
+ * A bulkhead limits the number of concurrent executions of a group of routes, so that a family of slow endpoints can never consume all
+ * worker threads of the server. Requests exceeding the limit wait in a bounded queue. If the queue is full or the queue timeout
+ * elapses, the request is rejected with <code>503 Service Unavailable</code> and a <code>Retry-After</code> header.
+ * <p>
+ * Bulkheads are identified by their name, i.e. all routes that use a bulkhead with the same name share its permits:
+ * </p>
+ *
+ * <pre>
+ * this.get("/reports/:id/export", this::export, Bulkhead.of("exports", 8, 16));
+ * </pre>
+ */
+public final class Bulkhead {
+
+    private static final Map<String, Bulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private static final int DEFAULT_QUEUE_TIMEOUT = 1000;
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER = "1";
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueueSize;
+    private final int queueTimeout;
+    private final ConcurrencyLimiter limiter;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+    private final AtomicLong maxQueueTimeNanos = new AtomicLong();
+
+    private Bulkhead(String name, int maxConcurrent, int maxQueueSize, int queueTimeout) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeout = queueTimeout;
+        this.limiter = new ConcurrencyLimiter(maxConcurrent, maxQueueSize, queueTimeout, MILLISECONDS);
+    }
+
+    /**
+     * Get or create the bulkhead with the passed name. Requests wait at most one second in the queue.
+     *
+     * @param name The name of the bulkhead.
+     * @param maxConcurrent The maximum number of concurrent executions.
+     * @param maxQueueSize The maximum number of waiting requests.
+     * @return The bulkhead.
+     */
+    public static Bulkhead of(String name, int maxConcurrent, int maxQueueSize) {
+        return of(name, maxConcurrent, maxQueueSize, DEFAULT_QUEUE_TIMEOUT);
+    }
+
+    /**
+     * Get or create the bulkhead with the passed name.
+     *
+     * @param name The name of the bulkhead.
+     * @param maxConcurrent The maximum number of concurrent executions.
+     * @param maxQueueSize The maximum number of waiting requests.
+     * @param queueTimeout The maximum time in ms a request waits in the queue.
+     * @return The bulkhead.
+     */
+    public static Bulkhead of(String name, int maxConcurrent, int maxQueueSize, int queueTimeout) {
+        if (maxConcurrent < 1 || maxQueueSize < 0 || queueTimeout < 0) {
+            throw new ApplicationInitializationException(
+                "Invalid configuration of bulkhead '" + name + "': maxConcurrent=" + maxConcurrent + ", maxQueueSize=" + maxQueueSize
+                    + ", queueTimeout=" + queueTimeout);
+        }
+
+        Bulkhead bulkhead = BULKHEADS.computeIfAbsent(name, key -> new Bulkhead(key, maxConcurrent, maxQueueSize, queueTimeout));
+        if (!bulkhead.hasConfiguration(maxConcurrent, maxQueueSize, queueTimeout)) {
+            throw new ApplicationInitializationException(
+                "The bulkhead '" + name + "' is already registered with a different configuration.");
+        }
+        return bulkhead;
+    }
+
+    static Collection<Bulkhead> getBulkheads() {
+        return BULKHEADS.values();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Wrap the passed route so that it is executed within this bulkhead.
+     *
+     * @param route The route to be wrapped.
+     * @return The wrapped route.
+     */
+    public Route wrap(Route route) {
+        return (request, response) -> {
+            long start = System.nanoTime();
+            if (!this.acquire()) {
+                this.rejected.increment();
+                response.header(HEADER_RETRY_AFTER, RETRY_AFTER);
+                halt(SC_SERVICE_UNAVAILABLE, EMPTY);
+            }
+
+            long queueTime = System.nanoTime() - start;
+            this.queueTimeNanos.add(queueTime);
+            this.maxQueueTimeNanos.accumulateAndGet(queueTime, Math::max);
+            this.admitted.increment();
+
+            try {
+                return route.handle(request, response);
+            } finally {
+                this.limiter.release();
+            }
+        };
+    }
+
+    List<Metric<?>> metrics() {
+        String prefix = "bulkhead." + this.name + ".";
+
+        List<Metric<?>> result = new ArrayList<>();
+        result.add(new Metric<>(prefix + "admitted", this.admitted.sum()));
+        result.add(new Metric<>(prefix + "rejected", this.rejected.sum()));
+        result.add(new Metric<>(prefix + "in_flight", this.limiter.getInFlight()));
+        result.add(new Metric<>(prefix + "queued", this.limiter.getQueued()));
+        result.add(new Metric<>(prefix + "limit", this.maxConcurrent));
+        result.add(new Metric<>(prefix + "queue_time.total", MILLISECONDS.convert(this.queueTimeNanos.sum(), NANOSECONDS)));
+        result.add(new Metric<>(prefix + "queue_time.max", MILLISECONDS.convert(this.maxQueueTimeNanos.get(), NANOSECONDS)));
+        return result;
+    }
+
+    private boolean acquire() {
+        try {
+            return this.limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean hasConfiguration(int otherMaxConcurrent, int otherMaxQueueSize, int otherQueueTimeout) {
+        return this.maxConcurrent == otherMaxConcurrent && this.maxQueueSize == otherMaxQueueSize
+            && this.queueTimeout == otherQueueTimeout;
+    }
+}
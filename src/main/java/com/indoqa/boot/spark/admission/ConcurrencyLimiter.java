@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrently executed requests. Requests that exceed the limit wait in a bounded queue until a permit becomes
+ * available or the queue timeout elapses. The limit can be changed at runtime, see {@link #setLimit(int)}.
+ */
+/*default*/ final class ConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = this.lock.newCondition();
+
+    private final int maxQueueSize;
+    private final long queueTimeoutNanos;
+
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    ConcurrencyLimiter(int limit, int maxQueueSize, long queueTimeout, TimeUnit unit) {
+        this.limit = limit;
+        this.maxQueueSize = maxQueueSize;
+        this.queueTimeoutNanos = unit.toNanos(queueTimeout);
+    }
+
+    /**
+     * Acquire a permit.
+     *
+     * @return True if the permit was acquired, false if the queue is full or the queue timeout elapsed.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    boolean acquire() throws InterruptedException {
+        this.lock.lock();
+        try {
+            // don't overtake requests that are already waiting
+            if (this.queued == 0 && this.inFlight < this.limit) {
+                this.inFlight++;
+                return true;
+            }
+
+            if (this.queued >= this.maxQueueSize) {
+                return false;
+            }
+
+            this.queued++;
+            try {
+                long remainingNanos = this.queueTimeoutNanos;
+                while (this.inFlight >= this.limit) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = this.permitReleased.awaitNanos(remainingNanos);
+                }
+
+                this.inFlight++;
+                return true;
+            } finally {
+                this.queued--;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        this.lock.lock();
+        try {
+            return this.inFlight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        this.lock.lock();
+        try {
+            return this.limit;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    int getQueued() {
+        this.lock.lock();
+        try {
+            return this.queued;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void release() {
+        this.lock.lock();
+        try {
+            this.inFlight--;
+            this.permitReleased.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    void setLimit(int limit) {
+        this.lock.lock();
+        try {
+            if (limit > this.limit) {
+                this.permitReleased.signalAll();
+            }
+            this.limit = limit;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+/**
+ * A gradient based (TCP Vegas like) concurrency limit: As long as the current RTT stays close to the minimum RTT, the limit grows by
+ * a small queue allowance. If the current RTT increases, the limit shrinks proportionally to the ratio of the minimum and the current
+ * RTT. Requests that were dropped because of an overload decrease the limit multiplicatively (AIMD fallback), because they don't
+ * provide a meaningful RTT.
+ */
+/*default*/ final class GradientLimit extends AbstractAdaptiveLimit {
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    protected double computeLimit(double currentLimit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            return currentLimit * BACKOFF_RATIO;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * this.getMinRttNanos() / this.getCurrentRttNanos()));
+        double queueSize = Math.sqrt(currentLimit);
+        double newLimit = currentLimit * gradient + queueSize;
+
+        // don't grow the limit if it isn't used at all
+        if (newLimit > currentLimit && inFlight < currentLimit / 2) {
+            return currentLimit;
+        }
+
+        return currentLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class AssetStoreTest {
+
+    private static final String LOCATION = "asset-store";
+
+    private static byte[] readResource(String path) throws Exception {
+        return Files.readAllBytes(Paths.get(AssetStoreTest.class.getClassLoader().getResource(LOCATION + path).toURI()));
+    }
+
+    private static MockHttpServletResponse send(AssetStore assetStore, String path, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+
+        MockHttpServletResponse result = new MockHttpServletResponse();
+        assertTrue(assetStore.send(path, request, result));
+        return result;
+    }
+
+    @Test
+    public void preloadAssets() throws Exception {
+        CountingClassLoader classLoader = new CountingClassLoader(true);
+        AssetStore assetStore = AssetStore.load(LOCATION, classLoader);
+        classLoader.resourceRequests.set(0);
+
+        assertTrue(assetStore.contains("/index.html"));
+        assertTrue(assetStore.contains("/static/js/main.js"));
+        assertTrue(assetStore.contains("/static/js/main.js.gz"));
+        assertFalse(assetStore.contains("/missing.js"));
+        assertFalse(assetStore.contains("/static"));
+        assertFalse(assetStore.contains("/../asset-store/index.html"));
+        assertFalse(assetStore.contains(null));
+        assertFalse(assetStore.send("/missing.js", new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        assertEquals(0, classLoader.resourceRequests.get());
+    }
+
+    @Test
+    public void sendPrecompressedVariant() throws Exception {
+        AssetStore assetStore = AssetStore.load(LOCATION, new CountingClassLoader(true));
+
+        MockHttpServletResponse gzipResponse = send(assetStore, "/static/js/main.js", "gzip, br");
+        assertEquals(Asset.GZIP, gzipResponse.getHeader("Content-Encoding"));
+        assertArrayEquals(readResource("/static/js/main.js.gz"), gzipResponse.getContentAsByteArray());
+
+        MockHttpServletResponse identityResponse = send(assetStore, "/static/js/main.js", null);
+        assertNull(identityResponse.getHeader("Content-Encoding"));
+        assertArrayEquals(readResource("/static/js/main.js"), identityResponse.getContentAsByteArray());
+    }
+
+    @Test
+    public void loadAssetsLazilyIfListingFails() throws Exception {
+        CountingClassLoader classLoader = new CountingClassLoader(false);
+        AssetStore assetStore = AssetStore.load(LOCATION, classLoader);
+
+        assertTrue(assetStore.contains("/static/js/main.js"));
+        MockHttpServletResponse gzipResponse = send(assetStore, "/static/js/main.js", "gzip");
+        assertArrayEquals(readResource("/static/js/main.js.gz"), gzipResponse.getContentAsByteArray());
+
+        classLoader.resourceRequests.set(0);
+        assertFalse(assetStore.contains("/missing.js"));
+        assertFalse(assetStore.contains("/missing.js"));
+        assertTrue(assetStore.contains("/static/js/main.js"));
+        assertEquals(1, classLoader.resourceRequests.get());
+    }
+
+    /**
+     * Counts the resource requests and optionally doesn't support listing resources, like some class loaders of nested jars.
+     */
+    private static final class CountingClassLoader extends ClassLoader {
+
+        private final boolean listing;
+        private final AtomicInteger resourceRequests = new AtomicInteger();
+
+        CountingClassLoader(boolean listing) {
+            super(AssetStoreTest.class.getClassLoader());
+            this.listing = listing;
+        }
+
+        @Override
+        public URL getResource(String name) {
+            this.resourceRequests.incrementAndGet();
+            return super.getResource(name);
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            if (!this.listing) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getResources(name);
+        }
+    }
+}
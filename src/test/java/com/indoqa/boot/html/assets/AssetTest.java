@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.indoqa.boot.resources.ETags;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class AssetTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String CACHE_CONTROL = "no-cache";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final String LAST_MODIFIED_HEADER = "Tue, 14 Nov 2023 22:13:20 GMT";
+
+    private static final byte[] BROTLI_BYTES = "brotli".getBytes(UTF_8);
+    private static final byte[] GZIP_BYTES = "gzip".getBytes(UTF_8);
+
+    private static Asset createAsset() {
+        return new Asset("/static/js/main.js", CONTENT.getBytes(UTF_8), LAST_MODIFIED, CACHE_CONTROL);
+    }
+
+    private static Asset createCompressedAsset() {
+        Asset result = createAsset();
+        result.addEncoding(Asset.GZIP, Asset.toBuffer(GZIP_BYTES), ETags.strong(GZIP_BYTES));
+        result.addEncoding(Asset.BROTLI, Asset.toBuffer(BROTLI_BYTES), ETags.strong(BROTLI_BYTES));
+        return result;
+    }
+
+    private static MockHttpServletRequest createRequest(String headerName, String headerValue) {
+        MockHttpServletRequest result = new MockHttpServletRequest("GET", "/static/js/main.js");
+        if (headerName != null) {
+            result.addHeader(headerName, headerValue);
+        }
+        return result;
+    }
+
+    private static MockHttpServletResponse send(Asset asset, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse result = new MockHttpServletResponse();
+        asset.send(request, result);
+        assertTrue(result.isCommitted());
+        return result;
+    }
+
+    @Test
+    public void sendAsset() throws Exception {
+        Asset asset = createAsset();
+        MockHttpServletResponse response = send(asset, createRequest(null, null));
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals(asset.getETag(), response.getHeader("ETag"));
+        assertEquals(LAST_MODIFIED_HEADER, response.getHeader("Last-Modified"));
+        assertEquals(CACHE_CONTROL, response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Vary"));
+    }
+
+    @Test
+    public void sendHead() throws Exception {
+        MockHttpServletRequest request = createRequest(null, null);
+        request.setMethod("HEAD");
+        MockHttpServletResponse response = send(createAsset(), request);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void selectEncoding() throws Exception {
+        Asset asset = createCompressedAsset();
+
+        MockHttpServletResponse brotliResponse = send(asset, createRequest("Accept-Encoding", "gzip, deflate, br"));
+        assertEquals(Asset.BROTLI, brotliResponse.getHeader("Content-Encoding"));
+        assertArrayEquals(BROTLI_BYTES, brotliResponse.getContentAsByteArray());
+        assertEquals(ETags.strong(BROTLI_BYTES), brotliResponse.getHeader("ETag"));
+        assertEquals("Accept-Encoding", brotliResponse.getHeader("Vary"));
+
+        MockHttpServletResponse gzipResponse = send(asset, createRequest("Accept-Encoding", "gzip, br;q=0"));
+        assertEquals(Asset.GZIP, gzipResponse.getHeader("Content-Encoding"));
+        assertArrayEquals(GZIP_BYTES, gzipResponse.getContentAsByteArray());
+        assertEquals(ETags.strong(GZIP_BYTES), gzipResponse.getHeader("ETag"));
+
+        MockHttpServletResponse identityResponse = send(asset, createRequest(null, null));
+        assertNull(identityResponse.getHeader("Content-Encoding"));
+        assertEquals(CONTENT, identityResponse.getContentAsString());
+        assertEquals(asset.getETag(), identityResponse.getHeader("ETag"));
+        assertEquals("Accept-Encoding", identityResponse.getHeader("Vary"));
+    }
+
+    @Test
+    public void ignoreDuplicateAndUnknownEncodings() throws Exception {
+        Asset asset = createCompressedAsset();
+        asset.addEncoding(Asset.GZIP, Asset.toBuffer(BROTLI_BYTES), ETags.strong(BROTLI_BYTES));
+        asset.addEncoding("deflate", Asset.toBuffer(BROTLI_BYTES), ETags.strong(BROTLI_BYTES));
+
+        MockHttpServletResponse gzipResponse = send(asset, createRequest("Accept-Encoding", "gzip"));
+        assertArrayEquals(GZIP_BYTES, gzipResponse.getContentAsByteArray());
+
+        MockHttpServletResponse deflateResponse = send(asset, createRequest("Accept-Encoding", "deflate"));
+        assertNull(deflateResponse.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void notModified() throws Exception {
+        Asset asset = createCompressedAsset();
+
+        MockHttpServletResponse response = send(asset, createRequest("If-None-Match", asset.getETag()));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(asset.getETag(), response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest gzipRequest = createRequest("If-None-Match", "W/" + ETags.strong(GZIP_BYTES));
+        gzipRequest.addHeader("Accept-Encoding", "gzip");
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, send(asset, gzipRequest).getStatus());
+
+        MockHttpServletResponse modifiedResponse = send(asset, createRequest("If-None-Match", "\"other\""));
+        assertEquals(HttpServletResponse.SC_OK, modifiedResponse.getStatus());
+        assertEquals(CONTENT, modifiedResponse.getContentAsString());
+    }
+
+    @Test
+    public void sendRange() throws Exception {
+        MockHttpServletResponse response = send(createAsset(), createRequest("Range", "bytes=2-4"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-4/10", response.getHeader("Content-Range"));
+        assertEquals(3, response.getContentLength());
+        assertEquals("234", response.getContentAsString());
+    }
+
+    @Test
+    public void sendSuffixRange() throws Exception {
+        MockHttpServletResponse response = send(createAsset(), createRequest("Range", "bytes=-3"));
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 7-9/10", response.getHeader("Content-Range"));
+        assertEquals("789", response.getContentAsString());
+    }
+
+    @Test
+    public void sendRangeIfUnchanged() throws Exception {
+        Asset asset = createAsset();
+
+        MockHttpServletRequest etagRequest = createRequest("Range", "bytes=5-");
+        etagRequest.addHeader("If-Range", asset.getETag());
+        MockHttpServletResponse etagResponse = send(asset, etagRequest);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, etagResponse.getStatus());
+        assertEquals("56789", etagResponse.getContentAsString());
+
+        MockHttpServletRequest dateRequest = createRequest("Range", "bytes=5-");
+        dateRequest.addHeader("If-Range", LAST_MODIFIED_HEADER);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, send(asset, dateRequest).getStatus());
+    }
+
+    @Test
+    public void sendCompleteAssetIfChanged() throws Exception {
+        MockHttpServletRequest request = createRequest("Range", "bytes=5-");
+        request.addHeader("If-Range", "\"outdated\"");
+        MockHttpServletResponse response = send(createAsset(), request);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Content-Range"));
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void rangeNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = send(createAsset(), createRequest("Range", "bytes=10-"));
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void ignoreMultipleRanges() throws Exception {
+        MockHttpServletResponse response = send(createAsset(), createRequest("Range", "bytes=0-1,4-5"));
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ByteRangeTest {
+
+    private static final long LENGTH = 100;
+
+    private static void assertRange(long start, long end, ByteRange range) {
+        assertNotNull(range);
+        assertEquals(start, range.getStart());
+        assertEquals(end, range.getEnd());
+        assertEquals(end - start + 1, range.getLength());
+    }
+
+    @Test
+    public void parseRanges() {
+        assertRange(0, 9, ByteRange.parse("bytes=0-9", LENGTH));
+        assertRange(50, 99, ByteRange.parse("bytes=50-", LENGTH));
+        assertRange(50, 99, ByteRange.parse("bytes=50-1000", LENGTH));
+        assertRange(99, 99, ByteRange.parse("bytes=99-99", LENGTH));
+    }
+
+    @Test
+    public void parseSuffixRanges() {
+        assertRange(90, 99, ByteRange.parse("bytes=-10", LENGTH));
+        assertRange(0, 99, ByteRange.parse("bytes=-1000", LENGTH));
+    }
+
+    @Test
+    public void unsatisfiableRanges() {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100-", LENGTH));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", LENGTH));
+    }
+
+    @Test
+    public void ignoreInvalidRanges() {
+        assertNull(ByteRange.parse(null, LENGTH));
+        assertNull(ByteRange.parse("bytes=0-9", 0));
+        assertNull(ByteRange.parse("items=0-9", LENGTH));
+        assertNull(ByteRange.parse("bytes=0-9,20-29", LENGTH));
+        assertNull(ByteRange.parse("bytes=9-0", LENGTH));
+        assertNull(ByteRange.parse("bytes=a-b", LENGTH));
+        assertNull(ByteRange.parse("bytes=10", LENGTH));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.assets;
+
+import static com.indoqa.boot.html.assets.CachePolicy.CACHE_CONTROL_IMMUTABLE;
+import static com.indoqa.boot.html.assets.CachePolicy.CACHE_CONTROL_REVALIDATE;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CachePolicyTest {
+
+    private static final ClassLoader CLASS_LOADER = CachePolicyTest.class.getClassLoader();
+
+    @Test
+    public void fingerprintedFilesOfTheManifestAreImmutable() {
+        CachePolicy cachePolicy = CachePolicy.load(CLASS_LOADER, "cache-policy");
+
+        assertEquals(CACHE_CONTROL_IMMUTABLE, cachePolicy.getCacheControl("/static/js/main.3f2a1b9c.js"));
+        assertEquals(CACHE_CONTROL_IMMUTABLE, cachePolicy.getCacheControl("/static/js/main.3f2a1b9c.js.br"));
+        assertEquals(CACHE_CONTROL_IMMUTABLE, cachePolicy.getCacheControl("/static/js/787.8c1d3e2f.chunk.js"));
+        assertEquals(CACHE_CONTROL_IMMUTABLE, cachePolicy.getCacheControl("/static/css/main.8c8b27cf.css.gz"));
+        assertEquals(CACHE_CONTROL_IMMUTABLE, cachePolicy.getCacheControl("/static/media/logo.6ce24c58023cc2f8fd88fe9d219db6c6.svg"));
+    }
+
+    @Test
+    public void otherFilesAreRevalidated() {
+        CachePolicy cachePolicy = CachePolicy.load(CLASS_LOADER, "cache-policy");
+
+        assertEquals(CACHE_CONTROL_REVALIDATE, cachePolicy.getCacheControl("/index.html"));
+        assertEquals(CACHE_CONTROL_REVALIDATE, cachePolicy.getCacheControl("/favicon.ico"));
+        assertEquals(CACHE_CONTROL_REVALIDATE, cachePolicy.getCacheControl("/asset-manifest.json"));
+        assertEquals(CACHE_CONTROL_REVALIDATE, cachePolicy.getCacheControl("/static/js/main.0123abcd.js"));
+    }
+
+    @Test
+    public void withoutManifestAllFilesAreRevalidated() {
+        CachePolicy cachePolicy = CachePolicy.load(CLASS_LOADER, "missing");
+
+        assertEquals(CACHE_CONTROL_REVALIDATE, cachePolicy.getCacheControl("/static/js/main.3f2a1b9c.js"));
+    }
+}
@@ -37,6 +37,16 @@ public class HtmlPartsTest {
         assertEquals("<title>bar</title>", htmlParts.getTitle());
     }
 
+    @Test
+    public void findPartsWithComplexAttributes() {
+        HtmlParts htmlParts = new HtmlParts(
+            "<html lang=\"en\" data-theme='a>b'><head><header></header><title class=\"t\">bar</title></head><body>a</body></html>");
+        assertEquals("<html lang=\"en\" data-theme='a>b'>", htmlParts.getHtmlElement());
+        assertEquals("<header></header>", htmlParts.getHeadContent());
+        assertEquals("<title class=\"t\">bar</title>", htmlParts.getTitle());
+        assertEquals("a", htmlParts.getBodyContent());
+    }
+
     @Test
     public void findNoParts() {
         HtmlParts htmlParts = new HtmlParts("foo");
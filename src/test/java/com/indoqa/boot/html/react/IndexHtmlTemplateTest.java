@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.html.react;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+
+import com.indoqa.boot.html.react.IndexHtmlBuilder.HtmlParts;
+import com.indoqa.boot.json.transformer.HtmlEscapingJacksonTransformer;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import org.junit.Test;
+
+public class IndexHtmlTemplateTest {
+
+    private static final String INDEX_HTML = "<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\"><title>App</title></head>"
+        + "<body><div id=\"root\"></div></body></html>";
+    private static final String AFTER_INITIAL_STATE = ";</script><div id=\"root\"></div></body></html>";
+
+    private final IndexHtmlTemplate template = new IndexHtmlTemplate(new HtmlParts(INDEX_HTML));
+
+    @Test
+    public void writeInitialState() throws Exception {
+        CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+        Object initialState = Collections.singletonMap("user", "<b>");
+        this.template.write(outputStream, "de", null, null, initialState, new HtmlEscapingJacksonTransformer());
+
+        assertFalse(outputStream.closed);
+        assertEquals(
+            "<!DOCTYPE html><html lang=\"de\"><head><meta charset=\"utf-8\"><title>App</title></head><body>"
+                + "<script>window.__INITIAL_STATE__ = {\"user\":\"&lt;b&gt;\"}" + AFTER_INITIAL_STATE,
+            outputStream.toString(UTF_8));
+    }
+
+    @Test
+    public void writeInitialStateOfClosingTransformer() throws Exception {
+        CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+        this.template.write(outputStream, null, null, null, "state", new ClosingTransformer());
+
+        assertFalse(outputStream.closed);
+        assertTrue(outputStream.toString(UTF_8).endsWith("window.__INITIAL_STATE__ = \"state\"" + AFTER_INITIAL_STATE));
+    }
+
+    @Test
+    public void writeWithoutInitialState() throws Exception {
+        CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+        this.template.write(outputStream, null, "<link rel=\"icon\">", "Title", null, null);
+
+        assertFalse(outputStream.closed);
+        assertEquals(
+            "<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\"><link rel=\"icon\"><title>Title</title></head><body>"
+                + "<script>window.__INITIAL_STATE__ = {}" + AFTER_INITIAL_STATE,
+            outputStream.toString(UTF_8));
+    }
+
+    /**
+     * A transformer that closes the output stream after writing, like Jackson with AUTO_CLOSE_TARGET.
+     */
+    private static final class ClosingTransformer implements JsonTransformer {
+
+        @Override
+        public String render(Object model) {
+            return "\"" + model + "\"";
+        }
+
+        @Override
+        public <T> T toObject(String json, Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(Object model, OutputStream outputStream) throws IOException {
+            outputStream.write(this.render(model).getBytes(UTF_8));
+            outputStream.close();
+        }
+    }
+
+    private static final class CloseTrackingOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            assertFalse("The output stream is closed.", this.closed);
+            super.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.indoqa.boot.json.transformer.JacksonTransformer;
+import com.indoqa.boot.json.transformer.JsonTransformer;
+import com.indoqa.boot.resources.ETags;
+import com.indoqa.boot.spark.AsyncRouteResponse;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import spark.RequestResponseFactory;
+import spark.Route;
+
+public class ConditionalRouteTest {
+
+    private static final JsonTransformer TRANSFORMER = new JacksonTransformer();
+    private static final String BODY = "{\"name\":\"value\"}";
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final Route route = (request, response) -> {
+        this.invocations.incrementAndGet();
+        return Collections.singletonMap("name", "value");
+    };
+
+    private static MockHttpServletRequest createRequest(String ifNoneMatch) {
+        MockHttpServletRequest result = new MockHttpServletRequest("GET", "/resource");
+        if (ifNoneMatch != null) {
+            result.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return result;
+    }
+
+    private static MockHttpServletResponse handle(Route route, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse result = new MockHttpServletResponse();
+        assertNull(route.handle(RequestResponseFactory.create(request), RequestResponseFactory.create(result)));
+        return result;
+    }
+
+    @Test
+    public void asyncPending() throws Exception {
+        Route asyncRoute = (request, response) -> "";
+        MockHttpServletRequest rawRequest = createRequest(ETags.weak("\"\"".getBytes(UTF_8)));
+        rawRequest.setAttribute(AsyncRouteResponse.ATTRIBUTE_ASYNC_PENDING, Boolean.TRUE);
+        MockHttpServletResponse rawResponse = new MockHttpServletResponse();
+
+        Object result = new ConditionalRoute(asyncRoute, request -> TRANSFORMER, null)
+            .handle(RequestResponseFactory.create(rawRequest), RequestResponseFactory.create(rawResponse));
+
+        assertEquals("", result);
+        assertEquals(200, rawResponse.getStatus());
+        assertNull(rawResponse.getHeader("ETag"));
+        assertFalse(rawResponse.isCommitted());
+    }
+
+    @Test
+    public void computedETag() throws Exception {
+        MockHttpServletResponse response = handle(new ConditionalRoute(this.route, request -> TRANSFORMER, null), createRequest(null));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(ETags.weak(BODY.getBytes(UTF_8)), response.getHeader("ETag"));
+        assertEquals(1, response.getHeaders("ETag").size());
+        assertEquals("application/json", response.getContentType());
+        assertEquals(BODY.length(), response.getContentLength());
+        assertEquals(BODY, response.getContentAsString());
+        assertTrue(response.isCommitted());
+    }
+
+    @Test
+    public void computedETagNotModified() throws Exception {
+        String etag = ETags.weak(BODY.getBytes(UTF_8));
+        ConditionalRoute conditionalRoute = new ConditionalRoute(this.route, request -> TRANSFORMER, null);
+
+        MockHttpServletResponse response = handle(conditionalRoute, createRequest("\"other\", " + etag));
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        // weak comparison
+        assertEquals(304, handle(conditionalRoute, createRequest(etag.substring(2))).getStatus());
+        assertEquals(304, handle(conditionalRoute, createRequest("*")).getStatus());
+        assertEquals(200, handle(conditionalRoute, createRequest("W/\"other\"")).getStatus());
+    }
+
+    @Test
+    public void providedETag() throws Exception {
+        ConditionalRoute conditionalRoute = new ConditionalRoute(this.route, request -> TRANSFORMER, request -> "42");
+
+        Object result = conditionalRoute.handle(
+            RequestResponseFactory.create(createRequest(null)),
+            RequestResponseFactory.create(new MockHttpServletResponse()));
+        assertEquals(Collections.singletonMap("name", "value"), result);
+        assertEquals(1, this.invocations.get());
+
+        MockHttpServletResponse response = handle(conditionalRoute, createRequest("W/\"42\""));
+        assertEquals(304, response.getStatus());
+        assertEquals("W/\"42\"", response.getHeader("ETag"));
+        assertEquals(1, this.invocations.get());
+    }
+}
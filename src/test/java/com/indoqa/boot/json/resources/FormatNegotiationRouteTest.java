@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class FormatNegotiationRouteTest {
+
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String CBOR = "application/cbor";
+
+    private static final List<String> CONTENT_TYPES = Arrays.asList(JSON, NDJSON, SMILE, CBOR);
+
+    private static String negotiate(String accept) {
+        return FormatNegotiationRoute.negotiate(accept, CONTENT_TYPES);
+    }
+
+    @Test
+    public void anyMediaRange() {
+        assertEquals(JSON, negotiate("*/*"));
+        assertEquals(JSON, negotiate("application/*"));
+        assertEquals(JSON, negotiate("text/html, application/xhtml+xml, */*;q=0.8"));
+    }
+
+    @Test
+    public void binaryFormats() {
+        assertEquals(SMILE, negotiate(SMILE));
+        assertEquals(CBOR, negotiate("application/cbor, */*;q=0.5"));
+        assertEquals(CBOR, negotiate("application/json;q=0.5, application/cbor"));
+        assertEquals(JSON, negotiate("application/json, application/cbor"));
+        assertEquals(NDJSON, negotiate(NDJSON));
+    }
+
+    @Test
+    public void json() {
+        assertEquals(JSON, negotiate(JSON));
+        assertEquals(JSON, negotiate("application/json;charset=UTF-8"));
+        assertEquals(JSON, negotiate("Application/JSON"));
+    }
+
+    @Test
+    public void missingAcceptHeader() {
+        assertEquals(JSON, negotiate(null));
+        assertEquals(JSON, negotiate(""));
+    }
+
+    @Test
+    public void quality() {
+        assertEquals(1, FormatNegotiationRoute.getQuality("*/*", SMILE), 0);
+        assertEquals(0.5, FormatNegotiationRoute.getQuality("application/*;q=0.5, */*;q=0.1", SMILE), 0);
+        assertEquals(0, FormatNegotiationRoute.getQuality("application/x-jackson-smile;q=0, */*", SMILE), 0);
+        assertEquals(0, FormatNegotiationRoute.getQuality("text/html", SMILE), 0);
+        assertEquals(JSON, negotiate("application/x-jackson-smile;q=0, */*"));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.indoqa.boot.json.transformer.JacksonTransformer;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import spark.RequestResponseFactory;
+import spark.Route;
+
+public class RenderedResponseCacheTest {
+
+    private final AtomicLong revision = new AtomicLong();
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final RenderedResponseCache cache = new RenderedResponseCache(this.revision::get);
+
+    private final Route route = (request, response) -> Collections.singletonMap("invocation", this.invocations.incrementAndGet());
+
+    private static String handle(Route route) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resource");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(route.handle(RequestResponseFactory.create(request), RequestResponseFactory.create(response)));
+        return response.getContentAsString();
+    }
+
+    @Test
+    public void renderOnlyOnce() throws Exception {
+        Route preRenderedRoute = new PreRenderedRoute(this.route, this.cache, new JacksonTransformer());
+
+        assertEquals("{\"invocation\":1}", handle(preRenderedRoute));
+        assertEquals("{\"invocation\":1}", handle(preRenderedRoute));
+        assertEquals(1, this.invocations.get());
+    }
+
+    @Test
+    public void renderAgainAfterRevisionChange() throws Exception {
+        Route preRenderedRoute = new PreRenderedRoute(this.route, this.cache, new JacksonTransformer());
+        handle(preRenderedRoute);
+
+        this.revision.incrementAndGet();
+        assertNull(this.cache.get());
+        assertEquals("{\"invocation\":2}", handle(preRenderedRoute));
+        assertEquals("{\"invocation\":2}", handle(preRenderedRoute));
+        assertEquals(2, this.invocations.get());
+    }
+
+    @Test
+    public void renderAgainAfterInvalidation() throws Exception {
+        Route preRenderedRoute = new PreRenderedRoute(this.route, this.cache, new JacksonTransformer());
+        handle(preRenderedRoute);
+
+        this.cache.invalidate();
+        assertNull(this.cache.get());
+        assertEquals("{\"invocation\":2}", handle(preRenderedRoute));
+        assertEquals(2, this.invocations.get());
+    }
+
+    @Test
+    public void modificationWhileRenderingInvalidatesResponse() throws Exception {
+        Route modifyingRoute = (request, response) -> {
+            Object result = this.route.handle(request, response);
+            this.revision.incrementAndGet();
+            return result;
+        };
+        Route preRenderedRoute = new PreRenderedRoute(modifyingRoute, this.cache, new JacksonTransformer());
+
+        assertEquals("{\"invocation\":1}", handle(preRenderedRoute));
+        assertNull(this.cache.get());
+        assertEquals("{\"invocation\":2}", handle(preRenderedRoute));
+    }
+
+    @Test
+    public void nullIsNotCached() throws Exception {
+        Route preRenderedRoute = new PreRenderedRoute((request, response) -> {
+            this.invocations.incrementAndGet();
+            return null;
+        }, this.cache, new JacksonTransformer());
+
+        assertEquals("", handle(preRenderedRoute));
+        assertEquals("", handle(preRenderedRoute));
+        assertNull(this.cache.get());
+        assertEquals(2, this.invocations.get());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import spark.Request;
+import spark.RequestResponseFactory;
+
+public class RequestCoalescerTest {
+
+    private final Function<Request, String> keyFunction = RequestCoalescer.createDefaultKeyFunction();
+
+    private static MockHttpServletRequest createRequest(String queryString) {
+        MockHttpServletRequest result = new MockHttpServletRequest("GET", "/resource");
+        result.setPathInfo("/resource");
+        result.setQueryString(queryString);
+        return result;
+    }
+
+    private String getKey(MockHttpServletRequest request) {
+        return this.keyFunction.apply(RequestResponseFactory.create(request));
+    }
+
+    @Test
+    public void sameRequestsHaveSameKey() {
+        MockHttpServletRequest request = createRequest("page=1");
+        request.addHeader("Authorization", "Bearer token");
+
+        MockHttpServletRequest otherRequest = createRequest("page=1");
+        otherRequest.addHeader("Authorization", "Bearer token");
+
+        assertEquals(this.getKey(request), this.getKey(otherRequest));
+    }
+
+    @Test
+    public void queryStringIsPartOfKey() {
+        assertNotEquals(this.getKey(createRequest("page=1")), this.getKey(createRequest("page=2")));
+        assertNotEquals(this.getKey(createRequest(null)), this.getKey(createRequest("page=1")));
+    }
+
+    @Test
+    public void credentialsArePartOfKey() {
+        MockHttpServletRequest anonymous = createRequest(null);
+
+        MockHttpServletRequest user = createRequest(null);
+        user.addHeader("Authorization", "Bearer user");
+
+        MockHttpServletRequest otherUser = createRequest(null);
+        otherUser.addHeader("Authorization", "Bearer other-user");
+
+        MockHttpServletRequest session = createRequest(null);
+        session.addHeader("Cookie", "JSESSIONID=1");
+
+        MockHttpServletRequest otherSession = createRequest(null);
+        otherSession.addHeader("Cookie", "JSESSIONID=2");
+
+        assertNotEquals(this.getKey(anonymous), this.getKey(user));
+        assertNotEquals(this.getKey(user), this.getKey(otherUser));
+        assertNotEquals(this.getKey(anonymous), this.getKey(session));
+        assertNotEquals(this.getKey(session), this.getKey(otherSession));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.indoqa.boot.json.transformer.JacksonTransformer;
+
+import spark.RequestResponseFactory;
+import spark.Route;
+
+public class ResponseCacheTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final Route route = (request, response) -> Collections.singletonMap("invocation", this.invocations.incrementAndGet());
+
+    private static MockHttpServletRequest createRequest(String header, String value) {
+        MockHttpServletRequest result = new MockHttpServletRequest("GET", "/resource");
+        result.setPathInfo("/resource");
+        if (header != null) {
+            result.addHeader(header, value);
+        }
+        return result;
+    }
+
+    private static String handle(Route route, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        route.handle(RequestResponseFactory.create(request), RequestResponseFactory.create(response));
+        return response.getContentAsString();
+    }
+
+    @Test
+    public void responsesAreShared() throws Exception {
+        Route cachedRoute = ResponseCache.builder("shared").build().wrap(this.route, new JacksonTransformer());
+
+        assertEquals("{\"invocation\":1}", handle(cachedRoute, createRequest(null, null)));
+        assertEquals("{\"invocation\":1}", handle(cachedRoute, createRequest(null, null)));
+        assertEquals(1, this.invocations.get());
+    }
+
+    @Test
+    public void responsesAreNotSharedBetweenCredentials() throws Exception {
+        Route cachedRoute = ResponseCache.builder("credentials").build().wrap(this.route, new JacksonTransformer());
+
+        assertEquals("{\"invocation\":1}", handle(cachedRoute, createRequest(null, null)));
+        assertEquals("{\"invocation\":2}", handle(cachedRoute, createRequest("Authorization", "Bearer user")));
+        assertEquals("{\"invocation\":3}", handle(cachedRoute, createRequest("Authorization", "Bearer other-user")));
+        assertEquals("{\"invocation\":4}", handle(cachedRoute, createRequest("Cookie", "JSESSIONID=1")));
+        assertEquals("{\"invocation\":2}", handle(cachedRoute, createRequest("Authorization", "Bearer user")));
+        assertEquals("{\"invocation\":4}", handle(cachedRoute, createRequest("Cookie", "JSESSIONID=1")));
+        assertEquals(4, this.invocations.get());
+    }
+
+    @Test
+    public void keyFunctionReplacesCredentials() throws Exception {
+        Route cachedRoute = ResponseCache
+            .builder("key-function")
+            .keyFunction(request -> request.pathInfo())
+            .build()
+            .wrap(this.route, new JacksonTransformer());
+
+        assertEquals("{\"invocation\":1}", handle(cachedRoute, createRequest("Authorization", "Bearer user")));
+        assertEquals("{\"invocation\":1}", handle(cachedRoute, createRequest("Authorization", "Bearer other-user")));
+        assertEquals(1, this.invocations.get());
+    }
+}
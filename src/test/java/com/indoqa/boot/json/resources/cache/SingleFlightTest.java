@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.indoqa.boot.actuate.metrics.Metric;
+import com.indoqa.boot.json.transformer.JacksonTransformer;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private static final String KEY = "/resource";
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch leaderReleased = new CountDownLatch(1);
+
+    private static CachedResponse createResponse() throws Exception {
+        return CachedResponse.render("response", new JacksonTransformer(), "application/json", System.nanoTime());
+    }
+
+    private static Map<String, Number> getMetrics(SingleFlight singleFlight) {
+        Map<String, Number> result = new HashMap<>();
+        for (Metric<?> metric : singleFlight.metrics("")) {
+            result.put(metric.getName(), metric.getValue());
+        }
+        return result;
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long end = System.nanoTime() + SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue("The follower doesn't wait for the leader.", System.nanoTime() < end);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void followerGetsResponseOfLeader() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(SECONDS.toNanos(10));
+        CachedResponse response = createResponse();
+
+        CompletableFuture<Object> leader = this.executeLeader(singleFlight, response);
+        CompletableFuture<Object> followerResult = new CompletableFuture<>();
+        Thread follower = new Thread(() -> this.executeFollower(singleFlight, followerResult));
+        follower.start();
+        awaitWaiting(follower);
+        assertEquals(1, getMetrics(singleFlight).get("in_flight"));
+
+        this.leaderReleased.countDown();
+        assertSame(response, leader.get(10, SECONDS));
+        assertSame(response, followerResult.get(10, SECONDS));
+        assertEquals(1, this.invocations.get());
+
+        Map<String, Number> metrics = getMetrics(singleFlight);
+        assertEquals(1L, metrics.get("executions"));
+        assertEquals(1L, metrics.get("coalesced"));
+        assertEquals(0L, metrics.get("fallbacks"));
+        assertEquals(0.5, metrics.get("coalescing_ratio"));
+        assertEquals(0, metrics.get("in_flight"));
+    }
+
+    @Test
+    public void followerExecutesAfterTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(MILLISECONDS.toNanos(10));
+
+        CompletableFuture<Object> leader = this.executeLeader(singleFlight, createResponse());
+        Object result = singleFlight.execute(KEY, () -> {
+            this.invocations.incrementAndGet();
+            return "fallback";
+        });
+        assertEquals("fallback", result);
+
+        this.leaderReleased.countDown();
+        leader.get(10, SECONDS);
+        assertEquals(2, this.invocations.get());
+
+        Map<String, Number> metrics = getMetrics(singleFlight);
+        assertEquals(1L, metrics.get("executions"));
+        assertEquals(0L, metrics.get("coalesced"));
+        assertEquals(1L, metrics.get("fallbacks"));
+    }
+
+    @Test
+    public void followerExecutesAfterFailure() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(SECONDS.toNanos(10));
+
+        CompletableFuture<Object> leader = this.executeLeader(singleFlight, null);
+        CompletableFuture<Object> followerResult = new CompletableFuture<>();
+        Thread follower = new Thread(() -> this.executeFollower(singleFlight, followerResult));
+        follower.start();
+        awaitWaiting(follower);
+
+        this.leaderReleased.countDown();
+        try {
+            leader.get(10, SECONDS);
+            fail("The leader must fail.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("follower", followerResult.get(10, SECONDS));
+        assertEquals(2, this.invocations.get());
+        assertEquals(1L, getMetrics(singleFlight).get("fallbacks"));
+    }
+
+    @Test
+    public void differentKeysAreNotCoalesced() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(SECONDS.toNanos(10));
+
+        CompletableFuture<Object> leader = this.executeLeader(singleFlight, createResponse());
+        assertEquals("other", singleFlight.execute("/other", () -> "other"));
+
+        this.leaderReleased.countDown();
+        leader.get(10, SECONDS);
+        assertEquals(2L, getMetrics(singleFlight).get("executions"));
+    }
+
+    private CompletableFuture<Object> executeLeader(SingleFlight singleFlight, CachedResponse response) throws Exception {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                result.complete(singleFlight.execute(KEY, () -> {
+                    this.invocations.incrementAndGet();
+                    this.leaderStarted.countDown();
+                    this.leaderReleased.await();
+                    if (response == null) {
+                        throw new IllegalStateException("The leader failed.");
+                    }
+                    return response;
+                }));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }).start();
+
+        assertTrue(this.leaderStarted.await(10, SECONDS));
+        return result;
+    }
+
+    private void executeFollower(SingleFlight singleFlight, CompletableFuture<Object> result) {
+        try {
+            result.complete(singleFlight.execute(KEY, () -> {
+                this.invocations.incrementAndGet();
+                return "follower";
+            }));
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
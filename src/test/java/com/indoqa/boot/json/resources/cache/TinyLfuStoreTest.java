@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.resources.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.indoqa.boot.json.transformer.JacksonTransformer;
+
+public class TinyLfuStoreTest {
+
+    private static final int MAX_BYTES = 100_000;
+
+    private static CachedResponse createResponse(int index) throws Exception {
+        return CachedResponse.render("response-" + index, new JacksonTransformer(), "application/json", System.nanoTime());
+    }
+
+    private static void request(TinyLfuStore store, String key, int index) throws Exception {
+        if (store.get(key) == null) {
+            store.put(key, createResponse(index));
+        }
+    }
+
+    @Test
+    public void frequentlyRequestedResponsesSurviveScans() throws Exception {
+        TinyLfuStore store = new TinyLfuStore(MAX_BYTES);
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 20; i++) {
+                request(store, "popular-" + i, i);
+            }
+            for (int i = 0; i < 100; i++) {
+                request(store, "one-off-" + round + "-" + i, i);
+            }
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(store.get("popular-" + i));
+        }
+        assertTrue(store.getBytes() <= MAX_BYTES);
+        assertTrue(store.getEvictions() > 0);
+    }
+
+    @Test
+    public void remove() throws Exception {
+        TinyLfuStore store = new TinyLfuStore(MAX_BYTES);
+        store.put("key", createResponse(1));
+        assertEquals(1, store.getSize());
+
+        store.remove("key");
+        assertNull(store.get("key"));
+        assertEquals(0, store.getBytes());
+    }
+}
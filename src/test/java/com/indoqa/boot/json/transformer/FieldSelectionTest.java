@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.junit.Test;
+
+public class FieldSelectionTest {
+
+    private static final JsonTransformer TRANSFORMER = new JacksonTransformer();
+
+    private static String render(String fields) {
+        return TRANSFORMER.select(fields).render(new Person());
+    }
+
+    @Test
+    public void arrays() {
+        assertEquals("{\"children\":[{\"name\":\"child-1\"},{\"name\":\"child-2\"}]}", render("children.name"));
+        assertEquals("[{\"id\":1},{\"id\":1}]", TRANSFORMER.select("id").render(Arrays.asList(new Person(), new Person())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyField() {
+        render("id,,name");
+    }
+
+    @Test
+    public void nestedFields() {
+        assertEquals("{\"address\":{\"city\":\"Vienna\"}}", render("address.city"));
+        assertEquals("{\"id\":1,\"address\":{\"street\":\"Street\",\"city\":\"Vienna\"}}", render("id,address(street,city)"));
+        assertEquals("{\"address\":{\"street\":\"Street\",\"city\":\"Vienna\",\"zip\":\"1010\"}}", render("address,address.city"));
+    }
+
+    @Test
+    public void topLevelFields() {
+        assertEquals("{\"id\":1,\"name\":\"name\"}", render("id,name"));
+        assertEquals("{\"id\":1,\"name\":\"name\"}", render(" name , id "));
+        assertEquals("{}", render("unknown"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unbalancedParentheses() {
+        render("address(city");
+    }
+
+    @Test
+    public void unfiltered() {
+        assertEquals(
+            "{\"id\":1,\"name\":\"name\",\"address\":{\"street\":\"Street\",\"city\":\"Vienna\",\"zip\":\"1010\"},"
+                + "\"children\":[{\"name\":\"child-1\",\"age\":3},{\"name\":\"child-2\",\"age\":5}]}",
+            TRANSFORMER.render(new Person()));
+    }
+
+    @JsonPropertyOrder({"street", "city", "zip"})
+    public static class Address {
+
+        public String getCity() {
+            return "Vienna";
+        }
+
+        public String getStreet() {
+            return "Street";
+        }
+
+        public String getZip() {
+            return "1010";
+        }
+    }
+
+    @JsonPropertyOrder({"name", "age"})
+    public static class Child {
+
+        private final String name;
+        private final int age;
+
+        public Child(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public int getAge() {
+            return this.age;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    @JsonPropertyOrder({"id", "name", "address", "children"})
+    public static class Person {
+
+        public Address getAddress() {
+            return new Address();
+        }
+
+        public List<Child> getChildren() {
+            return Arrays.asList(new Child("child-1", 3), new Child("child-2", 5));
+        }
+
+        public int getId() {
+            return 1;
+        }
+
+        public String getName() {
+            return "name";
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import javax.annotation.processing.Processor;
+import javax.tools.*;
+import javax.tools.JavaCompiler.CompilationTask;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.indoqa.boot.json.processor.IndoqaJsonProcessor;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+/**
+ * Compiles beans with the {@link IndoqaJsonProcessor} and compares the output of the generated serializers with Jackson's bean
+ * serializers.
+ */
+public class GeneratedSerializersTest {
+
+    private static final String CUSTOMER = "package test.json;\n"
+        + "@com.indoqa.boot.json.annotation.IndoqaJson\n"
+        + "public class Customer {\n"
+        + "    private String name;\n"
+        + "    private String url;\n"
+        + "    public String getName() { return this.name; }\n"
+        + "    public void setName(String name) { this.name = name; }\n"
+        + "    public String getURL() { return this.url; }\n"
+        + "    public void setURL(String url) { this.url = url; }\n"
+        + "}\n";
+
+    private static final String ORDER = "package test.json;\n"
+        + "import com.fasterxml.jackson.annotation.JsonIgnore;\n"
+        + "import com.fasterxml.jackson.annotation.JsonProperty;\n"
+        + "@com.indoqa.boot.json.annotation.IndoqaJson\n"
+        + "public class Order {\n"
+        + "    private String id;\n"
+        + "    private int quantity;\n"
+        + "    private boolean paid;\n"
+        + "    private double totalPrice;\n"
+        + "    private String note;\n"
+        + "    private java.util.List<String> tags;\n"
+        + "    private Customer customer;\n"
+        + "    private String secret;\n"
+        + "    public String getId() { return this.id; }\n"
+        + "    public void setId(String id) { this.id = id; }\n"
+        + "    public int getQuantity() { return this.quantity; }\n"
+        + "    public void setQuantity(int quantity) { this.quantity = quantity; }\n"
+        + "    public boolean isPaid() { return this.paid; }\n"
+        + "    public void setPaid(boolean paid) { this.paid = paid; }\n"
+        + "    @JsonProperty(\"total-price\") public double getTotalPrice() { return this.totalPrice; }\n"
+        + "    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }\n"
+        + "    public String getNote() { return this.note; }\n"
+        + "    public void setNote(String note) { this.note = note; }\n"
+        + "    public java.util.List<String> getTags() { return this.tags; }\n"
+        + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n"
+        + "    public Customer getCustomer() { return this.customer; }\n"
+        + "    public void setCustomer(Customer customer) { this.customer = customer; }\n"
+        + "    @JsonIgnore public String getSecret() { return this.secret; }\n"
+        + "    public void setSecret(String secret) { this.secret = secret; }\n"
+        + "}\n";
+
+    private static final String SPECIAL_ORDER = "package test.json;\n"
+        + "public class SpecialOrder extends Order {\n"
+        + "    public int getPriority() { return 1; }\n"
+        + "}\n";
+
+    private static final ClassLoader CLASS_LOADER = compileBeans();
+
+    private static ClassLoader compileBeans() {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("test.json.Customer", CUSTOMER);
+        sources.put("test.json.Order", ORDER);
+        sources.put("test.json.SpecialOrder", SPECIAL_ORDER);
+
+        Compilation compilation = compile(sources);
+        assertTrue(compilation.getErrors(), compilation.isSuccess());
+        return compilation.getClassLoader();
+    }
+
+    private static Compilation compile(Map<String, String> sources) {
+        try {
+            Path directory = Files.createTempDirectory("indoqa-json");
+            FileUtils.forceDeleteOnExit(directory.toFile());
+
+            List<JavaFileObject> files = new ArrayList<>();
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                files.add(new SourceFile(source.getKey(), source.getValue()));
+            }
+
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, UTF_8)) {
+                fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, Collections.singletonList(directory));
+                fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(directory));
+
+                List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"));
+                CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, files);
+                task.setProcessors(Collections.singletonList(new IndoqaJsonProcessor()));
+                boolean success = task.call();
+
+                ClassLoader classLoader = new URLClassLoader(
+                    new URL[] {directory.toUri().toURL()},
+                    GeneratedSerializersTest.class.getClassLoader());
+                return new Compilation(success, diagnostics.getDiagnostics(), classLoader);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't compile the test beans.", e);
+        }
+    }
+
+    private static Object createOrder(boolean complete) throws ReflectiveOperationException {
+        Object customer = newInstance("test.json.Customer");
+        set(customer, "setName", String.class, "customer");
+        set(customer, "setURL", String.class, "https://www.indoqa.com");
+
+        Object order = newInstance("test.json.Order");
+        set(order, "setId", String.class, "order-1");
+        set(order, "setQuantity", int.class, 3);
+        set(order, "setPaid", boolean.class, true);
+        set(order, "setTotalPrice", double.class, 12.5);
+        set(order, "setSecret", String.class, "secret");
+        if (complete) {
+            set(order, "setNote", String.class, "");
+            set(order, "setTags", List.class, Arrays.asList("a", "b"));
+            set(order, "setCustomer", loadClass("test.json.Customer"), customer);
+        }
+        return order;
+    }
+
+    private static ObjectMapper createGeneratedMapper() {
+        return new ObjectMapper().registerModule(new GeneratedSerializersModule(CLASS_LOADER));
+    }
+
+    private static boolean isGenerated(ObjectMapper objectMapper, String className) throws Exception {
+        return objectMapper
+            .getSerializerProviderInstance()
+            .findValueSerializer(loadClass(className))
+            .getClass()
+            .getName()
+            .endsWith("_IndoqaJsonSerializer");
+    }
+
+    private static Class<?> loadClass(String className) throws ClassNotFoundException {
+        return Class.forName(className, true, CLASS_LOADER);
+    }
+
+    private static Object newInstance(String className) throws ReflectiveOperationException {
+        return loadClass(className).getDeclaredConstructor().newInstance();
+    }
+
+    private static void set(Object bean, String setter, Class<?> type, Object value) throws ReflectiveOperationException {
+        bean.getClass().getMethod(setter, type).invoke(bean, value);
+    }
+
+    private static void assertRejected(String annotation) {
+        String source = "package test.json;\n"
+            + "@com.indoqa.boot.json.annotation.IndoqaJson\n"
+            + annotation
+            + "\npublic class Rejected {\n"
+            + "    public String getName() { return null; }\n"
+            + "}\n";
+
+        Compilation compilation = compile(Collections.singletonMap("test.json.Rejected", source));
+        assertFalse(compilation.isSuccess());
+        assertTrue(compilation.getErrors(), compilation.getErrors().contains("is not supported by @IndoqaJson"));
+    }
+
+    @Test
+    public void defaultConfiguration() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper();
+        ObjectMapper beanMapper = new ObjectMapper();
+        assertTrue(isGenerated(generatedMapper, "test.json.Order"));
+        assertTrue(isGenerated(generatedMapper, "test.json.Customer"));
+
+        for (Object order : Arrays.asList(createOrder(true), createOrder(false))) {
+            String json = beanMapper.writeValueAsString(order);
+            assertEquals(json, generatedMapper.writeValueAsString(order));
+            assertEquals(json, generatedMapper.writeValueAsString(generatedMapper.readValue(json, order.getClass())));
+        }
+        assertEquals(
+            "{\"id\":\"order-1\",\"quantity\":3,\"paid\":true,\"note\":\"\",\"tags\":[\"a\",\"b\"],"
+                + "\"customer\":{\"name\":\"customer\",\"url\":\"https://www.indoqa.com\"},\"total-price\":12.5}",
+            generatedMapper.writeValueAsString(createOrder(true)));
+    }
+
+    @Test
+    public void fieldSelection() throws Exception {
+        FieldSelectionCache fieldSelectionCache = new FieldSelectionCache(10);
+        ObjectMapper generatedMapper = FieldSelectionFilter.createFilteringMapper(createGeneratedMapper());
+        ObjectMapper beanMapper = FieldSelectionFilter.createFilteringMapper(new ObjectMapper());
+        assertFalse(isGenerated(generatedMapper, "test.json.Order"));
+
+        String json = generatedMapper.writer(fieldSelectionCache.get("id,customer.name")).writeValueAsString(createOrder(true));
+        assertEquals("{\"id\":\"order-1\",\"customer\":{\"name\":\"customer\"}}", json);
+        assertEquals(beanMapper.writer(fieldSelectionCache.get("id,customer.name")).writeValueAsString(createOrder(true)), json);
+    }
+
+    @Test
+    public void namingStrategy() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper().setPropertyNamingStrategy(PropertyNamingStrategies.UPPER_CAMEL_CASE);
+        ObjectMapper beanMapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.UPPER_CAMEL_CASE);
+        assertFalse(isGenerated(generatedMapper, "test.json.Order"));
+        assertEquals(beanMapper.writeValueAsString(createOrder(true)), generatedMapper.writeValueAsString(createOrder(true)));
+    }
+
+    @Test
+    public void nonEmptyInclusion() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper().setSerializationInclusion(Include.NON_EMPTY);
+        ObjectMapper beanMapper = new ObjectMapper().setSerializationInclusion(Include.NON_EMPTY);
+        assertFalse(isGenerated(generatedMapper, "test.json.Order"));
+        assertEquals(beanMapper.writeValueAsString(createOrder(true)), generatedMapper.writeValueAsString(createOrder(true)));
+    }
+
+    @Test
+    public void nonNullInclusion() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper().setSerializationInclusion(Include.NON_NULL);
+        ObjectMapper beanMapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+        assertTrue(isGenerated(generatedMapper, "test.json.Order"));
+        assertEquals(beanMapper.writeValueAsString(createOrder(false)), generatedMapper.writeValueAsString(createOrder(false)));
+    }
+
+    @Test
+    public void processorIsNotRegisteredAsService() {
+        for (Processor processor : ServiceLoader.load(Processor.class, GeneratedSerializersTest.class.getClassLoader())) {
+            assertNotEquals(IndoqaJsonProcessor.class, processor.getClass());
+        }
+    }
+
+    @Test
+    public void rejectUnsupportedAnnotations() {
+        assertRejected("@com.fasterxml.jackson.annotation.JsonFilter(\"filter\")");
+        assertRejected("@com.fasterxml.jackson.annotation.JsonView(Object.class)");
+        assertRejected("@com.fasterxml.jackson.annotation.JsonInclude(\n"
+            + "com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY)");
+    }
+
+    @Test
+    public void subclass() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper();
+        Object specialOrder = newInstance("test.json.SpecialOrder");
+        assertFalse(isGenerated(generatedMapper, "test.json.SpecialOrder"));
+        assertTrue(generatedMapper.writeValueAsString(specialOrder).contains("\"priority\":1"));
+    }
+
+    @Test
+    public void viewInclusionDisabled() throws Exception {
+        ObjectMapper generatedMapper = createGeneratedMapper().disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        ObjectMapper beanMapper = new ObjectMapper().disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        assertFalse(isGenerated(generatedMapper, "test.json.Order"));
+
+        String json = generatedMapper.writerWithView(Object.class).writeValueAsString(createOrder(true));
+        assertEquals("{}", json);
+        assertEquals(beanMapper.writerWithView(Object.class).writeValueAsString(createOrder(true)), json);
+    }
+
+    private static final class Compilation {
+
+        private final boolean success;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final ClassLoader classLoader;
+
+        Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, ClassLoader classLoader) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            this.classLoader = classLoader;
+        }
+
+        public ClassLoader getClassLoader() {
+            return this.classLoader;
+        }
+
+        public String getErrors() {
+            StringBuilder result = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : this.diagnostics) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    result.append(diagnostic.getMessage(Locale.ENGLISH)).append('\n');
+                }
+            }
+            return result.toString();
+        }
+
+        public boolean isSuccess() {
+            return this.success;
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.source;
+        }
+    }
+}
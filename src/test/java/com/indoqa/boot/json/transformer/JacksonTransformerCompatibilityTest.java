@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Verifies that all transformer variants produce the same JSON as the {@link JacksonTransformer} and read it back. The Blackbird
+ * module is a test dependency of this project.
+ */
+@RunWith(Parameterized.class)
+public class JacksonTransformerCompatibilityTest {
+
+    private static final JsonTransformer REFERENCE = new JacksonTransformer();
+
+    private final JsonTransformer transformer;
+
+    public JacksonTransformerCompatibilityTest(String name, JsonTransformer transformer) {
+        this.transformer = transformer;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> transformers() {
+        List<Object[]> result = new ArrayList<>();
+        result.add(new Object[] {"jackson", new JacksonTransformer()});
+        result.add(new Object[] {"html-escaping", new HtmlEscapingJacksonTransformer()});
+        result.add(new Object[] {"blackbird", new BlackbirdJacksonTransformer()});
+        return result;
+    }
+
+    private static TestDto createDto() {
+        TestDto result = new TestDto();
+        result.setName("name");
+        result.setCount(42);
+        result.setActive(true);
+        result.setCreated(Date.from(Instant.parse("2020-01-26T10:15:30Z")));
+        result.setTags(Arrays.asList("a", "b"));
+        result.setAttributes(Collections.singletonMap("key", 1.5));
+
+        TestDto child = new TestDto();
+        child.setName("child");
+        result.setChild(child);
+        return result;
+    }
+
+    @Test
+    public void readBytesAndStreams() {
+        String json = REFERENCE.render(createDto());
+
+        assertEquals(createDto(), this.transformer.toObject(json.getBytes(UTF_8), TestDto.class));
+        assertEquals(createDto(), this.transformer.toObject(new ByteArrayInputStream(json.getBytes(UTF_8)), TestDto.class));
+
+        List<TestDto> list = this.transformer
+            .toObject(("[" + json + "]").getBytes(UTF_8), new TypeReference<List<TestDto>>() {
+                // type reference
+            });
+        assertEquals(Collections.singletonList(createDto()), list);
+    }
+
+    @Test
+    public void renderSameJson() {
+        assertEquals(REFERENCE.render(createDto()), this.transformer.render(createDto()));
+        assertEquals("", this.transformer.render(null));
+    }
+
+    @Test
+    public void roundTrip() {
+        String json = this.transformer.render(createDto());
+        assertEquals(createDto(), this.transformer.toObject(json, TestDto.class));
+    }
+
+    @Test
+    public void writeSameJson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.transformer.write(createDto(), outputStream);
+
+        assertEquals(this.transformer.render(createDto()), outputStream.toString(UTF_8));
+    }
+
+    public static class TestDto {
+
+        private String name;
+        private int count;
+        private boolean active;
+        private Date created;
+        private List<String> tags;
+        private Map<String, Double> attributes;
+        private TestDto child;
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TestDto)) {
+                return false;
+            }
+
+            TestDto other = (TestDto) obj;
+            return Objects.equals(this.name, other.name) && this.count == other.count && this.active == other.active
+                && Objects.equals(this.created, other.created) && Objects.equals(this.tags, other.tags)
+                && Objects.equals(this.attributes, other.attributes) && Objects.equals(this.child, other.child);
+        }
+
+        public Map<String, Double> getAttributes() {
+            return this.attributes;
+        }
+
+        public TestDto getChild() {
+            return this.child;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+
+        public Date getCreated() {
+            return this.created;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public List<String> getTags() {
+            return this.tags;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.name, this.count, this.active, this.created, this.tags, this.attributes, this.child);
+        }
+
+        public boolean isActive() {
+            return this.active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public void setAttributes(Map<String, Double> attributes) {
+            this.attributes = attributes;
+        }
+
+        public void setChild(TestDto child) {
+            this.child = child;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public void setCreated(Date created) {
+            this.created = created;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+}
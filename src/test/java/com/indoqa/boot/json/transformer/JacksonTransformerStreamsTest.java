@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.Test;
+
+public class JacksonTransformerStreamsTest {
+
+    private static final AbstractJacksonTransformer TRANSFORMER = new JacksonTransformer();
+    private static final Map<String, String> MODEL = Collections.singletonMap("name", "value");
+    private static final String JSON = "{\"name\":\"value\"}";
+    private static final TypeReference<List<Map<String, String>>> LIST_TYPE = new TypeReference<>() {
+        // the generic type is captured by the subclass
+    };
+
+    @Test
+    public void writeLeavesStreamOpen() throws Exception {
+        CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+
+        TRANSFORMER.write(MODEL, outputStream);
+        TRANSFORMER.select("name").write(MODEL, outputStream);
+        TRANSFORMER.getObjectMapper().writeValue(outputStream, MODEL);
+
+        assertFalse(outputStream.closed);
+        assertEquals(JSON + JSON + JSON, outputStream.toString(UTF_8));
+    }
+
+    @Test
+    public void readLeavesStreamOpen() throws Exception {
+        CloseTrackingInputStream inputStream = new CloseTrackingInputStream(JSON);
+        assertEquals(MODEL, TRANSFORMER.toObject(inputStream, Map.class));
+        assertFalse(inputStream.closed);
+
+        CloseTrackingInputStream typeReferenceInputStream = new CloseTrackingInputStream("[" + JSON + "]");
+        assertEquals(Collections.singletonList(MODEL), TRANSFORMER.toObject(typeReferenceInputStream, LIST_TYPE));
+        assertFalse(typeReferenceInputStream.closed);
+
+        CloseTrackingInputStream formatInputStream = new CloseTrackingInputStream(JSON);
+        assertEquals(MODEL, TRANSFORMER.toObject(formatInputStream, Map.class, DataFormat.JSON));
+        assertFalse(formatInputStream.closed);
+
+        CloseTrackingInputStream mapperInputStream = new CloseTrackingInputStream(JSON);
+        assertEquals(MODEL, TRANSFORMER.getObjectMapper().readValue(mapperInputStream, Map.class));
+        assertFalse(mapperInputStream.closed);
+    }
+
+    @Test
+    public void writeSequenceLeavesStreamOpen() throws Exception {
+        CloseTrackingOutputStream arrayOutputStream = new CloseTrackingOutputStream();
+        TRANSFORMER.writeSequence(Arrays.asList(MODEL, MODEL).iterator(), arrayOutputStream, DataFormat.JSON, false, 1);
+        assertFalse(arrayOutputStream.closed);
+        assertEquals("[" + JSON + "," + JSON + "]", arrayOutputStream.toString(UTF_8));
+
+        CloseTrackingOutputStream emptyArrayOutputStream = new CloseTrackingOutputStream();
+        TRANSFORMER.writeSequence(Collections.emptyIterator(), emptyArrayOutputStream, DataFormat.JSON, false, 1);
+        assertEquals("[]", emptyArrayOutputStream.toString(UTF_8));
+    }
+
+    @Test
+    public void writeNewlineDelimitedSequence() throws Exception {
+        CloseTrackingOutputStream outputStream = new CloseTrackingOutputStream();
+        TRANSFORMER.writeSequence(Arrays.asList(MODEL, MODEL, MODEL).iterator(), outputStream, DataFormat.JSON, true, 2);
+        assertFalse(outputStream.closed);
+        assertEquals(JSON + "\n" + JSON + "\n" + JSON + "\n", outputStream.toString(UTF_8));
+
+        CloseTrackingOutputStream selectedOutputStream = new CloseTrackingOutputStream();
+        TRANSFORMER.select("name").writeSequence(Arrays.asList(MODEL).iterator(), selectedOutputStream, DataFormat.JSON, true, 1);
+        assertFalse(selectedOutputStream.closed);
+        assertEquals(JSON + "\n", selectedOutputStream.toString(UTF_8));
+
+        CloseTrackingOutputStream emptyOutputStream = new CloseTrackingOutputStream();
+        TRANSFORMER.writeSequence(Collections.emptyIterator(), emptyOutputStream, DataFormat.JSON, true, 1);
+        assertEquals("", emptyOutputStream.toString(UTF_8));
+    }
+
+    /*default*/ static final class CloseTrackingInputStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        CloseTrackingInputStream(String content) {
+            super(content.getBytes(UTF_8));
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    /*default*/ static final class CloseTrackingOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.Test;
+
+public class JsonTransformerTest {
+
+    private static final JsonTransformer TRANSFORMER = new StringTransformer();
+    private static final TypeReference<String> STRING_TYPE = new TypeReference<>() {
+        // the type is captured by the subclass
+    };
+
+    @Test
+    public void defaultMethodsSupportJson() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TRANSFORMER.write("value", outputStream, DataFormat.JSON);
+        assertEquals("value", outputStream.toString(UTF_8));
+
+        byte[] json = outputStream.toByteArray();
+        assertEquals("value", TRANSFORMER.toObject(new ByteArrayInputStream(json), String.class, DataFormat.JSON));
+        assertEquals("value", TRANSFORMER.toObject(json, STRING_TYPE));
+        assertEquals("value", TRANSFORMER.toObject(new ByteArrayInputStream(json), STRING_TYPE, DataFormat.JSON));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void defaultWriteRejectsOtherFormats() throws Exception {
+        TRANSFORMER.write("value", new ByteArrayOutputStream(), DataFormat.CBOR);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void defaultReadRejectsOtherFormats() {
+        TRANSFORMER.toObject(new ByteArrayInputStream(new byte[0]), String.class, DataFormat.SMILE);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void defaultReadRejectsGenericTypes() {
+        TRANSFORMER.toObject("value".getBytes(UTF_8), new TypeReference<List<Map<String, String>>>() {
+            // the type is captured by the subclass
+        });
+    }
+
+    /**
+     * A transformer that only implements the abstract methods, like custom implementations of previous versions.
+     */
+    private static final class StringTransformer implements JsonTransformer {
+
+        @Override
+        public String render(Object model) {
+            return String.valueOf(model);
+        }
+
+        @Override
+        public <T> T toObject(String json, Class<T> type) {
+            return type.cast(json);
+        }
+    }
+}
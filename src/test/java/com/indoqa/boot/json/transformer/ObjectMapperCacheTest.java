@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.json.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indoqa.boot.actuate.metrics.Metric;
+import org.junit.Test;
+
+public class ObjectMapperCacheTest {
+
+    private static Map<String, Number> getMetrics(ObjectMapperCache cache) {
+        Map<String, Number> result = new HashMap<>();
+        for (Metric<?> metric : cache.metrics("cache")) {
+            result.put(metric.getName(), metric.getValue());
+        }
+        return result;
+    }
+
+    @Test
+    public void cacheReadersOfTypeReferences() {
+        ObjectMapperCache cache = new ObjectMapperCache(new ObjectMapper());
+
+        TypeReference<List<String>> typeReference = new TypeReference<>() {
+            // the type is captured by the subclass
+        };
+        TypeReference<List<String>> otherTypeReference = new TypeReference<>() {
+            // the type is captured by the subclass
+        };
+        TypeReference<Map<String, String>> mapTypeReference = new TypeReference<>() {
+            // the type is captured by the subclass
+        };
+
+        assertSame(cache.getReader(typeReference), cache.getReader(otherTypeReference));
+        cache.getReader(mapTypeReference);
+
+        Map<String, Number> metrics = getMetrics(cache);
+        assertEquals(2L, metrics.get("cache.readers.size"));
+        assertEquals(1L, metrics.get("cache.readers.hits"));
+    }
+
+    @Test
+    public void cacheWritersAndReadersOfClasses() {
+        ObjectMapperCache cache = new ObjectMapperCache(new ObjectMapper());
+
+        assertSame(cache.getWriter(String.class), cache.getWriter(String.class));
+        assertSame(cache.getReader(String.class), cache.getReader(String.class));
+
+        Map<String, Number> metrics = getMetrics(cache);
+        assertEquals(1L, metrics.get("cache.writers.size"));
+        assertEquals(1L, metrics.get("cache.writers.hits"));
+        assertEquals(1L, metrics.get("cache.readers.size"));
+        assertEquals(1L, metrics.get("cache.readers.hits"));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class AcceptEncodingTest {
+
+    private static final float DELTA = 0.0001f;
+
+    private static MockHttpServletRequest createRequest(String... headers) {
+        MockHttpServletRequest result = new MockHttpServletRequest();
+        for (String eachHeader : headers) {
+            result.addHeader(AcceptEncoding.HEADER_ACCEPT_ENCODING, eachHeader);
+        }
+        return result;
+    }
+
+    @Test
+    public void getQuality() {
+        assertEquals(1, AcceptEncoding.getQuality("gzip", "gzip"), DELTA);
+        assertEquals(1, AcceptEncoding.getQuality("deflate, GZIP", "gzip"), DELTA);
+        assertEquals(0.5, AcceptEncoding.getQuality("br;q=1.0, gzip;q=0.5", "gzip"), DELTA);
+        assertEquals(0.8, AcceptEncoding.getQuality("gzip ; level=1 ; Q=0.8", "gzip"), DELTA);
+        assertEquals(1, AcceptEncoding.getQuality("gzip;level=1", "gzip"), DELTA);
+    }
+
+    @Test
+    public void getQualityOfRejectedEncoding() {
+        assertEquals(0, AcceptEncoding.getQuality("gzip;q=0", "gzip"), DELTA);
+        assertEquals(0, AcceptEncoding.getQuality("br, gzip;q=0.0", "gzip"), DELTA);
+        assertEquals(0, AcceptEncoding.getQuality("gzip;q=invalid", "gzip"), DELTA);
+    }
+
+    @Test
+    public void getQualityOfMissingEncoding() {
+        assertEquals(0, AcceptEncoding.getQuality("", "gzip"), DELTA);
+        assertEquals(0, AcceptEncoding.getQuality("br, deflate", "gzip"), DELTA);
+        assertEquals(0, AcceptEncoding.getQuality("gzip-like", "gzip"), DELTA);
+        assertEquals(0, AcceptEncoding.getQuality("*", "gzip"), DELTA);
+    }
+
+    @Test
+    public void accepts() {
+        assertTrue(AcceptEncoding.accepts(createRequest("gzip, br"), "gzip"));
+        assertTrue(AcceptEncoding.accepts(createRequest("br", "gzip;q=0.1"), "gzip"));
+        assertFalse(AcceptEncoding.accepts(createRequest("br, gzip;q=0"), "gzip"));
+        assertFalse(AcceptEncoding.accepts(createRequest("identity"), "gzip"));
+        assertFalse(AcceptEncoding.accepts(createRequest(), "gzip"));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.resources;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ETagsTest {
+
+    private static final String ETAG = ETags.strong("body".getBytes(UTF_8));
+
+    @Test
+    public void matchStrongAndWeakTags() {
+        assertTrue(ETags.matches(ETAG, ETAG));
+        assertTrue(ETags.matches("W/" + ETAG, ETAG));
+        assertTrue(ETags.matches(ETAG, "W/" + ETAG));
+        assertTrue(ETags.matches("W/" + ETAG, "W/" + ETAG));
+    }
+
+    @Test
+    public void matchListOfTags() {
+        assertTrue(ETags.matches("\"other\", " + ETAG, ETAG));
+        assertTrue(ETags.matches("\"other\",W/" + ETAG, ETAG));
+        assertFalse(ETags.matches("\"other\", W/\"another\"", ETAG));
+    }
+
+    @Test
+    public void matchWildcard() {
+        assertTrue(ETags.matches("*", ETAG));
+        assertTrue(ETags.matches("*", "W/" + ETAG));
+    }
+
+    @Test
+    public void missingTagsDontMatch() {
+        assertFalse(ETags.matches(null, ETAG));
+        assertFalse(ETags.matches(ETAG, null));
+        assertFalse(ETags.matches("", ETAG));
+    }
+
+    @Test
+    public void createTags() {
+        byte[] body = "body".getBytes(UTF_8);
+
+        assertTrue(ETAG.startsWith("\"4-"));
+        assertTrue(ETAG.endsWith("\""));
+        assertEquals(ETAG, ETags.strong("a body".getBytes(UTF_8), 2, 4));
+        assertNotEquals(ETAG, ETags.strong("Body".getBytes(UTF_8)));
+        assertEquals("W/" + ETAG, ETags.weak(body));
+        assertEquals("W/\"42\"", ETags.weak("42"));
+        assertEquals(ETAG.substring(0, ETAG.length() - 1) + "--gzip\"", ETags.variant(ETAG, "gzip"));
+    }
+}
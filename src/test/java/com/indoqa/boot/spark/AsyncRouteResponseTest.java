@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark;
+
+import static jakarta.servlet.DispatcherType.ASYNC;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class AsyncRouteResponseTest {
+
+    @Test
+    public void initialDispatch() {
+        assertFalse(AsyncRouteResponse.isAsyncDispatch(new MockHttpServletRequest("GET", "/resource")));
+    }
+
+    @Test
+    public void dispatchMarkedByAttribute() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resource");
+        request.setAttribute(AsyncRouteResponse.ATTRIBUTE_ASYNC_DISPATCH, Boolean.TRUE);
+
+        assertTrue(AsyncRouteResponse.isAsyncDispatch(request));
+    }
+
+    @Test
+    public void dispatchMarkedByDispatcherType() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resource");
+        request.setDispatcherType(ASYNC);
+
+        assertTrue(AsyncRouteResponse.isAsyncDispatch(request));
+    }
+
+    @Test
+    public void afterCompletionSkipsAsyncDispatch() {
+        AtomicInteger completions = new AtomicInteger();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resource");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AsyncRouteResponse.afterCompletion(request, response, status -> completions.incrementAndGet());
+        assertEquals(1, completions.get());
+
+        request.setAttribute(AsyncRouteResponse.ATTRIBUTE_ASYNC_DISPATCH, Boolean.TRUE);
+        AsyncRouteResponse.afterCompletion(request, response, status -> completions.incrementAndGet());
+        assertEquals(1, completions.get());
+    }
+}
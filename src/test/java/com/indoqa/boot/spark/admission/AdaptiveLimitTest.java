@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AdaptiveLimitTest {
+
+    private static final long FAST_RTT = MILLISECONDS.toNanos(10);
+    private static final long SLOW_RTT = MILLISECONDS.toNanos(100);
+
+    @Test
+    public void gradientGrowsWithStableLatency() {
+        GradientLimit limit = new GradientLimit(20, 4, 1000);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST_RTT, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > 20);
+        assertEquals(10.0, limit.getMinRttMillis(), 0.001);
+    }
+
+    @Test
+    public void gradientShrinksWithIncreasingLatency() {
+        GradientLimit limit = new GradientLimit(50, 4, 1000);
+        limit.onSample(FAST_RTT, 50, false);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(SLOW_RTT, limit.getLimit(), false);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void gradientDoesNotGrowIfUnused() {
+        GradientLimit limit = new GradientLimit(20, 4, 1000);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST_RTT, 1, false);
+        }
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    public void minRttIsResetToTheMinimumOfTheWindow() {
+        GradientLimit limit = new GradientLimit(20, 4, 1000);
+        limit.onSample(FAST_RTT, 1, false);
+        for (int i = 1; i < 999; i++) {
+            limit.onSample(SLOW_RTT, 1, false);
+        }
+        assertEquals(10.0, limit.getMinRttMillis(), 0.001);
+
+        limit.onSample(MILLISECONDS.toNanos(200), 1, false);
+        assertEquals(10.0, limit.getMinRttMillis(), 0.001);
+
+        limit.onSample(MILLISECONDS.toNanos(200), 1, false);
+        assertEquals(10.0, limit.getMinRttMillis(), 0.001);
+
+        for (int i = 0; i < 999; i++) {
+            limit.onSample(SLOW_RTT, 1, false);
+        }
+        assertEquals(100.0, limit.getMinRttMillis(), 0.001);
+    }
+
+    @Test
+    public void aimdBacksOffOnDrop() {
+        AimdLimit limit = new AimdLimit(20, 4, 1000, MILLISECONDS.toNanos(50));
+        assertEquals(21, limit.onSample(FAST_RTT, 20, false));
+        assertEquals(18, limit.onSample(FAST_RTT, 20, true));
+        assertEquals(17, limit.onSample(SLOW_RTT, 20, false));
+    }
+}
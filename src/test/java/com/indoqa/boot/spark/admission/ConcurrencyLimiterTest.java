@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.boot.spark.admission;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void acquireWithinLimit() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 0, 0, MILLISECONDS);
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void rejectWithoutQueue() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 0, 1000, MILLISECONDS);
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+    }
+
+    @Test
+    public void rejectAfterQueueTimeout() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 20, MILLISECONDS);
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    public void admitQueuedRequestAfterRelease() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10, SECONDS);
+        assertTrue(limiter.acquire());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> queued = executor.submit(limiter::acquire);
+            while (limiter.getQueued() == 0) {
+                Thread.sleep(1);
+            }
+
+            // the queue is full
+            assertFalse(limiter.acquire());
+
+            limiter.release();
+            assertTrue(queued.get(10, SECONDS));
+            assertEquals(1, limiter.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}